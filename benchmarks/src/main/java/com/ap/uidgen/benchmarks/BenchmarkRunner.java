@@ -0,0 +1,53 @@
+package com.ap.uidgen.benchmarks;
+
+import java.util.Arrays;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run a set of benchmarks once per thread count with the GC profiler, to observe how they scale
+ * under contention and how much they allocate. Results of each run are written as JSON to
+ * {@code jmh-result-<threads>-threads.json}, to be compared against a baseline before upgrades.
+ *
+ * Usage:
+ *
+ *    java -cp benchmarks/target/benchmarks.jar com.ap.uidgen.benchmarks.BenchmarkRunner \
+ *      [include regex] [comma separated thread counts]
+ *
+ * Runs all benchmarks at 1, 4 and one thread per available core by default.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class BenchmarkRunner
+{
+  private static final String DEFAULT_INCLUDE = "com.ap.uidgen.benchmarks.*";
+
+  public static void main(String[] args) throws RunnerException {
+    final String include = args.length > 0 ? args[0] : DEFAULT_INCLUDE;
+    final int[] threadCounts = args.length > 1
+        ? Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray()
+        : defaultThreadCounts();
+
+    for(int threads : threadCounts) {
+      final Options options = new OptionsBuilder()
+          .include(include)
+          .threads(threads)
+          .addProfiler(GCProfiler.class)
+          .resultFormat(ResultFormatType.JSON)
+          .result("jmh-result-" + threads + "-threads.json")
+          .build();
+      new Runner(options).run();
+    }
+  }
+
+  private static int[] defaultThreadCounts() {
+    final int cores = Runtime.getRuntime().availableProcessors();
+    return Arrays.stream(new int[] { 1, 4, cores }).distinct().sorted().toArray();
+  }
+}
@@ -0,0 +1,133 @@
+package com.ap.uidgen.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ap.uidgen.core.services.clock.SystemTickSource;
+import com.ap.uidgen.core.services.snowflake.NamespacedSnowflakeUid;
+import com.ap.uidgen.core.services.snowflake.SnowflakeUid;
+import com.ap.uidgen.core.services.snowflake.SnowflakeUniqueIdGenerator;
+import com.ap.uidgen.core.services.uuid.ULIDUniqueIdGenerator;
+import com.ap.uidgen.core.services.uuid.UUIDMode;
+import com.ap.uidgen.core.services.uuid.UUIDUniqueIdGenerator;
+import com.ap.uidgen.core.services.uuid.UUIDv7UniqueIdGenerator;
+
+/**
+ * Cost of a single id through each layer of the generators, as used by the api handler.
+ *
+ * Snowflakes are not thread safe, each thread owns one configured with its own worker id, just
+ * like verticle instances do. UUID, UUID v7 and ULID generators are shared by all threads.
+ *
+ * Run at 1, 4 and N threads with {@link BenchmarkRunner}.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmarks.xml")
+public class GeneratorBenchmark
+{
+  private static final String NAMESPACE = "benchmark";
+
+  @State(Scope.Thread)
+  public static class PerWorkerSnowflake
+  {
+    private static final AtomicInteger WORKER_IDS = new AtomicInteger();
+
+    SnowflakeUid snowflake;
+    SnowflakeUniqueIdGenerator generator;
+    NamespacedSnowflakeUid namespacedSnowflake;
+
+    // namespaces requested in turn, as multi tenant traffic would
+    final String[] namespaces = new String[64];
+    int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      final int workerId = WORKER_IDS.getAndIncrement() % 1024;
+      snowflake = new SnowflakeUid(workerId);
+      generator = new SnowflakeUniqueIdGenerator(new SnowflakeUid(workerId));
+      namespacedSnowflake = new NamespacedSnowflakeUid(workerId);
+      for(int i = 0; i < namespaces.length; i++) {
+        namespaces[i] = NAMESPACE + i;
+      }
+    }
+
+    String nextNamespace() {
+      return namespaces[next++ & (namespaces.length - 1)];
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class SharedUUID
+  {
+    @Param({ "SECURE", "STRONG", "FAST" })
+    UUIDMode mode;
+
+    UUIDUniqueIdGenerator generator;
+    UUIDv7UniqueIdGenerator uuidv7Generator;
+    ULIDUniqueIdGenerator ulidGenerator;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      generator = new UUIDUniqueIdGenerator(mode);
+      uuidv7Generator = new UUIDv7UniqueIdGenerator(mode, SystemTickSource.INSTANCE);
+      ulidGenerator = new ULIDUniqueIdGenerator(mode, SystemTickSource.INSTANCE);
+    }
+  }
+
+  @Benchmark
+  public String snowflakeGenerateId(PerWorkerSnowflake state) {
+    return state.snowflake.generateId();
+  }
+
+  @Benchmark
+  public long snowflakeNextId(PerWorkerSnowflake state) {
+    return state.snowflake.nextId();
+  }
+
+  /**
+   * Same as {@link #snowflakeNextId}, each namespace having its own sequence: compare to see how
+   * much the sequence of a single worker id caps throughput.
+   */
+  @Benchmark
+  public long namespacedSnowflakeNextId(PerWorkerSnowflake state) {
+    return state.namespacedSnowflake.nextId(state.nextNamespace());
+  }
+
+  @Benchmark
+  public String snowflakeGenerateUid(PerWorkerSnowflake state) {
+    return state.generator.generateUid(NAMESPACE);
+  }
+
+  @Benchmark
+  public String uuidGenerateUid(SharedUUID state) {
+    return state.generator.generateUid(NAMESPACE);
+  }
+
+  @Benchmark
+  public String uuidv7GenerateUid(SharedUUID state) {
+    return state.uuidv7Generator.generateUid(NAMESPACE);
+  }
+
+  @Benchmark
+  public String ulidGenerateUid(SharedUUID state) {
+    return state.ulidGenerator.generateUid(NAMESPACE);
+  }
+}
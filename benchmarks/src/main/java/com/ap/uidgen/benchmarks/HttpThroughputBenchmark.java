@@ -0,0 +1,188 @@
+package com.ap.uidgen.benchmarks;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+
+import com.ap.uidgen.web.ApiConfiguration.ConfigurationKeys;
+import com.ap.uidgen.web.ApiMain;
+
+/**
+ * End to end throughput of the api, deployed in process with one verticle instance per core and
+ * called over loopback with the vert.x web client. Each benchmark thread has a single request in
+ * flight, so the thread count is the request concurrency.
+ *
+ * Each protocol is measured: HTTP/1.1 over a pool of connections, one request in flight per
+ * connection, and HTTP/2 in clear text multiplexing all requests over a single connection.
+ *
+ * Responses are requested as json by default. Compare representations of 64 bits ids with
+ * {@code -p generator=snowflake -p accept=application/json,text/plain,application/octet-stream}.
+ *
+ * Logging is measured as configured for the service by default: access logs of every request
+ * through an async appender, per id logs disabled. Compare with
+ * {@code -p accessLogSampleRate=1,100 -p logging=async,sync -p generatorLogLevel=INFO,DEBUG}, sync
+ * writing from the event loops and DEBUG restoring a log line per id.
+ *
+ * Client and server share the same cores: numbers are only comparable between runs on the same
+ * machine.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+    "-Dlogback.configurationFile=logback-benchmarks.xml",
+    "-Dvertx.logger-delegate-factory-class-name=io.vertx.core.logging.SLF4JLogDelegateFactory" })
+public class HttpThroughputBenchmark
+{
+  @State(Scope.Benchmark)
+  public static class Api
+  {
+    @Param({ "snowflake", "uuid", "uuidv7", "ulid" })
+    String generator;
+
+    @Param({ "application/json" })
+    String accept;
+
+    @Param({ "HTTP_1_1", "HTTP_2" })
+    HttpVersion protocol;
+
+    @Param({ "1" })
+    int accessLogSampleRate;
+
+    @Param({ "async" })
+    String logging;
+
+    @Param({ "INFO" })
+    String generatorLogLevel;
+
+    @Param({ "event-loop" })
+    String executionMode;
+
+    Vertx vertx;
+    WebClient client;
+    int port;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, InterruptedException, ExecutionException {
+      try(ServerSocket socket = new ServerSocket(0)) {
+        port = socket.getLocalPort();
+      }
+
+      final JsonObject config = new JsonObject()
+          .put(ConfigurationKeys.SERVER_PORT.toString(), port)
+          .put(ConfigurationKeys.UID_GENERATOR.toString(), generator)
+          .put(ConfigurationKeys.CORS_ORIGIN_REGEX.toString(), "*")
+          .put(ConfigurationKeys.BASE_WORKER_ID.toString(), 0)
+          .put(ConfigurationKeys.ACCESS_LOG_SAMPLE_RATE.toString(), accessLogSampleRate)
+          .put(ConfigurationKeys.EXECUTION_MODE.toString(), executionMode);
+      configureLogging();
+
+      vertx = Vertx.vertx();
+      final CompletableFuture<String> deployed = new CompletableFuture<>();
+      ApiMain.deployVerticle(vertx, config, Runtime.getRuntime().availableProcessors(), ar -> {
+        if(ar.succeeded()) {
+          deployed.complete(ar.result());
+        }
+        else {
+          deployed.completeExceptionally(ar.cause());
+        }
+      });
+      deployed.get();
+
+      client = WebClient.create(vertx, new WebClientOptions()
+          .setDefaultPort(port)
+          .setMaxPoolSize(256)
+          .setKeepAlive(true)
+          .setProtocolVersion(protocol)
+          // h2c with prior knowledge
+          .setHttp2ClearTextUpgrade(false)
+          .setHttp2MaxPoolSize(1)
+          .setHttp2MultiplexingLimit(1000));
+    }
+
+    /**
+     * Apply the logging params to the configuration of logback-benchmarks.xml, each trial
+     * running in its own fork.
+     */
+    private void configureLogging() {
+      final LoggerContext context = (LoggerContext)LoggerFactory.getILoggerFactory();
+      final Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+      if("sync".equals(logging)) {
+        final AsyncAppender async = (AsyncAppender)root.getAppender("async");
+        root.addAppender(async.getAppender("file"));
+        root.detachAppender(async);
+      }
+      context.getLogger("com.ap.uidgen.core.services").setLevel(
+          ch.qos.logback.classic.Level.toLevel(generatorLogLevel));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, ExecutionException {
+      client.close();
+      final CompletableFuture<Void> closed = new CompletableFuture<>();
+      vertx.close(ar -> closed.complete(null));
+      closed.get();
+    }
+  }
+
+  @Benchmark
+  public int getUid(Api api) throws InterruptedException, ExecutionException {
+    return get(api, "/uidapi/v1/uid/benchmark");
+  }
+
+  @Benchmark
+  public int getUids(Api api) throws InterruptedException, ExecutionException {
+    return get(api, "/uidapi/v1/uids/benchmark?count=100");
+  }
+
+  private static int get(Api api, String uri) throws InterruptedException, ExecutionException {
+    final CompletableFuture<HttpResponse<Buffer>> response = new CompletableFuture<>();
+    api.client.get(uri).putHeader("Accept", api.accept).send(ar -> {
+      if(ar.succeeded()) {
+        response.complete(ar.result());
+      }
+      else {
+        response.completeExceptionally(ar.cause());
+      }
+    });
+
+    final HttpResponse<Buffer> result = response.get();
+    if(result.statusCode() != 200) {
+      throw new IllegalStateException("Unexpected status code " + result.statusCode());
+    }
+    return result.body().length();
+  }
+}
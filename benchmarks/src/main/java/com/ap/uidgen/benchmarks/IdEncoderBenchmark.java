@@ -0,0 +1,66 @@
+package com.ap.uidgen.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ap.uidgen.core.services.encoding.IdEncoder;
+import com.ap.uidgen.core.services.encoding.IdFormat;
+import com.ap.uidgen.core.services.snowflake.SnowflakeUid;
+
+/**
+ * Cost of encoding an id into a response buffer, with each encoder compared to the string based
+ * decimal encoding. Ids are spread over the whole 64 bits range rather than generated by a
+ * snowflake, whose sequence would cap the throughput measured.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmarks.xml")
+@State(Scope.Thread)
+public class IdEncoderBenchmark
+{
+  @Param({ "DEC", "HEX", "B32", "B62" })
+  IdFormat format;
+
+  IdEncoder encoder;
+  byte[] buffer;
+  long id;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    encoder = format.getEncoder();
+    buffer = new byte[encoder.maxLength()];
+  }
+
+  @Benchmark
+  public int encode() {
+    return encoder.encode(nextId(), buffer, 0);
+  }
+
+  @Benchmark
+  public byte[] toUnsignedString() {
+    return SnowflakeUid.format(nextId()).getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private long nextId() {
+    id += 0x9E3779B97F4A7C15L;
+    return id;
+  }
+}
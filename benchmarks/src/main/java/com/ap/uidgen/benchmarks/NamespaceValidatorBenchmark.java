@@ -0,0 +1,44 @@
+package com.ap.uidgen.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ap.uidgen.web.handlers.NamespaceValidator;
+
+/**
+ * Cost of validating the namespace of every request, for a typical valid namespace, a namespace
+ * of maximum length and one rejected for its characters.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmarks.xml")
+@State(Scope.Benchmark)
+public class NamespaceValidatorBenchmark
+{
+  @Param({
+      "orders",
+      "abcdefghijklmnopqrstuvwxyz_ABCDEFGHIJKLMNOPQRSTUVW",
+      "invalid--namespace"
+  })
+  String namespace;
+
+  @Benchmark
+  public boolean validate() {
+    return new NamespaceValidator(namespace).isValid();
+  }
+}
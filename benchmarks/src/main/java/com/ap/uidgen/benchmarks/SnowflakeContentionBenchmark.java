@@ -0,0 +1,108 @@
+package com.ap.uidgen.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ap.uidgen.core.services.snowflake.ConcurrentSnowflakeUid;
+import com.ap.uidgen.core.services.SequentialWorkerIdStore;
+import com.ap.uidgen.core.services.snowflake.SnowflakeUniqueIdGenerator;
+import com.ap.uidgen.core.services.snowflake.SnowflakeUid;
+import com.ap.uidgen.core.services.snowflake.StripedSnowflakeUid;
+
+/**
+ * Compare a single lock free snowflake shared by all threads with the per verticle approach,
+ * where each thread owns a snowflake configured with its own worker id, and with the striped
+ * generator leasing such a snowflake to each thread. The shared generator measures the striped
+ * snowflake behind the {@link SnowflakeUniqueIdGenerator} of the worker execution mode.
+ *
+ * Run at 1 to 64 threads with {@link BenchmarkRunner}.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnowflakeContentionBenchmark
+{
+  @State(Scope.Benchmark)
+  public static class SharedSnowflake
+  {
+    ConcurrentSnowflakeUid snowflake;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      snowflake = new ConcurrentSnowflakeUid(1);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class PerWorkerSnowflake
+  {
+    private static final AtomicInteger WORKER_IDS = new AtomicInteger();
+
+    SnowflakeUid snowflake;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      snowflake = new SnowflakeUid(WORKER_IDS.getAndIncrement() % 1024);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class StripedSnowflake
+  {
+    StripedSnowflakeUid snowflake;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      snowflake = new StripedSnowflakeUid(new SequentialWorkerIdStore(0), 1024);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class SharedGenerator
+  {
+    SnowflakeUniqueIdGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      generator = new SnowflakeUniqueIdGenerator(
+          new StripedSnowflakeUid(new SequentialWorkerIdStore(0), 1024));
+    }
+  }
+
+  @Benchmark
+  public long concurrentShared(SharedSnowflake state) {
+    return state.snowflake.nextId();
+  }
+
+  @Benchmark
+  public long perWorkerId(PerWorkerSnowflake state) {
+    return state.snowflake.nextId();
+  }
+
+  @Benchmark
+  public long striped(StripedSnowflake state) {
+    return state.snowflake.nextId();
+  }
+
+  @Benchmark
+  public long sharedGenerator(SharedGenerator state) {
+    return state.generator.generateLongId("benchmark");
+  }
+}
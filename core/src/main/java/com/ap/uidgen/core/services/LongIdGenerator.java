@@ -0,0 +1,40 @@
+package com.ap.uidgen.core.services;
+
+/**
+ * Contract for generators emitting unique ids as primitive 64 bits values. Unlike
+ * {@link UniqueIdGenerator}, no namespace or string representation is involved, making this
+ * contract suitable for embedded usages where no garbage must be created per id.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public interface LongIdGenerator
+{
+  /**
+   * @return a unique 64 bits id. The value must be interpreted as an unsigned long.
+   */
+  long nextId();
+
+  /**
+   * Fill a range of the supplied array with unique ids. The default implementation calls
+   * {@link #nextId()} for each id.
+   *
+   * @param ids destination array
+   * @param offset index of the first id to write
+   * @param count number of ids to write
+   */
+  default void nextIds(long[] ids, int offset, int count) {
+    for(int i = offset; i < offset + count; i++) {
+      ids[i] = nextId();
+    }
+  }
+
+  /**
+   * @return how far the ids emitted so far run ahead of the clock, in milliseconds: 0 while in
+   * step with the clock, positive while ticks are borrowed or a clock regression is waited out.
+   * Generators not tracking it return 0.
+   */
+  default long getLeadMillis() {
+    return 0L;
+  }
+}
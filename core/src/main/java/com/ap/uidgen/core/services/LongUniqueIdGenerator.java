@@ -0,0 +1,33 @@
+package com.ap.uidgen.core.services;
+
+import com.ap.uidgen.core.services.encoding.IdEncoder;
+
+/**
+ * Uid generator backed by 64 bits ids. Callers can get the raw ids and encode them in any
+ * {@link IdEncoder} format, straight into their own buffers.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public interface LongUniqueIdGenerator extends UniqueIdGenerator
+{
+  /**
+   * @param namespace namespace the id is generated for, implementations may keep a distinct
+   * sequence space per namespace
+   * @return a unique 64 bits id, to be interpreted as an unsigned long
+   */
+  long generateLongId(String namespace);
+
+  /**
+   * Fill a range of the supplied array with unique ids, see
+   * {@link LongIdGenerator#nextIds(long[], int, int)}.
+   */
+  void generateLongIds(String namespace, long[] ids, int offset, int count);
+
+  /**
+   * @return a namespace prefixed unique id encoded with the supplied encoder
+   */
+  default String generateUid(String namespace, IdEncoder encoder) {
+    return namespace + "-" + encoder.encode(generateLongId(namespace));
+  }
+}
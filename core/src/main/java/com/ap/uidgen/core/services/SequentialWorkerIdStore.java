@@ -11,9 +11,11 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class SequentialWorkerIdStore implements WorkerIdStore
 {
+  private final int baseIndex;
   private final AtomicInteger sequence;
 
   public SequentialWorkerIdStore(int baseIndex) {
+    this.baseIndex = baseIndex;
     this.sequence = new AtomicInteger(baseIndex);
   }
 
@@ -21,4 +23,12 @@ public class SequentialWorkerIdStore implements WorkerIdStore
   public Optional<Integer> getAvailableWorkerId() {
     return Optional.of(sequence.getAndAdd(1));
   }
+
+  /**
+   * @return number of worker ids handed out, they are never taken back
+   */
+  @Override
+  public int getWorkerIdsInUse() {
+    return sequence.get() - baseIndex;
+  }
 }
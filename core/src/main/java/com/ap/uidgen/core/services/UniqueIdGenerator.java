@@ -1,5 +1,8 @@
 package com.ap.uidgen.core.services;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Contract all uid generators must implement. Given a namespace, it returns a unique id consisting
  * of a namespace prefixed value.
@@ -7,7 +10,32 @@ package com.ap.uidgen.core.services;
  * @author aparadis
  * @since 1.0.0
  */
-public interface UniqueIdGenerator
+public interface UniqueIdGenerator extends AutoCloseable
 {
   String generateUid(String namespace);
+
+  /**
+   * Generate a batch of unique ids for the given namespace. Implementations able to claim a range
+   * of ids at once should override this method, the default simply calls
+   * {@link #generateUid(String)} for each id.
+   *
+   * @param namespace
+   * @param count number of ids to generate
+   * @return namespace prefixed unique ids, in generation order
+   */
+  default List<String> generateUids(String namespace, int count) {
+    final List<String> uids = new ArrayList<>(count);
+    for(int i = 0; i < count; i++) {
+      uids.add(generateUid(namespace));
+    }
+    return uids;
+  }
+
+  /**
+   * Release resources held by the generator, such as its worker id or background threads. No ids
+   * must be generated afterwards. Generators without resources have nothing to do.
+   */
+  @Override
+  default void close() {
+  }
 }
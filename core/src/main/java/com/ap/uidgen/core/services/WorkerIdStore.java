@@ -1,6 +1,9 @@
 package com.ap.uidgen.core.services;
 
+import java.util.Collections;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
 
 /**
  * Contract that all worker id provider must implement. A worker id store must return an unused id
@@ -12,4 +15,35 @@ import java.util.Optional;
 public interface WorkerIdStore
 {
   Optional<Integer> getAvailableWorkerId();
+
+  /**
+   * Hand back a worker id obtained from {@link #getAvailableWorkerId()}, once no more ids are
+   * generated with it. Stores without ownership of ids have nothing to do.
+   */
+  default void releaseWorkerId(int workerId) {
+  }
+
+  /**
+   * @return number of worker ids currently held from this store, -1 if the store doesn't know
+   */
+  default int getWorkerIdsInUse() {
+    return -1;
+  }
+
+  /**
+   * @return worker ids handed out and not released yet, which another node may now be using:
+   * ids generated with them may collide. Empty for stores without ownership of ids.
+   */
+  default Set<Integer> getLostWorkerIds() {
+    return Collections.emptySet();
+  }
+
+  /**
+   * @return whether ids may still be generated with a worker id handed out by
+   * {@link #getAvailableWorkerId()}, checked before each generation. Always true for stores
+   * without ownership of ids.
+   */
+  default BooleanSupplier getLeaseValidity(int workerId) {
+    return () -> true;
+  }
 }
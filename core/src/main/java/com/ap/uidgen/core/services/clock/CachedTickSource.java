@@ -0,0 +1,64 @@
+package com.ap.uidgen.core.services.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.NonNull;
+
+/**
+ * Caches the time of another source, refreshed by a background daemon thread. Reading the time
+ * is then a single volatile read, at the expense of lagging behind the underlying source by up to
+ * the refresh interval plus scheduling delays.
+ *
+ * The refresh thread runs until {@link #close()} is called.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class CachedTickSource implements TickSource, AutoCloseable
+{
+  public static final long DEFAULT_REFRESH_INTERVAL_MICROS = 250L;
+
+  private final TickSource source;
+  private final long refreshIntervalNanos;
+  private final Thread refresher;
+
+  private volatile long currentTimeMillis;
+  private volatile boolean running = true;
+
+  public CachedTickSource() {
+    this(SystemTickSource.INSTANCE, DEFAULT_REFRESH_INTERVAL_MICROS);
+  }
+
+  public CachedTickSource(@NonNull final TickSource source, final long refreshIntervalMicros) {
+    if(refreshIntervalMicros < 1) {
+      throw new IllegalArgumentException("refresh interval must be at least 1 microsecond");
+    }
+
+    this.source = source;
+    this.refreshIntervalNanos = TimeUnit.MICROSECONDS.toNanos(refreshIntervalMicros);
+    this.currentTimeMillis = source.currentTimeMillis();
+
+    this.refresher = new Thread(this::refresh, "uidgen-cached-tick-source");
+    this.refresher.setDaemon(true);
+    this.refresher.start();
+  }
+
+  @Override
+  public long currentTimeMillis() {
+    return currentTimeMillis;
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    LockSupport.unpark(refresher);
+  }
+
+  private void refresh() {
+    while(running) {
+      currentTimeMillis = source.currentTimeMillis();
+      LockSupport.parkNanos(refreshIntervalNanos);
+    }
+  }
+}
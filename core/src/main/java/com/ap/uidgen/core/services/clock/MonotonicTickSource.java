@@ -0,0 +1,97 @@
+package com.ap.uidgen.core.services.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import lombok.NonNull;
+
+/**
+ * Derives the time from {@link System#nanoTime()}, anchored to the wall clock and periodically
+ * re-synced to it. The time returned never goes backwards, even when the wall clock is stepped
+ * back: a re-sync never moves the anchor behind the time already derived from the previous one.
+ * Steps forward of the wall clock are picked up at the next re-sync.
+ *
+ * The consequence is that after a step backwards, this source runs ahead of the wall clock until
+ * the latter catches up.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class MonotonicTickSource implements TickSource
+{
+  public static final long DEFAULT_RESYNC_INTERVAL_MILLIS = 1000L;
+
+  private static final long NANOS_PER_MILLI = 1_000_000L;
+
+  private final long resyncIntervalNanos;
+  private final TickSource wallClock;
+  private final LongSupplier nanoTime;
+
+  // immutable, replaced with a compare and set on re-sync
+  private final AtomicReference<Anchor> anchor;
+
+  public MonotonicTickSource() {
+    this(DEFAULT_RESYNC_INTERVAL_MILLIS);
+  }
+
+  public MonotonicTickSource(final long resyncIntervalMillis) {
+    this(resyncIntervalMillis, SystemTickSource.INSTANCE, System::nanoTime);
+  }
+
+  /**
+   * @param resyncIntervalMillis interval between re-syncs to the wall clock
+   * @param wallClock wall clock the time is anchored to
+   * @param nanoTime monotonic time in nanoseconds, {@link System#nanoTime()} outside of tests
+   */
+  public MonotonicTickSource(
+      final long resyncIntervalMillis,
+      @NonNull final TickSource wallClock,
+      @NonNull final LongSupplier nanoTime) {
+    if(resyncIntervalMillis < 1) {
+      throw new IllegalArgumentException("re-sync interval must be at least 1 millisecond");
+    }
+
+    this.resyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(resyncIntervalMillis);
+    this.wallClock = wallClock;
+    this.nanoTime = nanoTime;
+    this.anchor = new AtomicReference<>(
+        new Anchor(wallClock.currentTimeMillis(), nanoTime.getAsLong()));
+  }
+
+  @Override
+  public long currentTimeMillis() {
+    final Anchor current = anchor.get();
+    final long nanoTime = this.nanoTime.getAsLong();
+    final long elapsedNanos = nanoTime - current.nanoTime;
+    final long millis = current.wallMillis + elapsedNanos / NANOS_PER_MILLI;
+
+    if(elapsedNanos >= resyncIntervalNanos) {
+      // never anchor behind the time already derived, so this source stays monotonic. A wall
+      // clock on the time derived keeps the sub-millisecond remainder of the current anchor:
+      // readers still on it may already have moved to the next millisecond.
+      final long wallMillis = wallClock.currentTimeMillis();
+      if(wallMillis > millis) {
+        if(anchor.compareAndSet(current, new Anchor(wallMillis, nanoTime))) {
+          return wallMillis;
+        }
+      }
+      else {
+        anchor.compareAndSet(current,
+            new Anchor(millis, nanoTime - elapsedNanos % NANOS_PER_MILLI));
+      }
+    }
+    return millis;
+  }
+
+  private static class Anchor
+  {
+    private final long wallMillis;
+    private final long nanoTime;
+
+    private Anchor(long wallMillis, long nanoTime) {
+      this.wallMillis = wallMillis;
+      this.nanoTime = nanoTime;
+    }
+  }
+}
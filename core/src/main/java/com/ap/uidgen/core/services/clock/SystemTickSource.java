@@ -0,0 +1,21 @@
+package com.ap.uidgen.core.services.clock;
+
+/**
+ * Reads the system clock on every call. Most precise, but follows every adjustment of the system
+ * clock, including steps backwards.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public final class SystemTickSource implements TickSource
+{
+  public static final SystemTickSource INSTANCE = new SystemTickSource();
+
+  private SystemTickSource() {
+  }
+
+  @Override
+  public long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+}
@@ -0,0 +1,17 @@
+package com.ap.uidgen.core.services.clock;
+
+/**
+ * Source of wall clock time used by the generators. Implementations trade precision for cost
+ * differently, and can be replaced by a deterministic source in tests.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface TickSource
+{
+  /**
+   * @return current time in milliseconds since the unix epoch
+   */
+  long currentTimeMillis();
+}
@@ -0,0 +1,34 @@
+package com.ap.uidgen.core.services.encoding;
+
+/**
+ * Fixed width Crockford base32 encoding as 13 characters, the first one holding only the 4 most
+ * significant bits. Encoded ids sort in the order of their values, and can be read back case
+ * insensitively.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public final class Base32IdEncoder implements IdEncoder
+{
+  public static final Base32IdEncoder INSTANCE = new Base32IdEncoder();
+
+  private static final int LENGTH = 13;
+
+  private Base32IdEncoder() {
+  }
+
+  @Override
+  public int maxLength() {
+    return LENGTH;
+  }
+
+  @Override
+  public int encode(final long id, final byte[] dst, final int offset) {
+    long value = id;
+    for(int i = offset + LENGTH - 1; i >= offset; i--) {
+      dst[i] = (byte)CrockfordBase32.ALPHABET[(int)value & 0x1F];
+      value >>>= 5;
+    }
+    return LENGTH;
+  }
+}
@@ -0,0 +1,38 @@
+package com.ap.uidgen.core.services.encoding;
+
+/**
+ * Fixed width base62 encoding as 11 characters, using digits then upper then lower case letters.
+ * This alphabet follows ASCII order, so encoded ids sort in the order of their values when
+ * compared byte per byte (but not with case insensitive collations).
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public final class Base62IdEncoder implements IdEncoder
+{
+  public static final Base62IdEncoder INSTANCE = new Base62IdEncoder();
+
+  private static final int LENGTH = 11;
+  private static final byte[] ALPHABET =
+      "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".getBytes();
+
+  private Base62IdEncoder() {
+  }
+
+  @Override
+  public int maxLength() {
+    return LENGTH;
+  }
+
+  @Override
+  public int encode(final long id, final byte[] dst, final int offset) {
+    // first division is unsigned, the quotient then fits in a positive long
+    long value = Long.divideUnsigned(id, 62);
+    dst[offset + LENGTH - 1] = ALPHABET[(int)(id - value * 62)];
+    for(int i = offset + LENGTH - 2; i >= offset; i--) {
+      dst[i] = ALPHABET[(int)(value % 62)];
+      value /= 62;
+    }
+    return LENGTH;
+  }
+}
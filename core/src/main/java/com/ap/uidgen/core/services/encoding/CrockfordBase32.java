@@ -0,0 +1,46 @@
+package com.ap.uidgen.core.services.encoding;
+
+/**
+ * Crockford base32 encoding (digits and upper case letters, without I, L, O and U) of 128 bits
+ * values, written straight into a char array. The 26 characters of the encoding sort in the same
+ * order as the unsigned values they represent, as required by ULIDs.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public final class CrockfordBase32
+{
+  public static final int LENGTH_128 = 26;
+
+  static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+  private CrockfordBase32() {
+  }
+
+  /**
+   * Encode a 128 bits value as 26 characters, the first one holding only the 3 most significant
+   * bits.
+   *
+   * @param hi most significant 64 bits
+   * @param lo least significant 64 bits
+   * @param dst destination array, with at least {@link #LENGTH_128} chars available from offset
+   * @param offset index of the first char to write
+   */
+  public static void encode128(final long hi, final long lo, final char[] dst, final int offset) {
+    for(int group = 0; group < LENGTH_128; group++) {
+      final int shift = group * 5;
+      final long bits;
+      if(shift + 5 <= 64) {
+        bits = lo >>> shift;
+      }
+      else if(shift >= 64) {
+        bits = hi >>> (shift - 64);
+      }
+      else {
+        // group straddling both halves
+        bits = (lo >>> shift) | (hi << (64 - shift));
+      }
+      dst[offset + LENGTH_128 - 1 - group] = ALPHABET[(int)bits & 0x1F];
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package com.ap.uidgen.core.services.encoding;
+
+/**
+ * Unsigned decimal encoding, identical to {@link Long#toUnsignedString(long)}: 1 to 20 digits.
+ * Being of variable length, encoded ids don't sort in the order of their values.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public final class DecimalIdEncoder implements IdEncoder
+{
+  public static final DecimalIdEncoder INSTANCE = new DecimalIdEncoder();
+
+  private static final int MAX_LENGTH = 20;
+
+  private DecimalIdEncoder() {
+  }
+
+  @Override
+  public int maxLength() {
+    return MAX_LENGTH;
+  }
+
+  @Override
+  public int encode(final long id, final byte[] dst, final int offset) {
+    // the first digit of ids past Long.MAX_VALUE requires an unsigned division
+    long value = id;
+    int lastDigit = -1;
+    if(value < 0) {
+      final long quotient = Long.divideUnsigned(value, 10);
+      lastDigit = (int)(value - quotient * 10);
+      value = quotient;
+    }
+
+    final int length = digits(value) + (lastDigit < 0 ? 0 : 1);
+    int index = offset + length - 1;
+    if(lastDigit >= 0) {
+      dst[index--] = (byte)('0' + lastDigit);
+    }
+    do {
+      dst[index--] = (byte)('0' + value % 10);
+      value /= 10;
+    }
+    while(value != 0);
+    return length;
+  }
+
+  private static int digits(final long value) {
+    int digits = 1;
+    for(long bound = 10; digits < 19 && value >= bound; bound *= 10) {
+      digits++;
+    }
+    return digits;
+  }
+}
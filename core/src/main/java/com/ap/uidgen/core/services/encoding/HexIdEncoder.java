@@ -0,0 +1,33 @@
+package com.ap.uidgen.core.services.encoding;
+
+/**
+ * Fixed width encoding as 16 lower case hex digits. Encoded ids sort in the order of their values.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public final class HexIdEncoder implements IdEncoder
+{
+  public static final HexIdEncoder INSTANCE = new HexIdEncoder();
+
+  private static final int LENGTH = 16;
+  private static final byte[] DIGITS = "0123456789abcdef".getBytes();
+
+  private HexIdEncoder() {
+  }
+
+  @Override
+  public int maxLength() {
+    return LENGTH;
+  }
+
+  @Override
+  public int encode(final long id, final byte[] dst, final int offset) {
+    long value = id;
+    for(int i = offset + LENGTH - 1; i >= offset; i--) {
+      dst[i] = DIGITS[(int)value & 0xF];
+      value >>>= 4;
+    }
+    return LENGTH;
+  }
+}
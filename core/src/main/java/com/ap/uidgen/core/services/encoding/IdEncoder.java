@@ -0,0 +1,57 @@
+package com.ap.uidgen.core.services.encoding;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes 64 bits ids, interpreted as unsigned longs, as ASCII characters written straight into a
+ * caller supplied buffer. Encoders are stateless and safe to share between threads.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public interface IdEncoder
+{
+  /**
+   * @return maximum number of bytes written for a single id
+   */
+  int maxLength();
+
+  /**
+   * @param id id to encode, as an unsigned long
+   * @param dst destination array, with at least {@link #maxLength()} bytes available from offset
+   * @param offset index of the first byte to write
+   * @return number of bytes written
+   */
+  int encode(long id, byte[] dst, int offset);
+
+  /**
+   * Encode an id at the position of the supplied buffer, moving its position past the id.
+   *
+   * @param id id to encode, as an unsigned long
+   * @param dst destination buffer, with at least {@link #maxLength()} bytes remaining
+   * @return number of bytes written
+   */
+  default int encode(long id, ByteBuffer dst) {
+    final int length;
+    if(dst.hasArray()) {
+      length = encode(id, dst.array(), dst.arrayOffset() + dst.position());
+    }
+    else {
+      final byte[] bytes = new byte[maxLength()];
+      length = encode(id, bytes, 0);
+      dst.put(bytes, 0, length);
+      return length;
+    }
+    dst.position(dst.position() + length);
+    return length;
+  }
+
+  /**
+   * @return the encoded id as a string, for callers that need one
+   */
+  default String encode(long id) {
+    final byte[] bytes = new byte[maxLength()];
+    return new String(bytes, 0, encode(id, bytes, 0), StandardCharsets.ISO_8859_1);
+  }
+}
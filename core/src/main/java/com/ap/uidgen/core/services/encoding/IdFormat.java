@@ -0,0 +1,42 @@
+package com.ap.uidgen.core.services.encoding;
+
+import java.util.Optional;
+
+/**
+ * Formats 64 bits ids can be requested in, by name.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public enum IdFormat
+{
+  DEC("dec", DecimalIdEncoder.INSTANCE),
+  HEX("hex", HexIdEncoder.INSTANCE),
+  B32("b32", Base32IdEncoder.INSTANCE),
+  B62("b62", Base62IdEncoder.INSTANCE);
+
+  private final String formatName;
+  private final IdEncoder encoder;
+
+  IdFormat(final String formatName, final IdEncoder encoder) {
+    this.formatName = formatName;
+    this.encoder = encoder;
+  }
+
+  public String getFormatName() {
+    return formatName;
+  }
+
+  public IdEncoder getEncoder() {
+    return encoder;
+  }
+
+  public static Optional<IdFormat> fromName(final String formatName) {
+    for(IdFormat format : values()) {
+      if(format.formatName.equals(formatName)) {
+        return Optional.of(format);
+      }
+    }
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,353 @@
+package com.ap.uidgen.core.services.snowflake;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.NonNull;
+
+import com.ap.uidgen.core.services.LongIdGenerator;
+import com.ap.uidgen.core.services.clock.TickSource;
+
+/**
+ * Thread safe variant of {@link SnowflakeUid}, for usages outside of vert.x where a generator
+ * instance is shared by a pool of threads.
+ *
+ * The timestamp and sequence of the last id emitted are packed in a single atomic long, updated
+ * with a compare and set loop. No lock is ever taken: a thread losing the race simply retries
+ * with the state published by the winner.
+ *
+ * All threads share the same worker id, thus the same 4096 ids per millisecond with the default
+ * layout. When threads can be given their own worker id, a dedicated {@link SnowflakeUid} per
+ * thread will scale better.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class ConcurrentSnowflakeUid implements LongIdGenerator
+{
+  // bit layout of the ids generated
+  private final SnowflakeLayout layout;
+
+  private final int sequenceBits;
+  private final long maxSequence;
+
+  // clock regression handling thresholds, see SnowflakeOptions
+  private final long clockRegressionWaitMillis;
+  private final long clockRegressionToleranceMillis;
+
+  private final SnowflakeMetrics metrics;
+
+  // source of wall clock time
+  private final TickSource tickSource;
+
+  // unique id identifying this process in a cluster
+  private final long workerId;
+
+  // sequence exhaustion handling, see SnowflakeOptions
+  private final SequenceOverflowStrategy sequenceOverflowStrategy;
+  private final long maxBorrowMillis;
+
+  // returned by resolveTimestamp when a small clock regression must be waited out
+  private static final long WAIT_FOR_CLOCK = -1L;
+
+  // (timestamp << sequence bits) | sequence of the last id emitted
+  private final AtomicLong state;
+
+  // highest timestamp read from the clock, lower than the state when running on borrowed ticks
+  private volatile long clockTimestamp;
+
+  // reservation of ticks ahead of the ids emitted, see SnowflakeUid
+  private final TimestampCheckpoint checkpoint;
+  private final long reserveTicks;
+  private volatile long reservedUntil;
+
+  public ConcurrentSnowflakeUid(final long workerId) {
+    this(workerId, SnowflakeLayout.DEFAULT);
+  }
+
+  public ConcurrentSnowflakeUid(final long workerId, @NonNull final SnowflakeLayout layout) {
+    this(workerId, SnowflakeOptions.builder().layout(layout).build());
+  }
+
+  public ConcurrentSnowflakeUid(final long workerId, @NonNull final SnowflakeOptions options) {
+    final SnowflakeLayout layout = options.getLayout();
+    if(workerId < 0 || workerId > layout.getMaxWorkerId()) {
+      throw new IllegalArgumentException(String.format("worker id must be between %d and %d", 0,
+          layout.getMaxWorkerId()));
+    }
+
+    this.layout = layout;
+    this.sequenceBits = layout.getSequenceBits();
+    this.maxSequence = layout.getMaxSequence();
+    this.clockRegressionWaitMillis = options.getClockRegressionWaitMillis();
+    this.clockRegressionToleranceMillis = options.getClockRegressionToleranceMillis();
+    this.sequenceOverflowStrategy = options.getSequenceOverflowStrategy();
+    this.maxBorrowMillis = options.getMaxBorrowMillis();
+    this.metrics = options.getMetrics();
+    this.tickSource = options.getTickSource();
+    this.workerId = workerId;
+    this.state = new AtomicLong(0L);
+
+    this.checkpoint = options.getCheckpoint();
+    this.reserveTicks = Math.max(1L, options.getCheckpointReserveMillis() / layout.getTickMillis());
+    this.reservedUntil = Long.MAX_VALUE;
+    if(checkpoint != null) {
+      // resume after the ids of the previous run, as if their reservation was borrowed
+      reservedUntil = checkpoint.restore(workerId, options);
+      if(reservedUntil > 0) {
+        state.set(((reservedUntil - 1) << sequenceBits) | maxSequence);
+      }
+    }
+  }
+
+  public SnowflakeLayout getLayout() {
+    return layout;
+  }
+
+  public SnowflakeMetrics getMetrics() {
+    return metrics;
+  }
+
+  @Override
+  public long getLeadMillis() {
+    final long lead = (state.get() >>> sequenceBits)
+        - layout.toTick(tickSource.currentTimeMillis());
+    return lead > 0 ? lead * layout.getTickMillis() : 0L;
+  }
+
+  /**
+   * Generate a unique 64 bits id, see {@link SnowflakeUid#nextId()}. Safe to call from any number
+   * of threads.
+   *
+   * @return the id, to be interpreted as an unsigned long
+   * @throws SequenceExhaustedException if the sequence is exhausted with the DEFER strategy
+   */
+  @Override
+  public long nextId() {
+    boolean waited = false;
+    boolean spun = false;
+    while(true) {
+      // state must be read before the clock: a state published by another thread is then
+      // guaranteed to have used a timestamp lower or equal to the one we read.
+      final long current = state.get();
+      final long now = getTimestamp();
+      final long timestamp = resolveTimestamp(current, now);
+      if(timestamp == WAIT_FOR_CLOCK) {
+        waited = recordWait(waited);
+        continue;
+      }
+
+      final long next = nextState(current, timestamp, now, 1);
+      if(next == current) {
+        spun = recordSpin(spun);
+        continue;
+      }
+      if(state.compareAndSet(current, next)) {
+        recordBorrow(current, next, now);
+        reserve(next);
+        return compose(next);
+      }
+    }
+  }
+
+  /**
+   * Claim contiguous ranges of sequence numbers with a single compare and set per tick.
+   * Ids written are unique but may be interleaved with ids generated concurrently by other
+   * threads.
+   *
+   * @param ids destination array
+   * @param offset index of the first id to write
+   * @param count number of ids to write
+   * @throws SequenceExhaustedException if the sequence is exhausted with the DEFER strategy. Ids
+   * written before the exception are valid.
+   */
+  @Override
+  public void nextIds(final long[] ids, final int offset, final int count) {
+    boolean waited = false;
+    boolean spun = false;
+    int index = offset;
+    int remaining = count;
+    while(remaining > 0) {
+      final long current = state.get();
+      final long now = getTimestamp();
+      final long timestamp = resolveTimestamp(current, now);
+      if(timestamp == WAIT_FOR_CLOCK) {
+        waited = recordWait(waited);
+        continue;
+      }
+
+      final long next = nextState(current, timestamp, now, remaining);
+      if(next == current) {
+        spun = recordSpin(spun);
+        continue;
+      }
+      if(!state.compareAndSet(current, next)) {
+        continue;
+      }
+      recordBorrow(current, next, now);
+      reserve(next);
+
+      // the claimed range ends at next, and starts at sequence 0 on a new tick
+      final long claimed = (next >>> sequenceBits) == (current >>> sequenceBits)
+          ? next - current
+          : (next & maxSequence) + 1;
+      for(long packed = next - claimed + 1; packed <= next; packed++) {
+        ids[index++] = compose(packed);
+      }
+      remaining -= (int)claimed;
+    }
+  }
+
+  /**
+   * Resolve the timestamp to use given the current state. A timestamp behind the state happens
+   * either when ticks were borrowed ahead of the clock on sequence exhaustion, or when the clock
+   * moved backwards. Small clock regressions are waited out, larger ones borrow from logical time
+   * by continuing on the timestamp of the state, and regressions past the tolerance are refused.
+   *
+   * @return the timestamp to use, or WAIT_FOR_CLOCK if the caller must spin
+   */
+  private long resolveTimestamp(final long current, final long now) {
+    final long lastTimestamp = current >>> sequenceBits;
+    if(now >= lastTimestamp) {
+      return now;
+    }
+
+    final long regressionMillis = (clockTimestamp - now) * layout.getTickMillis();
+    if(regressionMillis <= 0 || (regressionMillis > clockRegressionWaitMillis
+        && regressionMillis <= clockRegressionToleranceMillis)) {
+      // running on borrowed ticks, or on logical time during a clock regression
+      return lastTimestamp;
+    }
+
+    if(regressionMillis <= clockRegressionWaitMillis) {
+      return WAIT_FOR_CLOCK;
+    }
+
+    metrics.recordClockRegressionFailure();
+    throw new IllegalStateException(
+        String.format("Invalid timestamp acquired, clock moved backwards by %d ms",
+            regressionMillis));
+  }
+
+  private boolean recordWait(final boolean alreadyRecorded) {
+    if(!alreadyRecorded) {
+      metrics.recordClockRegressionWait();
+    }
+    Thread.onSpinWait();
+    return true;
+  }
+
+  private boolean recordSpin(final boolean alreadyRecorded) {
+    if(!alreadyRecorded) {
+      metrics.recordSequenceExhaustedSpin();
+    }
+    Thread.onSpinWait();
+    return true;
+  }
+
+  private void recordBorrow(final long current, final long next, final long now) {
+    final long lastTimestamp = current >>> sequenceBits;
+    final long nextTimestamp = next >>> sequenceBits;
+    if(isRegressed(nextTimestamp, now)) {
+      metrics.recordClockRegressionBorrow();
+    }
+    else if(nextTimestamp > lastTimestamp && nextTimestamp > now) {
+      metrics.recordSequenceExhaustedBorrow();
+    }
+  }
+
+  /**
+   * @return true if ids are emitted on logical time because the clock moved backwards, as opposed
+   * to running on borrowed ticks or racing with a thread that read a more recent clock.
+   */
+  private boolean isRegressed(final long timestamp, final long now) {
+    return timestamp > now
+        && (clockTimestamp - now) * layout.getTickMillis() > clockRegressionWaitMillis;
+  }
+
+  /**
+   * Compute the state following the supplied one, claiming up to {@code count} sequence numbers.
+   *
+   * @param current current state
+   * @param timestamp timestamp to use, greater or equal to the one of the current state
+   * @param now timestamp read from the clock
+   * @param count maximum number of sequence numbers to claim
+   * @return the next state, or the current one if the sequence is exhausted and caller must spin
+   */
+  private long nextState(
+      final long current,
+      final long timestamp,
+      final long now,
+      final int count) {
+    final long lastTimestamp = current >>> sequenceBits;
+
+    if(timestamp > lastTimestamp) {
+      // next tick, claim sequences from 0
+      return (timestamp << sequenceBits) | Math.min(maxSequence, count - 1);
+    }
+
+    final long sequence = current & maxSequence;
+    if(sequence < maxSequence) {
+      return current + Math.min(maxSequence - sequence, count);
+    }
+
+    if(isRegressed(timestamp, now)) {
+      metrics.recordClockRegressionFailure();
+      throw new IllegalStateException(
+          "Sequence exhausted while clock is behind the last timestamp used");
+    }
+
+    switch(sequenceOverflowStrategy) {
+      case BORROW:
+        if((lastTimestamp + 1 - clockTimestamp) * layout.getTickMillis() <= maxBorrowMillis) {
+          return ((lastTimestamp + 1) << sequenceBits) | Math.min(maxSequence, count - 1);
+        }
+        // drifted too far ahead of the clock, wait for it to catch up
+        return current;
+      case DEFER:
+        metrics.recordSequenceExhaustedDeferral();
+        throw new SequenceExhaustedException(
+            Math.max(1, (lastTimestamp + 1 - clockTimestamp) * layout.getTickMillis()));
+      default:
+        return current;
+    }
+  }
+
+  /**
+   * Keep the reservation of ticks a step ahead of the timestamp of the state, before any id of the
+   * state is returned, see SnowflakeUid. Threads racing on a new tick may all reserve, the
+   * checkpoint keeps the highest.
+   */
+  private void reserve(final long packed) {
+    final long timestamp = packed >>> sequenceBits;
+    if(timestamp < reservedUntil - reserveTicks) {
+      return;
+    }
+    long reserved = checkpoint.getReservedTick(workerId);
+    if(timestamp >= reserved) {
+      reserved = checkpoint.reserve(workerId, timestamp + 2 * reserveTicks);
+    }
+    else if(timestamp >= reserved - reserveTicks) {
+      checkpoint.reserveAhead(workerId, timestamp + 2 * reserveTicks);
+    }
+    reservedUntil = reserved;
+  }
+
+  private long compose(final long packed) {
+    return layout.compose(packed >>> sequenceBits, workerId, packed & maxSequence);
+  }
+
+  /**
+   * Calculate number of ticks relative to the layout custom epoch, keeping track of the highest
+   * timestamp read from the clock.
+   * @return number of ticks
+   */
+  private long getTimestamp() {
+    final long timestamp = layout.toTick(tickSource.currentTimeMillis());
+    if(timestamp > clockTimestamp) {
+      // racy update: a concurrent writer may store a slightly lower value, which only affects
+      // how a timestamp behind the state is classified, never uniqueness.
+      clockTimestamp = timestamp;
+    }
+    return timestamp;
+  }
+}
@@ -0,0 +1,166 @@
+package com.ap.uidgen.core.services.snowflake;
+
+/**
+ * Bounded open addressing map from namespaces to the timestamp and sequence of the last id
+ * emitted for them, stored in parallel primitive arrays. Collisions are resolved by linear
+ * probing, and removals shift following entries back so no tombstone is ever left behind.
+ *
+ * Once full, idle namespaces are evicted following the CLOCK approximation of LRU: each access
+ * marks an entry as referenced, and a hand sweeping the table clears these marks until it finds an
+ * entry that wasn't accessed since its last pass.
+ *
+ * An evicted namespace may come back, and must not reissue ids emitted before its eviction. New
+ * entries thus start from an eviction floor: the highest timestamp of all evicted entries, with an
+ * exhausted sequence. Their first id is then always greater than any id emitted by an evicted
+ * entry. Since the least recently used entries are evicted, the floor is usually behind the clock
+ * and costs nothing.
+ *
+ * Not thread safe.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+class NamespaceStates
+{
+  private final int maxSize;
+  private final int mask;
+  private final long maxSequence;
+
+  private final String[] namespaces;
+  private final int[] hashes;
+  private final long[] timestamps;
+  private final long[] sequences;
+  private final boolean[] referenced;
+
+  private int size;
+  private int hand;
+  private long evictions;
+
+  // highest timestamp of the evicted entries
+  private long floorTimestamp;
+
+  /**
+   * @param initialFloor timestamp every new namespace starts after, until namespaces are evicted
+   */
+  NamespaceStates(final int maxSize, final long maxSequence, final long initialFloor) {
+    if(maxSize < 1) {
+      throw new IllegalArgumentException("max namespaces must be at least 1");
+    }
+
+    // keep the load factor at or below 1/2 for short probe sequences
+    final int capacity = Integer.highestOneBit(maxSize * 2 - 1) << 1;
+    this.maxSize = maxSize;
+    this.mask = capacity - 1;
+    this.maxSequence = maxSequence;
+    this.namespaces = new String[capacity];
+    this.hashes = new int[capacity];
+    this.timestamps = new long[capacity];
+    this.sequences = new long[capacity];
+    this.referenced = new boolean[capacity];
+    this.floorTimestamp = initialFloor;
+  }
+
+  /**
+   * Find the slot of a namespace, adding it if needed.
+   *
+   * @return the slot holding the state of the namespace, valid until the next call
+   */
+  int slotOf(final String namespace) {
+    final int hash = spread(namespace.hashCode());
+    int slot = hash & mask;
+    while(namespaces[slot] != null) {
+      if(hashes[slot] == hash && namespaces[slot].equals(namespace)) {
+        referenced[slot] = true;
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    if(size == maxSize) {
+      evict();
+      // entries may have been shifted into the probe sequence
+      slot = hash & mask;
+      while(namespaces[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+    }
+
+    namespaces[slot] = namespace;
+    hashes[slot] = hash;
+    timestamps[slot] = floorTimestamp;
+    sequences[slot] = maxSequence;
+    referenced[slot] = true;
+    size++;
+    return slot;
+  }
+
+  long getTimestamp(final int slot) {
+    return timestamps[slot];
+  }
+
+  long getSequence(final int slot) {
+    return sequences[slot];
+  }
+
+  void update(final int slot, final long timestamp, final long sequence) {
+    timestamps[slot] = timestamp;
+    sequences[slot] = sequence;
+  }
+
+  int size() {
+    return size;
+  }
+
+  long getEvictions() {
+    return evictions;
+  }
+
+  private void evict() {
+    while(true) {
+      final int slot = hand;
+      hand = (hand + 1) & mask;
+      if(namespaces[slot] == null) {
+        continue;
+      }
+      if(referenced[slot]) {
+        // second chance
+        referenced[slot] = false;
+        continue;
+      }
+
+      floorTimestamp = Math.max(floorTimestamp, timestamps[slot]);
+      remove(slot);
+      evictions++;
+      return;
+    }
+  }
+
+  /**
+   * Remove the entry at slot, shifting back the following entries of the cluster which would
+   * otherwise become unreachable.
+   */
+  private void remove(int slot) {
+    int next = (slot + 1) & mask;
+    while(namespaces[next] != null) {
+      final int home = hashes[next] & mask;
+      // move the entry back unless its home slot lies cyclically in (slot, next]
+      if(((next - home) & mask) >= ((next - slot) & mask)) {
+        namespaces[slot] = namespaces[next];
+        hashes[slot] = hashes[next];
+        timestamps[slot] = timestamps[next];
+        sequences[slot] = sequences[next];
+        referenced[slot] = referenced[next];
+        slot = next;
+      }
+      next = (next + 1) & mask;
+    }
+
+    namespaces[slot] = null;
+    referenced[slot] = false;
+    size--;
+  }
+
+  private static int spread(final int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,121 @@
+package com.ap.uidgen.core.services.snowflake;
+
+import lombok.NonNull;
+
+/**
+ * Snowflake generator keeping a distinct sequence space per namespace: each namespace has its own
+ * timestamp and sequence of the last id emitted, so that a busy namespace exhausting its sequence
+ * doesn't throttle the others. Since uids are prefixed by their namespace, ids of different
+ * namespaces may be equal without the uids colliding.
+ *
+ * States are held in a bounded {@link NamespaceStates} map, evicting idle namespaces once
+ * {@code maxNamespaces} are tracked. A namespace coming back after its eviction starts past any
+ * id emitted before, possibly on the next tick.
+ *
+ * Clock regression and sequence overflow are handled as in {@link SnowflakeUid}, whose options
+ * apply. The highest timestamp read from the clock is shared by all namespaces.
+ *
+ * IMPORTANT: this generator is not thread safe, see {@link SnowflakeUid#generateId()}.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class NamespacedSnowflakeUid
+{
+  public static final int DEFAULT_MAX_NAMESPACES = 4096;
+
+  // runs the generation over the state of the namespace requested
+  private final SnowflakeUid snowflake;
+
+  private final NamespaceStates states;
+
+  public NamespacedSnowflakeUid(final long workerId) {
+    this(workerId, SnowflakeOptions.defaults(), DEFAULT_MAX_NAMESPACES);
+  }
+
+  /**
+   * @param workerId worker id of the ids
+   * @param options snowflake options, shared by all namespaces
+   * @param maxNamespaces maximum number of namespaces tracked before evicting idle ones
+   */
+  public NamespacedSnowflakeUid(
+      final long workerId,
+      @NonNull final SnowflakeOptions options,
+      final int maxNamespaces) {
+    this.snowflake = new SnowflakeUid(workerId, options);
+    // namespaces start after the ids of a previous run when ticks are checkpointed
+    this.states = new NamespaceStates(maxNamespaces, options.getLayout().getMaxSequence(),
+        snowflake.getLastTimestamp());
+  }
+
+  /**
+   * Generate a unique 64 bits id in the sequence space of a namespace.
+   *
+   * @return the id, to be interpreted as an unsigned long
+   * @throws SequenceExhaustedException if the sequence of the namespace is exhausted with the
+   * DEFER strategy
+   */
+  public long nextId(@NonNull final String namespace) {
+    final int slot = states.slotOf(namespace);
+    snowflake.restoreState(states.getTimestamp(slot), states.getSequence(slot));
+    try {
+      return snowflake.nextId();
+    }
+    finally {
+      states.update(slot, snowflake.getLastTimestamp(), snowflake.getSequence());
+    }
+  }
+
+  /**
+   * Fill a range of the supplied array with unique ids in the sequence space of a namespace, see
+   * {@link SnowflakeUid#nextIds(long[], int, int)}.
+   *
+   * @throws SequenceExhaustedException if the sequence of the namespace is exhausted with the
+   * DEFER strategy. Ids written before the exception are valid.
+   */
+  public void nextIds(
+      @NonNull final String namespace,
+      final long[] ids,
+      final int offset,
+      final int count) {
+    final int slot = states.slotOf(namespace);
+    snowflake.restoreState(states.getTimestamp(slot), states.getSequence(slot));
+    try {
+      snowflake.nextIds(ids, offset, count);
+    }
+    finally {
+      // ids written before an exception were emitted, their state must be kept
+      states.update(slot, snowflake.getLastTimestamp(), snowflake.getSequence());
+    }
+  }
+
+  /**
+   * @return number of namespaces currently tracked
+   */
+  public int getNamespaceCount() {
+    return states.size();
+  }
+
+  /**
+   * @return number of idle namespaces evicted so far
+   */
+  public long getEvictions() {
+    return states.getEvictions();
+  }
+
+  public SnowflakeLayout getLayout() {
+    return snowflake.getLayout();
+  }
+
+  public SnowflakeMetrics getMetrics() {
+    return snowflake.getMetrics();
+  }
+
+  /**
+   * @return lead of the namespace which last generated ids, see
+   * {@link SnowflakeUid#getLeadMillis()}
+   */
+  public long getLeadMillis() {
+    return snowflake.getLeadMillis();
+  }
+}
@@ -0,0 +1,301 @@
+package com.ap.uidgen.core.services.snowflake;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import com.ap.uidgen.core.services.LongIdGenerator;
+import com.ap.uidgen.core.services.clock.TickSource;
+
+/**
+ * Serves ids from a ring of pre-generated ids, refilled by a background producer thread whenever
+ * its fill level drops to a low water mark. Taking an id is then a single compare and set on the
+ * head of the ring, no matter how busy the underlying generator is.
+ *
+ * Ids are generated by a {@link ConcurrentSnowflakeUid}, so callers can fall back to direct
+ * generation when the ring is empty. Any number of threads may take ids concurrently, while only
+ * the producer thread ever writes to the ring.
+ *
+ * Ids sitting in the ring age: an id older than {@code maxStalenessMillis} is never handed out,
+ * the whole ring is discarded instead and refilled. As a consequence of serving pre-generated ids,
+ * an id taken from the ring may be lower than an id generated directly a moment before.
+ *
+ * The producer thread runs until {@link #close()} is called.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+@Slf4j
+public class RingBufferSnowflakeUid implements LongIdGenerator, AutoCloseable
+{
+  public static final int DEFAULT_CAPACITY = 8192;
+  public static final int DEFAULT_LOW_WATER_MARK = 2048;
+  public static final long DEFAULT_MAX_STALENESS_MILLIS = 1000L;
+
+  // maximum number of ids generated before being published to consumers
+  private static final int REFILL_CHUNK = 256;
+
+  private final ConcurrentSnowflakeUid snowflake;
+  private final SnowflakeLayout layout;
+  private final TickSource tickSource;
+
+  private final int capacity;
+  private final int mask;
+  private final int lowWaterMark;
+  private final long maxStalenessMillis;
+
+  // ring slot i holds the id at position p where p & mask == i
+  private final long[] slots;
+
+  // position of the next id to take, only moved forward by consumers (and stale discards)
+  private final AtomicLong head = new AtomicLong(0L);
+
+  // position after the last id published, only written by the producer
+  private volatile long tail;
+
+  // set by consumers to wake up the producer once, cleared by the producer before refilling
+  private volatile boolean refillRequested;
+  private volatile boolean running = true;
+
+  private final LongAdder emptyPolls = new LongAdder();
+  private final LongAdder staleDiscards = new LongAdder();
+
+  private final Thread producer;
+
+  public RingBufferSnowflakeUid(final long workerId) {
+    this(workerId, SnowflakeOptions.defaults(), DEFAULT_CAPACITY, DEFAULT_LOW_WATER_MARK,
+        DEFAULT_MAX_STALENESS_MILLIS);
+  }
+
+  /**
+   * @param workerId worker id of the underlying snowflake
+   * @param options options of the underlying snowflake
+   * @param capacity number of ids held by the ring, a power of 2
+   * @param lowWaterMark fill level at or below which the ring is refilled
+   * @param maxStalenessMillis maximum age of an id handed out from the ring
+   */
+  public RingBufferSnowflakeUid(
+      final long workerId,
+      @NonNull final SnowflakeOptions options,
+      final int capacity,
+      final int lowWaterMark,
+      final long maxStalenessMillis) {
+    if(capacity < 1 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("capacity must be a power of 2");
+    }
+    if(lowWaterMark < 0 || lowWaterMark >= capacity) {
+      throw new IllegalArgumentException(
+          String.format("low water mark must be between %d and %d", 0, capacity - 1));
+    }
+    if(maxStalenessMillis < 1) {
+      throw new IllegalArgumentException("max staleness must be at least 1 ms");
+    }
+
+    this.snowflake = new ConcurrentSnowflakeUid(workerId, options);
+    this.layout = options.getLayout();
+    this.tickSource = options.getTickSource();
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+    this.lowWaterMark = lowWaterMark;
+    this.maxStalenessMillis = maxStalenessMillis;
+    this.slots = new long[capacity];
+
+    this.producer = new Thread(this::refill, "uidgen-ring-buffer-" + workerId);
+    this.producer.setDaemon(true);
+    this.producer.start();
+  }
+
+  /**
+   * Take the oldest id of the ring, or generate one directly if the ring is empty.
+   *
+   * @return the id, to be interpreted as an unsigned long
+   * @throws SequenceExhaustedException if the ring is empty and the sequence is exhausted with
+   * the DEFER strategy
+   */
+  @Override
+  public long nextId() {
+    while(true) {
+      final long position = head.get();
+      final long available = tail - position;
+      if(available <= 0) {
+        emptyPolls.increment();
+        requestRefill();
+        return snowflake.nextId();
+      }
+
+      final long id = slots[(int)position & mask];
+      if(isStale(id)) {
+        discard(position, available);
+        continue;
+      }
+
+      // a successful compare and set guarantees the slot wasn't overwritten while being read:
+      // the producer never writes past head + capacity
+      if(head.compareAndSet(position, position + 1)) {
+        if(available - 1 <= lowWaterMark) {
+          requestRefill();
+        }
+        return id;
+      }
+    }
+  }
+
+  /**
+   * Take a range of ids from the ring with a single compare and set, generating the remainder
+   * directly if the ring holds less than {@code count} ids.
+   *
+   * @param ids destination array
+   * @param offset index of the first id to write
+   * @param count number of ids to write
+   */
+  @Override
+  public void nextIds(final long[] ids, final int offset, final int count) {
+    int taken = 0;
+    while(taken < count) {
+      final long position = head.get();
+      final long available = tail - position;
+      if(available <= 0) {
+        emptyPolls.increment();
+        requestRefill();
+        snowflake.nextIds(ids, offset + taken, count - taken);
+        return;
+      }
+
+      // ids in the ring are ordered, the first one is the oldest
+      if(isStale(slots[(int)position & mask])) {
+        discard(position, available);
+        continue;
+      }
+
+      final int claimed = (int)Math.min(available, count - taken);
+      final int index = (int)position & mask;
+      final int firstPart = Math.min(claimed, capacity - index);
+      System.arraycopy(slots, index, ids, offset + taken, firstPart);
+      System.arraycopy(slots, 0, ids, offset + taken + firstPart, claimed - firstPart);
+
+      if(head.compareAndSet(position, position + claimed)) {
+        taken += claimed;
+        if(available - claimed <= lowWaterMark) {
+          requestRefill();
+        }
+      }
+    }
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * @return number of ids currently held by the ring
+   */
+  public int getSize() {
+    return (int)Math.max(0L, tail - head.get());
+  }
+
+  /**
+   * @return number of times the ring was found empty, forcing direct generation
+   */
+  public long getEmptyPolls() {
+    return emptyPolls.sum();
+  }
+
+  /**
+   * @return number of ids discarded for being older than the maximum staleness
+   */
+  public long getStaleDiscards() {
+    return staleDiscards.sum();
+  }
+
+  public SnowflakeMetrics getMetrics() {
+    return snowflake.getMetrics();
+  }
+
+  /**
+   * Lead of the producer, ids still in the ring were generated no later than that.
+   */
+  @Override
+  public long getLeadMillis() {
+    return snowflake.getLeadMillis();
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    LockSupport.unpark(producer);
+  }
+
+  private boolean isStale(final long id) {
+    return tickSource.currentTimeMillis() - layout.toEpochMillis(layout.tickOf(id))
+        > maxStalenessMillis;
+  }
+
+  /**
+   * Drop all ids currently in the ring, they are at least as recent as the stale one at position.
+   */
+  private void discard(final long position, final long available) {
+    if(head.compareAndSet(position, position + available)) {
+      staleDiscards.add(available);
+      requestRefill();
+    }
+  }
+
+  private void requestRefill() {
+    if(!refillRequested) {
+      refillRequested = true;
+      LockSupport.unpark(producer);
+    }
+  }
+
+  private void refill() {
+    // wake up often enough to discard stale ids before consumers stumble on them
+    final long parkNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, maxStalenessMillis / 2));
+    while(running) {
+      refillRequested = false;
+
+      final long position = head.get();
+      final long available = tail - position;
+      if(available > 0 && isStale(slots[(int)position & mask])) {
+        discard(position, available);
+      }
+
+      if(tail - head.get() <= lowWaterMark) {
+        try {
+          fill();
+        }
+        catch(SequenceExhaustedException e) {
+          LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(e.getRetryAfterMillis()));
+          continue;
+        }
+        catch(IllegalStateException e) {
+          log.warn("Unable to refill ring buffer: {}", e.getMessage());
+        }
+      }
+
+      if(!refillRequested) {
+        LockSupport.parkNanos(parkNanos);
+      }
+    }
+  }
+
+  /**
+   * Fill the free slots of the ring, publishing ids by chunks so that consumers waiting on an
+   * empty ring get served early.
+   */
+  private void fill() {
+    // head only moves forward, slots up to this end can't be read by consumers anymore
+    final long end = head.get() + capacity;
+    long next = tail;
+    while(next < end && running) {
+      final int index = (int)next & mask;
+      final int count = (int)Math.min(Math.min(end - next, capacity - index), REFILL_CHUNK);
+      snowflake.nextIds(slots, index, count);
+      next += count;
+      tail = next;
+    }
+  }
+}
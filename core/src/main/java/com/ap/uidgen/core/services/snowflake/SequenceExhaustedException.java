@@ -0,0 +1,26 @@
+package com.ap.uidgen.core.services.snowflake;
+
+/**
+ * Thrown by snowflake generators using the {@link SequenceOverflowStrategy#DEFER} strategy when
+ * the sequence of the current tick is exhausted. The stack trace is not filled, this is an
+ * expected condition under bursts.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class SequenceExhaustedException extends RuntimeException
+{
+  private final long retryAfterMillis;
+
+  public SequenceExhaustedException(final long retryAfterMillis) {
+    super("Sequence exhausted, retry in " + retryAfterMillis + " ms", null, false, false);
+    this.retryAfterMillis = retryAfterMillis;
+  }
+
+  /**
+   * @return number of milliseconds after which the next tick is expected to start
+   */
+  public long getRetryAfterMillis() {
+    return retryAfterMillis;
+  }
+}
@@ -0,0 +1,27 @@
+package com.ap.uidgen.core.services.snowflake;
+
+/**
+ * What a snowflake generator does when all sequence numbers of the current tick have been used.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public enum SequenceOverflowStrategy
+{
+  /**
+   * Busy wait, using {@link Thread#onSpinWait()}, until the clock moves to the next tick.
+   */
+  SPIN,
+
+  /**
+   * Move on to the next tick before the clock does, as long as the generator doesn't drift ahead
+   * of the clock by more than the configured maximum. Past that, behaves like {@link #SPIN}.
+   */
+  BORROW,
+
+  /**
+   * Refuse the id with a {@link SequenceExhaustedException}, letting the caller retry later
+   * without blocking its thread.
+   */
+  DEFER
+}
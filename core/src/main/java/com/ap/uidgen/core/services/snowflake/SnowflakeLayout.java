@@ -0,0 +1,139 @@
+package com.ap.uidgen.core.services.snowflake;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Describes how the components of a snowflake id are laid out in its 64 bits:
+ *
+ * | Time (64 - worker - sequence bits) | Worker id (worker bits) | Sequence id (sequence bits) |
+ *
+ * The time component is a number of ticks elapsed since a custom epoch. A tick defaults to 1ms,
+ * larger ticks extend the lifetime of the time component at the expense of fewer ids per
+ * millisecond.
+ *
+ * Shifts and masks are precomputed so composing an id stays a handful of bitwise operations.
+ *
+ * IMPORTANT: ids are only unique and ordered amongst generators using the same layout. A layout
+ * must not be changed once ids have been emitted with it.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class SnowflakeLayout
+{
+  // Wednesday, January 1, 2020 0:00:00 GMT
+  public static final long DEFAULT_EPOCH = 1577836800000L;
+  public static final int DEFAULT_WORKER_ID_BITS = 10;
+  public static final int DEFAULT_SEQUENCE_BITS = 12;
+  public static final long DEFAULT_TICK_MILLIS = 1L;
+
+  /**
+   * Original layout: 42 bits of milliseconds, 10 bits of worker id and 12 bits of sequence.
+   */
+  public static final SnowflakeLayout DEFAULT = new SnowflakeLayout(
+      DEFAULT_WORKER_ID_BITS, DEFAULT_SEQUENCE_BITS, DEFAULT_EPOCH, DEFAULT_TICK_MILLIS);
+
+  // lower bound of the time component, its lifetime is checked against the clock as well
+  private static final int MIN_TIMESTAMP_BITS = 32;
+
+  // time left to a layout before its time component overflows, about 10 years
+  private static final long MIN_LIFETIME_MILLIS = 10L * 36525 * 24 * 3600 * 1000 / 100;
+
+  private final int timestampBits;
+  private final int workerIdBits;
+  private final int sequenceBits;
+  private final long epoch;
+  private final long tickMillis;
+
+  // precomputed shifts and masks
+  private final int workerIdShift;
+  private final int timestampShift;
+  private final long maxWorkerId;
+  private final long maxSequence;
+
+  public SnowflakeLayout(
+      final int workerIdBits,
+      final int sequenceBits,
+      final long epoch,
+      final long tickMillis) {
+
+    if(workerIdBits < 0 || sequenceBits < 1) {
+      throw new IllegalArgumentException("worker id bits must be positive and sequence bits at "
+          + "least 1");
+    }
+    if(64 - workerIdBits - sequenceBits < MIN_TIMESTAMP_BITS) {
+      throw new IllegalArgumentException(String.format(
+          "worker id and sequence bits must leave at least %d bits of time", MIN_TIMESTAMP_BITS));
+    }
+    if(epoch < 0 || tickMillis < 1) {
+      throw new IllegalArgumentException("epoch must be positive and tick at least 1 millisecond");
+    }
+
+    // ticks past the time component would be shifted out, and negative ones sign extended over
+    // the worker id and sequence, so the clock must sit within the lifetime of the layout
+    final long now = System.currentTimeMillis();
+    if(epoch > now) {
+      throw new IllegalArgumentException("epoch must not be in the future");
+    }
+    final int timeBits = 64 - workerIdBits - sequenceBits;
+    if((now + MIN_LIFETIME_MILLIS - epoch) / tickMillis >>> timeBits != 0) {
+      throw new IllegalArgumentException(String.format(
+          "%d bits of %dms ticks since epoch %d overflow within %d days", timeBits, tickMillis,
+          epoch, MIN_LIFETIME_MILLIS / (24 * 3600 * 1000)));
+    }
+
+    this.workerIdBits = workerIdBits;
+    this.sequenceBits = sequenceBits;
+    this.timestampBits = timeBits;
+    this.epoch = epoch;
+    this.tickMillis = tickMillis;
+
+    this.workerIdShift = sequenceBits;
+    this.timestampShift = workerIdBits + sequenceBits;
+    this.maxWorkerId = (1L << workerIdBits) - 1;
+    this.maxSequence = (1L << sequenceBits) - 1;
+  }
+
+  /**
+   * Convert a wall clock time to the number of ticks elapsed since the custom epoch.
+   * @param epochMillis milliseconds since the unix epoch
+   * @return number of ticks
+   */
+  public long toTick(final long epochMillis) {
+    final long elapsed = epochMillis - epoch;
+    return tickMillis == 1 ? elapsed : elapsed / tickMillis;
+  }
+
+  /**
+   * Convert a number of ticks since the custom epoch back to a wall clock time.
+   * @param tick number of ticks
+   * @return milliseconds since the unix epoch
+   */
+  public long toEpochMillis(final long tick) {
+    return tick * tickMillis + epoch;
+  }
+
+  /**
+   * Compose an id from its components. Components are expected to be in range.
+   */
+  public long compose(final long tick, final long workerId, final long sequence) {
+    return (tick << timestampShift) | (workerId << workerIdShift) | sequence;
+  }
+
+  public long tickOf(final long id) {
+    return id >>> timestampShift;
+  }
+
+  public long workerIdOf(final long id) {
+    return (id >>> workerIdShift) & maxWorkerId;
+  }
+
+  public long sequenceOf(final long id) {
+    return id & maxSequence;
+  }
+}
@@ -0,0 +1,79 @@
+package com.ap.uidgen.core.services.snowflake;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the exceptional paths taken by snowflake generators. A single instance can be
+ * shared by all generators of a process, counters are safe to update from any thread.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class SnowflakeMetrics
+{
+  // clock regressions small enough to be waited out
+  private final LongAdder clockRegressionWaits = new LongAdder();
+
+  // ids emitted on logical time while the clock was behind the last timestamp
+  private final LongAdder clockRegressionBorrows = new LongAdder();
+
+  // ids refused because the clock regression was too large to be absorbed
+  private final LongAdder clockRegressionFailures = new LongAdder();
+
+  // sequence exhaustions handled by spinning till the next tick
+  private final LongAdder sequenceExhaustedSpins = new LongAdder();
+
+  // sequence exhaustions handled by moving to the next tick ahead of the clock
+  private final LongAdder sequenceExhaustedBorrows = new LongAdder();
+
+  // sequence exhaustions handed back to the caller to retry later
+  private final LongAdder sequenceExhaustedDeferrals = new LongAdder();
+
+  public long getClockRegressionWaits() {
+    return clockRegressionWaits.sum();
+  }
+
+  public long getClockRegressionBorrows() {
+    return clockRegressionBorrows.sum();
+  }
+
+  public long getClockRegressionFailures() {
+    return clockRegressionFailures.sum();
+  }
+
+  public long getSequenceExhaustedSpins() {
+    return sequenceExhaustedSpins.sum();
+  }
+
+  public long getSequenceExhaustedBorrows() {
+    return sequenceExhaustedBorrows.sum();
+  }
+
+  public long getSequenceExhaustedDeferrals() {
+    return sequenceExhaustedDeferrals.sum();
+  }
+
+  void recordClockRegressionWait() {
+    clockRegressionWaits.increment();
+  }
+
+  void recordClockRegressionBorrow() {
+    clockRegressionBorrows.increment();
+  }
+
+  void recordClockRegressionFailure() {
+    clockRegressionFailures.increment();
+  }
+
+  void recordSequenceExhaustedSpin() {
+    sequenceExhaustedSpins.increment();
+  }
+
+  void recordSequenceExhaustedBorrow() {
+    sequenceExhaustedBorrows.increment();
+  }
+
+  void recordSequenceExhaustedDeferral() {
+    sequenceExhaustedDeferrals.increment();
+  }
+}
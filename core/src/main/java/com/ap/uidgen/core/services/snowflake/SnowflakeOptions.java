@@ -0,0 +1,78 @@
+package com.ap.uidgen.core.services.snowflake;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+
+import com.ap.uidgen.core.services.clock.SystemTickSource;
+import com.ap.uidgen.core.services.clock.TickSource;
+
+/**
+ * Tuning options shared by all snowflake generators.
+ *
+ * Clock regressions (the clock going backwards, e.g. an NTP step) are handled in three tiers:
+ * <ul>
+ *   <li>up to {@code clockRegressionWaitMillis}, the generator spins until the clock catches up
+ *   with the last timestamp used;</li>
+ *   <li>up to {@code clockRegressionToleranceMillis}, the generator keeps emitting ids on the last
+ *   timestamp used (logical time) as long as its sequence allows;</li>
+ *   <li>past that, ids are refused with an {@link IllegalStateException}.</li>
+ * </ul>
+ *
+ * Sequence exhaustion within a tick is handled according to {@code sequenceOverflowStrategy}. The
+ * {@link SequenceOverflowStrategy#BORROW} strategy lets the generator run ahead of the clock by
+ * up to {@code maxBorrowMillis}.
+ *
+ * Time is read from {@code tickSource}, the system clock by default.
+ *
+ * With a {@code checkpoint}, generators reserve ticks ahead of the ids emitted by steps of
+ * {@code checkpointReserveMillis}, and resume after the reservation when restarted. See
+ * {@link TimestampCheckpoint}.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+@Builder
+@Getter
+public class SnowflakeOptions
+{
+  public static final long DEFAULT_CLOCK_REGRESSION_WAIT_MILLIS = 10L;
+  public static final long DEFAULT_CLOCK_REGRESSION_TOLERANCE_MILLIS = 1000L;
+  public static final long DEFAULT_MAX_BORROW_MILLIS = 5L;
+  public static final long DEFAULT_CHECKPOINT_RESERVE_MILLIS = 1000L;
+
+  @NonNull
+  @Builder.Default
+  private final SnowflakeLayout layout = SnowflakeLayout.DEFAULT;
+
+  @Builder.Default
+  private final long clockRegressionWaitMillis = DEFAULT_CLOCK_REGRESSION_WAIT_MILLIS;
+
+  @Builder.Default
+  private final long clockRegressionToleranceMillis = DEFAULT_CLOCK_REGRESSION_TOLERANCE_MILLIS;
+
+  @NonNull
+  @Builder.Default
+  private final SequenceOverflowStrategy sequenceOverflowStrategy = SequenceOverflowStrategy.SPIN;
+
+  @Builder.Default
+  private final long maxBorrowMillis = DEFAULT_MAX_BORROW_MILLIS;
+
+  @NonNull
+  @Builder.Default
+  private final TickSource tickSource = SystemTickSource.INSTANCE;
+
+  @NonNull
+  @Builder.Default
+  private final SnowflakeMetrics metrics = new SnowflakeMetrics();
+
+  // null when ticks are not checkpointed
+  private final TimestampCheckpoint checkpoint;
+
+  @Builder.Default
+  private final long checkpointReserveMillis = DEFAULT_CHECKPOINT_RESERVE_MILLIS;
+
+  public static SnowflakeOptions defaults() {
+    return SnowflakeOptions.builder().build();
+  }
+}
@@ -1,67 +1,157 @@
 package com.ap.uidgen.core.services.snowflake;
 
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.NonNull;
+
+import com.ap.uidgen.core.services.LongIdGenerator;
+import com.ap.uidgen.core.services.clock.TickSource;
 
 /**
  * Twitter snowflake uid generator. Generates a unique id based on a time component, a unique worker node id
  * and a sequence number. These IDs a roughly emitted in order across nodes, leading to good
  * indexing performance.
  *
- * 42 bits of time components gives us 2^42 - 1 milliseconds worth of IDs (almost 140 years) of
- * operation.
+ * With the default {@link SnowflakeLayout}, 42 bits of time components gives us 2^42 - 1
+ * milliseconds worth of IDs (almost 140 years) of operation.
  *
  * @author aparadis
  * @since 1.0.0
  */
-public class SnowflakeUid
+public class SnowflakeUid implements LongIdGenerator
 {
-  // number of bits reserved for the worker id
-  private static final long WORKER_ID_BITS = 10L;
-
-  // number of bits reserved for the sequence number
-  private static final long SEQUENCE_BITS = 12L;
+  // bit layout of the ids generated
+  private final SnowflakeLayout layout;
 
   // max sequence mask based on number of bits
-  private static final int MAX_SEQUENCE_VALUE = (int)(Math.pow(2, SEQUENCE_BITS) - 1);
+  private final long maxSequence;
+
+  // clock regression handling thresholds, see SnowflakeOptions
+  private final long clockRegressionWaitMillis;
+  private final long clockRegressionToleranceMillis;
 
-  // max node id based on number of bits
-  private static final int MAX_WORKER_ID_VALUE = (int)(Math.pow(2, WORKER_ID_BITS) - 1);
+  private final SnowflakeMetrics metrics;
 
-  // custom epoch to get number of milliseconds from a recent reference to maximize usage of the
-  // 42 bits.
-  // IMPORTANT: This must be not be changed in later versions of this generators. Set to
-  // Wednesday, January 1, 2020 0:00:00 GMT
-  private static final long EPOCH_REFERENCE = 1577836800000L;
+  // source of wall clock time
+  private final TickSource tickSource;
 
   // unique id identifying this process in a cluster
   private final long workerId;
 
+  // sequence exhaustion handling, see SnowflakeOptions
+  private final SequenceOverflowStrategy sequenceOverflowStrategy;
+  private final long maxBorrowMillis;
+
   // avoid cpu cache for these values.
   private volatile long lastTimestamp;
   private volatile long sequence;
 
+  // highest timestamp read from the clock, lower than lastTimestamp when running on borrowed ticks
+  private volatile long clockTimestamp;
+
+  // reservation of ticks ahead of the ids emitted, see TimestampCheckpoint. Ids are emitted on
+  // ticks strictly below reservedUntil, the checkpoint is only touched within a step of it.
+  private final TimestampCheckpoint checkpoint;
+  private final long reserveTicks;
+  private long reservedUntil;
+
   public SnowflakeUid(final long workerId) {
-    if(workerId < 0 || workerId > MAX_WORKER_ID_VALUE) {
+    this(workerId, SnowflakeLayout.DEFAULT);
+  }
+
+  public SnowflakeUid(final long workerId, @NonNull final SnowflakeLayout layout) {
+    this(workerId, SnowflakeOptions.builder().layout(layout).build());
+  }
+
+  public SnowflakeUid(final long workerId, @NonNull final SnowflakeOptions options) {
+    final SnowflakeLayout layout = options.getLayout();
+    if(workerId < 0 || workerId > layout.getMaxWorkerId()) {
       throw new IllegalArgumentException(String.format("worker id must be between %d and %d", 0,
-          MAX_WORKER_ID_VALUE));
+          layout.getMaxWorkerId()));
     }
 
+    this.layout = layout;
+    this.maxSequence = layout.getMaxSequence();
+    this.clockRegressionWaitMillis = options.getClockRegressionWaitMillis();
+    this.clockRegressionToleranceMillis = options.getClockRegressionToleranceMillis();
+    this.sequenceOverflowStrategy = options.getSequenceOverflowStrategy();
+    this.maxBorrowMillis = options.getMaxBorrowMillis();
+    this.metrics = options.getMetrics();
+    this.tickSource = options.getTickSource();
     this.workerId = workerId;
     this.lastTimestamp = 0L;
     this.sequence = 0L;
+    this.clockTimestamp = 0L;
+
+    this.checkpoint = options.getCheckpoint();
+    this.reserveTicks = Math.max(1L, options.getCheckpointReserveMillis() / layout.getTickMillis());
+    this.reservedUntil = Long.MAX_VALUE;
+    if(checkpoint != null) {
+      // resume after the ids of the previous run, as if their reservation was borrowed
+      reservedUntil = checkpoint.restore(workerId, options);
+      if(reservedUntil > 0) {
+        lastTimestamp = reservedUntil - 1;
+        sequence = maxSequence;
+      }
+    }
+  }
+
+  public SnowflakeLayout getLayout() {
+    return layout;
+  }
+
+  public SnowflakeMetrics getMetrics() {
+    return metrics;
+  }
+
+  public long getWorkerId() {
+    return workerId;
+  }
+
+  /**
+   * Safe to call from any thread, e.g. by health checks.
+   */
+  @Override
+  public long getLeadMillis() {
+    final long lead = lastTimestamp - layout.toTick(tickSource.currentTimeMillis());
+    return lead > 0 ? lead * layout.getTickMillis() : 0L;
+  }
+
+  long getLastTimestamp() {
+    return lastTimestamp;
+  }
+
+  long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Replace the timestamp and sequence of the last id emitted, to run this generator over another
+   * sequence space, see {@link NamespacedSnowflakeUid}. Same threading constraints as
+   * {@link #generateId()}.
+   */
+  void restoreState(final long lastTimestamp, final long sequence) {
+    this.lastTimestamp = lastTimestamp;
+    this.sequence = sequence;
   }
 
   /**
-   * Calculate number of milliseconds relative to a custom epoch
-   * @return number of milliseconds
+   * Calculate number of ticks relative to the layout custom epoch, using the configured tick
+   * source. Keeps track of the highest timestamp read from the clock.
+   * @return number of ticks
    */
   private long getTimestamp() {
-    return Instant.now().toEpochMilli() - EPOCH_REFERENCE;
+    final long timestamp = layout.toTick(tickSource.currentTimeMillis());
+    if(timestamp > clockTimestamp) {
+      clockTimestamp = timestamp;
+    }
+    return timestamp;
   }
 
   /**
    * Generate a unique 64 bits id using 42 bits of timestamp, 10 bits worker id and 12 bits
-   * sequence.
+   * sequence (or the widths of the configured layout).
    *
    * IMPORTANT: this method is not thread safe to avoid synchronization hit. The caller should
    * provide make sure this method is called by a single thread at at a time
@@ -69,52 +159,238 @@ public class SnowflakeUid
    * @return a string representation of the unsigned long id.
    */
   public String generateId() {
+    return format(nextId());
+  }
+
+  /**
+   * Generate a unique 64 bits id. This is the allocation free version of {@link #generateId()}.
+   *
+   * IMPORTANT: same threading constraints as {@link #generateId()}
+   *
+   * @return the id, to be interpreted as an unsigned long
+   * @throws SequenceExhaustedException if the sequence is exhausted with the DEFER strategy
+   */
+  @Override
+  public long nextId() {
     long timestamp = getTimestamp();
     if(timestamp < lastTimestamp) {
-      throw new IllegalStateException("Invalid timestamp acquired");
+      timestamp = handleTimestampBehind(timestamp);
     }
 
     // critical section:
     // deliberately avoiding synchronization lock to allow fastest
 
+    long nextSequence = 0;
     if (timestamp == lastTimestamp) {
-      // id generated in the same millisecond, need to increment sequence to have unique id.
+      // id generated in the same tick, need to increment sequence to have unique id.
       // On a speedy host, we could max out sequence so detect this condition.
-      sequence = (sequence + 1) & MAX_SEQUENCE_VALUE;
-      if(sequence == 0) {
-        // Sequence overflow, wait till next millisecond.
-        timestamp = waitForNextMillis(timestamp);
+      nextSequence = (sequence + 1) & maxSequence;
+      if(nextSequence == 0) {
+        // Sequence overflow, move to next tick.
+        timestamp = handleSequenceExhausted();
       }
-    } else {
-      // next millisecond, we can reset the sequence
-      sequence = 0;
     }
 
-    // keep track of time
+    if(timestamp >= reservedUntil - reserveTicks) {
+      reserve(timestamp);
+    }
+
+    // keep track of time. State is only updated once the id is certain to be emitted.
+    sequence = nextSequence;
     lastTimestamp = timestamp;
 
     // end of critical section
 
+    return layout.compose(timestamp, workerId, sequence);
+  }
+
+  /**
+   * Generate a batch of unique ids in a single pass. Rather than going through
+   * {@link #generateId()} for each id, the timestamp is acquired once per tick and a
+   * contiguous range of sequence numbers is claimed for it.
+   *
+   * IMPORTANT: this method is not thread safe, see {@link #generateId()}
+   *
+   * @param count number of ids to generate
+   * @return string representations of the unsigned long ids, in generation order
+   */
+  public List<String> generateIds(final int count) {
+    if(count < 0) {
+      throw new IllegalArgumentException("count must be positive");
+    }
 
-    long id = timestamp << (WORKER_ID_BITS + SEQUENCE_BITS);
-    id |= workerId << SEQUENCE_BITS;
-    id |= sequence;
+    final long[] ids = new long[count];
+    nextIds(ids, 0, count);
 
-    // generate string representation of this id using unsigned long representation
+    final List<String> formatted = new ArrayList<>(count);
+    for(long id : ids) {
+      formatted.add(format(id));
+    }
+    return formatted;
+  }
+
+  /**
+   * Allocation free version of {@link #generateIds(int)}: the timestamp is acquired once per
+   * tick and a contiguous range of sequence numbers is claimed for it.
+   *
+   * IMPORTANT: this method is not thread safe, see {@link #generateId()}
+   *
+   * @param ids destination array
+   * @param offset index of the first id to write
+   * @param count number of ids to write
+   * @throws SequenceExhaustedException if the sequence is exhausted with the DEFER strategy. Ids
+   * written before the exception are valid.
+   */
+  @Override
+  public void nextIds(final long[] ids, final int offset, final int count) {
+    int index = offset;
+    int remaining = count;
+    while(remaining > 0) {
+      long timestamp = getTimestamp();
+      if(timestamp < lastTimestamp) {
+        timestamp = handleTimestampBehind(timestamp);
+      }
+
+      long firstSequence = 0;
+      if(timestamp == lastTimestamp) {
+        firstSequence = sequence + 1;
+        if(firstSequence > maxSequence) {
+          // Sequence exhausted for this tick, move to next one.
+          timestamp = handleSequenceExhausted();
+          firstSequence = 0;
+        }
+      }
+
+      if(timestamp >= reservedUntil - reserveTicks) {
+        reserve(timestamp);
+      }
+
+      // claim as much of the remaining sequence range of this tick as needed
+      final long lastSequence = Math.min(maxSequence, firstSequence + remaining - 1);
+      sequence = lastSequence;
+      lastTimestamp = timestamp;
+
+      final long base = layout.compose(timestamp, workerId, 0);
+      for(long seq = firstSequence; seq <= lastSequence; seq++) {
+        ids[index++] = base | seq;
+      }
+      remaining -= (int)(lastSequence - firstSequence + 1);
+    }
+  }
+
+  /**
+   * Format an id as returned by {@link #nextId()} to its unsigned decimal string representation.
+   * This is the representation returned by {@link #generateId()}.
+   *
+   * @param id
+   * @return unsigned long string representation of the id
+   */
+  public static String format(final long id) {
     return Long.toUnsignedString(id);
   }
 
   /**
-   * busy wait till next timestamp. This will happen only when MAX_SEQUENCE_VALUE IDs have been
-   * generated under 1ms.
+   * Keep the reservation of ticks a step ahead of the timestamp, before any id is emitted on it.
+   * The reservation is extended in the background, the timestamp only waits for a sync once it
+   * reaches the reservation.
+   */
+  private void reserve(final long timestamp) {
+    reservedUntil = checkpoint.getReservedTick(workerId);
+    if(timestamp >= reservedUntil) {
+      reservedUntil = checkpoint.reserve(workerId, timestamp + 2 * reserveTicks);
+    }
+    else if(timestamp >= reservedUntil - reserveTicks) {
+      checkpoint.reserveAhead(workerId, timestamp + 2 * reserveTicks);
+    }
+  }
+
+  /**
+   * Handle a timestamp behind the last timestamp used. This happens either when ticks were
+   * borrowed ahead of the clock on sequence exhaustion, or when the clock moved backwards.
    *
-   * @param currentTimestamp
-   * @return the next timestamp different than the supplied one
+   * Small clock regressions are waited out, larger ones borrow from logical time by continuing on
+   * the last timestamp, and regressions past the tolerance are refused.
+   *
+   * @param timestamp current timestamp, lower than the last timestamp used
+   * @return the timestamp to use for the next id
+   */
+  private long handleTimestampBehind(long timestamp) {
+    final long regressionMillis = (clockTimestamp - timestamp) * layout.getTickMillis();
+    if(regressionMillis <= 0) {
+      // clock did not go backwards, we are running on borrowed ticks
+      return lastTimestamp;
+    }
+
+    if(regressionMillis <= clockRegressionWaitMillis) {
+      metrics.recordClockRegressionWait();
+      final long highestTimestamp = clockTimestamp;
+      while(timestamp < highestTimestamp) {
+        Thread.onSpinWait();
+        timestamp = getTimestamp();
+      }
+      return Math.max(timestamp, lastTimestamp);
+    }
+
+    if(regressionMillis <= clockRegressionToleranceMillis) {
+      metrics.recordClockRegressionBorrow();
+      return lastTimestamp;
+    }
+
+    metrics.recordClockRegressionFailure();
+    throw new IllegalStateException(
+        String.format("Invalid timestamp acquired, clock moved backwards by %d ms",
+            regressionMillis));
+  }
+
+  /**
+   * Move past the last timestamp used according to the sequence overflow strategy. This will
+   * happen only when the max sequence value IDs have been generated under 1 tick.
+   *
+   * @return the next timestamp greater than the last timestamp used
+   */
+  private long handleSequenceExhausted() {
+    switch(sequenceOverflowStrategy) {
+      case BORROW:
+        // refresh the highest timestamp read from the clock before measuring the drift
+        getTimestamp();
+        if((lastTimestamp + 1 - clockTimestamp) * layout.getTickMillis() <= maxBorrowMillis) {
+          metrics.recordSequenceExhaustedBorrow();
+          return lastTimestamp + 1;
+        }
+        // drifted too far ahead of the clock, wait for it to catch up
+        break;
+      case DEFER:
+        metrics.recordSequenceExhaustedDeferral();
+        throw new SequenceExhaustedException(
+            Math.max(1, (lastTimestamp + 1 - getTimestamp()) * layout.getTickMillis()));
+      default:
+        break;
+    }
+
+    metrics.recordSequenceExhaustedSpin();
+    return waitForNextMillis();
+  }
+
+  /**
+   * busy wait till next timestamp.
+   *
+   * When the sequence is exhausted while borrowing from logical time, the clock may be behind by
+   * more than can be waited out: the id is refused rather than stalling the caller.
+   *
+   * @return the next timestamp greater than the last timestamp used
    */
-  private long waitForNextMillis(long currentTimestamp) {
-    while (currentTimestamp == lastTimestamp) {
-      currentTimestamp = getTimestamp();
+  private long waitForNextMillis() {
+    long timestamp = getTimestamp();
+    if((clockTimestamp - timestamp) * layout.getTickMillis() > clockRegressionWaitMillis) {
+      metrics.recordClockRegressionFailure();
+      throw new IllegalStateException(
+          "Sequence exhausted while clock is behind the last timestamp used");
+    }
+
+    while (timestamp <= lastTimestamp) {
+      Thread.onSpinWait();
+      timestamp = getTimestamp();
     }
-    return currentTimestamp;
+    return timestamp;
   }
 }
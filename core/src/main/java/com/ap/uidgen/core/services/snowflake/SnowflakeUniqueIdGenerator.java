@@ -1,9 +1,15 @@
 package com.ap.uidgen.core.services.snowflake;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
-import com.ap.uidgen.core.services.UniqueIdGenerator;
+import com.ap.uidgen.core.services.LongIdGenerator;
+import com.ap.uidgen.core.services.LongUniqueIdGenerator;
+import com.ap.uidgen.core.services.WorkerIdStore;
 
 /**
  *  Uid generator implementation using twitter snowflake UIDs. See
@@ -19,17 +25,89 @@ import com.ap.uidgen.core.services.UniqueIdGenerator;
  *  This allows id generation without contention in the generator, while ensuring no colliding IDs
  *  are emitted by concurrently running verticles since they all use a different worker id.
  *
+ *  Outside of vert.x, the generator can be built on top of a thread safe snowflake such as
+ *  {@link ConcurrentSnowflakeUid}. Built on top of a {@link StripedSnowflakeUid}, a single
+ *  generator can be shared by any number of threads blocking on id generation, each of them
+ *  generating ids with a stripe of its own, without any lock or contended state.
+ *
+ *  By default all namespaces share the sequence of the snowflake. Built on top of a
+ *  {@link NamespacedSnowflakeUid}, each namespace gets its own sequence space instead.
+ *
+ *  Raw ids are exposed through {@link LongUniqueIdGenerator}, for callers encoding them in
+ *  another format than decimal.
+ *
  * @author aparadis
  * @since 1.0.0
  */
 @Slf4j
-public class SnowflakeUniqueIdGenerator implements UniqueIdGenerator
+public class SnowflakeUniqueIdGenerator implements LongUniqueIdGenerator
 {
-  // dedicated instance of a snowflake
-  private final SnowflakeUid snowflake;
+  // dedicated instance of a snowflake, null when using per namespace sequences
+  private final LongIdGenerator snowflake;
+
+  // dedicated instance of a per namespace snowflake, null when sharing a single sequence
+  private final NamespacedSnowflakeUid namespacedSnowflake;
+
+  // whether the worker id of the snowflake is still owned, ids are refused otherwise
+  private final BooleanSupplier leaseValidity;
+
+  // run on close, typically releasing the worker id of the snowflake
+  private final Runnable onClose;
 
   public SnowflakeUniqueIdGenerator(int nodeId) {
-    this.snowflake = new SnowflakeUid(nodeId);
+    this(new SnowflakeUid(nodeId));
+  }
+
+  public SnowflakeUniqueIdGenerator(@NonNull final LongIdGenerator snowflake) {
+    this(snowflake, () -> {});
+  }
+
+  /**
+   * @param snowflake snowflake generating the ids, closed along with this generator if it is
+   * {@link AutoCloseable}
+   * @param onClose action run once the generator is closed
+   */
+  public SnowflakeUniqueIdGenerator(
+      @NonNull final LongIdGenerator snowflake,
+      @NonNull final Runnable onClose) {
+    this(snowflake, () -> true, onClose);
+  }
+
+  /**
+   * @param snowflake snowflake generating the ids, closed along with this generator if it is
+   * {@link AutoCloseable}
+   * @param leaseValidity whether the worker id of the snowflake is still owned, see
+   * {@link WorkerIdStore#getLeaseValidity(int)}
+   * @param onClose action run once the generator is closed
+   */
+  public SnowflakeUniqueIdGenerator(
+      @NonNull final LongIdGenerator snowflake,
+      @NonNull final BooleanSupplier leaseValidity,
+      @NonNull final Runnable onClose) {
+    this.snowflake = snowflake;
+    this.namespacedSnowflake = null;
+    this.leaseValidity = leaseValidity;
+    this.onClose = onClose;
+  }
+
+  public SnowflakeUniqueIdGenerator(@NonNull final NamespacedSnowflakeUid namespacedSnowflake) {
+    this(namespacedSnowflake, () -> {});
+  }
+
+  public SnowflakeUniqueIdGenerator(
+      @NonNull final NamespacedSnowflakeUid namespacedSnowflake,
+      @NonNull final Runnable onClose) {
+    this(namespacedSnowflake, () -> true, onClose);
+  }
+
+  public SnowflakeUniqueIdGenerator(
+      @NonNull final NamespacedSnowflakeUid namespacedSnowflake,
+      @NonNull final BooleanSupplier leaseValidity,
+      @NonNull final Runnable onClose) {
+    this.snowflake = null;
+    this.namespacedSnowflake = namespacedSnowflake;
+    this.leaseValidity = leaseValidity;
+    this.onClose = onClose;
   }
 
   /**
@@ -41,7 +119,114 @@ public class SnowflakeUniqueIdGenerator implements UniqueIdGenerator
   @Override
   public String generateUid(@NonNull final String namespace)
   {
-    log.info("generating new uid");
-    return namespace + "-" + snowflake.generateId();
+    log.debug("generating new uid");
+    return namespace + "-" + SnowflakeUid.format(nextId(namespace));
+  }
+
+  /**
+   * Generate a batch of ids in a single pass over the snowflake, see
+   * {@link SnowflakeUid#nextIds(long[], int, int)}. Same threading constraints as
+   * {@link #generateUid(String)}.
+   * @param namespace
+   * @param count number of ids to generate
+   * @return unique ids
+   */
+  @Override
+  public List<String> generateUids(@NonNull final String namespace, final int count)
+  {
+    if(log.isDebugEnabled()) {
+      // avoid boxing the count on every batch
+      log.debug("generating {} new uids", count);
+    }
+    final long[] ids = new long[count];
+    nextIds(namespace, ids, 0, count);
+
+    final String prefix = namespace + "-";
+    final List<String> uids = new ArrayList<>(count);
+    for(long id : ids) {
+      uids.add(prefix + SnowflakeUid.format(id));
+    }
+    return uids;
+  }
+
+  /**
+   * Same threading constraints as {@link #generateUid(String)}.
+   * @return a unique 64 bits id
+   */
+  @Override
+  public long generateLongId(@NonNull final String namespace)
+  {
+    log.debug("generating new uid");
+    return nextId(namespace);
+  }
+
+  /**
+   * Same threading constraints as {@link #generateUid(String)}.
+   */
+  @Override
+  public void generateLongIds(
+      @NonNull final String namespace,
+      final long[] ids,
+      final int offset,
+      final int count)
+  {
+    if(log.isDebugEnabled()) {
+      log.debug("generating {} new uids", count);
+    }
+    nextIds(namespace, ids, offset, count);
+  }
+
+  /**
+   * @return how far the snowflake runs ahead of the clock, see
+   * {@link LongIdGenerator#getLeadMillis()}. Safe to call from any thread.
+   */
+  public long getLeadMillis() {
+    return namespacedSnowflake != null
+        ? namespacedSnowflake.getLeadMillis()
+        : snowflake.getLeadMillis();
+  }
+
+  /**
+   * Close the snowflake if needed, e.g. stopping the producer of a {@link RingBufferSnowflakeUid},
+   * then run the close action.
+   */
+  @Override
+  public void close() {
+    if(snowflake instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable)snowflake).close();
+      }
+      catch(Exception e) {
+        log.warn("Unable to close snowflake", e);
+      }
+    }
+    onClose.run();
+  }
+
+  private long nextId(final String namespace) {
+    checkLease();
+    return namespacedSnowflake != null
+        ? namespacedSnowflake.nextId(namespace)
+        : snowflake.nextId();
+  }
+
+  private void nextIds(final String namespace, final long[] ids, final int offset, final int count) {
+    checkLease();
+    if(namespacedSnowflake != null) {
+      namespacedSnowflake.nextIds(namespace, ids, offset, count);
+    }
+    else {
+      snowflake.nextIds(ids, offset, count);
+    }
+  }
+
+  /**
+   * Refuse to generate ids once the worker id is no longer owned: another node may be generating
+   * ids with it, which could then collide.
+   */
+  private void checkLease() {
+    if(!leaseValidity.getAsBoolean()) {
+      throw new IllegalStateException("Lease of the worker id is lost, refusing to generate ids");
+    }
   }
 }
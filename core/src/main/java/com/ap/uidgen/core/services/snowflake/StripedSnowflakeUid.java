@@ -0,0 +1,225 @@
+package com.ap.uidgen.core.services.snowflake;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import lombok.NonNull;
+
+import com.ap.uidgen.core.services.LongIdGenerator;
+import com.ap.uidgen.core.services.WorkerIdStore;
+
+/**
+ * Thread safe snowflake generator for embedded usages, where each calling thread leases its own
+ * stripe: a {@link SnowflakeUid} configured with a dedicated worker id. Id generation then never
+ * touches state shared with other threads, and scales with the number of cores just like one
+ * verticle instance per core does.
+ *
+ * Worker ids are pulled lazily from a {@link WorkerIdStore}, at most {@code maxStripes} of them.
+ * Stripes leased by threads that died are handed back to the pool before any new worker id is
+ * requested from the store, so short lived threads don't use up the worker id space. A stripe
+ * keeps its snowflake state when changing hands, so the next owner can't emit ids already emitted
+ * by the previous one.
+ *
+ * No lock is taken, neither on generation nor when leasing stripes: the generator can be shared by
+ * any number of threads blocking on id generation, e.g. a pool of workers, without ever parking
+ * them. Worker ids are handed back to the store once the generator is closed.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class StripedSnowflakeUid implements LongIdGenerator, AutoCloseable
+{
+  private final WorkerIdStore workerIdStore;
+  private final int maxStripes;
+  private final SnowflakeOptions options;
+
+  // number of worker ids pulled from the store so far
+  private final AtomicInteger stripeCount = new AtomicInteger(0);
+
+  // stripes available to any thread
+  private final Queue<SnowflakeUid> freeStripes = new ConcurrentLinkedQueue<>();
+
+  // stripes currently leased, scanned for dead owners when no free stripe is available
+  private final Queue<Lease> leases = new ConcurrentLinkedQueue<>();
+
+  private final ThreadLocal<Lease> currentLease = new ThreadLocal<>();
+
+  // all stripes created, whether free or leased
+  private final Queue<SnowflakeUid> stripes = new ConcurrentLinkedQueue<>();
+
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  public StripedSnowflakeUid(@NonNull final WorkerIdStore workerIdStore, final int maxStripes) {
+    this(workerIdStore, maxStripes, SnowflakeLayout.DEFAULT);
+  }
+
+  public StripedSnowflakeUid(
+      @NonNull final WorkerIdStore workerIdStore,
+      final int maxStripes,
+      @NonNull final SnowflakeLayout layout) {
+    this(workerIdStore, maxStripes, SnowflakeOptions.builder().layout(layout).build());
+  }
+
+  public StripedSnowflakeUid(
+      @NonNull final WorkerIdStore workerIdStore,
+      final int maxStripes,
+      @NonNull final SnowflakeOptions options) {
+    if(maxStripes < 1) {
+      throw new IllegalArgumentException("max stripes must be at least 1");
+    }
+
+    this.workerIdStore = workerIdStore;
+    this.maxStripes = maxStripes;
+    this.options = options;
+  }
+
+  /**
+   * Generate a unique id using the stripe leased by the calling thread, see
+   * {@link SnowflakeUid#nextId()}.
+   *
+   * @return the id, to be interpreted as an unsigned long
+   */
+  @Override
+  public long nextId() {
+    return stripe().nextId();
+  }
+
+  @Override
+  public void nextIds(final long[] ids, final int offset, final int count) {
+    stripe().nextIds(ids, offset, count);
+  }
+
+  /**
+   * Hand the stripe leased by the calling thread back to the pool. Threads from long lived pools
+   * don't need to call this, stripes of dead threads are reclaimed automatically.
+   */
+  public void release() {
+    final Lease lease = currentLease.get();
+    if(lease != null) {
+      currentLease.remove();
+      leases.remove(lease);
+      freeStripes.offer(lease.snowflake);
+    }
+  }
+
+  /**
+   * @return number of worker ids pulled from the store by this generator
+   */
+  public int getStripeCount() {
+    return stripeCount.get();
+  }
+
+  /**
+   * @return lead of the stripe furthest ahead of the clock, see
+   * {@link SnowflakeUid#getLeadMillis()}
+   */
+  @Override
+  public long getLeadMillis() {
+    long lead = 0L;
+    for(SnowflakeUid stripe : stripes) {
+      lead = Math.max(lead, stripe.getLeadMillis());
+    }
+    return lead;
+  }
+
+  /**
+   * Hand the worker ids of all stripes back to the store, once no thread generates ids anymore.
+   * Closing more than once has no effect.
+   */
+  @Override
+  public void close() {
+    if(closed.compareAndSet(false, true)) {
+      for(SnowflakeUid stripe : stripes) {
+        workerIdStore.releaseWorkerId((int)stripe.getWorkerId());
+      }
+    }
+  }
+
+  /**
+   * @return snowflake of the stripe leased by the calling thread
+   * @throws IllegalStateException if the worker id of the stripe is no longer owned, see
+   * {@link WorkerIdStore#getLeaseValidity(int)}
+   */
+  private SnowflakeUid stripe() {
+    Lease lease = currentLease.get();
+    if(lease == null) {
+      lease = acquire();
+    }
+    if(!lease.workerIdValidity.getAsBoolean()) {
+      throw new IllegalStateException(String.format("Lease of worker id %d is lost, refusing to "
+          + "generate ids", lease.snowflake.getWorkerId()));
+    }
+    return lease.snowflake;
+  }
+
+  private Lease acquire() {
+    SnowflakeUid snowflake = freeStripes.poll();
+    if(snowflake == null) {
+      reclaimDeadThreadStripes();
+      snowflake = freeStripes.poll();
+    }
+    if(snowflake == null) {
+      snowflake = createStripe();
+    }
+
+    final Lease lease = new Lease(Thread.currentThread(), snowflake,
+        workerIdStore.getLeaseValidity((int)snowflake.getWorkerId()));
+    leases.offer(lease);
+    currentLease.set(lease);
+    return lease;
+  }
+
+  private void reclaimDeadThreadStripes() {
+    final Iterator<Lease> iterator = leases.iterator();
+    while(iterator.hasNext()) {
+      final Lease lease = iterator.next();
+      if(!lease.isOwnerAlive() && leases.remove(lease)) {
+        freeStripes.offer(lease.snowflake);
+      }
+    }
+  }
+
+  private SnowflakeUid createStripe() {
+    int count;
+    do {
+      count = stripeCount.get();
+      if(count >= maxStripes) {
+        throw new IllegalStateException(
+            String.format("All %d stripes are leased by live threads", maxStripes));
+      }
+    } while(!stripeCount.compareAndSet(count, count + 1));
+
+    final Optional<Integer> workerId = workerIdStore.getAvailableWorkerId();
+    if(!workerId.isPresent()) {
+      stripeCount.decrementAndGet();
+      throw new IllegalStateException("Could not get available worker id from store");
+    }
+    final SnowflakeUid stripe = new SnowflakeUid(workerId.get(), options);
+    stripes.offer(stripe);
+    return stripe;
+  }
+
+  private static class Lease
+  {
+    private final WeakReference<Thread> owner;
+    private final SnowflakeUid snowflake;
+    private final BooleanSupplier workerIdValidity;
+
+    private Lease(Thread owner, SnowflakeUid snowflake, BooleanSupplier workerIdValidity) {
+      this.owner = new WeakReference<>(owner);
+      this.snowflake = snowflake;
+      this.workerIdValidity = workerIdValidity;
+    }
+
+    private boolean isOwnerAlive() {
+      final Thread thread = owner.get();
+      return thread != null && thread.isAlive();
+    }
+  }
+}
@@ -0,0 +1,217 @@
+package com.ap.uidgen.core.services.snowflake;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Memory mapped file recording, per worker id, a tick reserved ahead of the ids emitted: no id
+ * was emitted on or after the reserved tick. Generators configured with a checkpoint resume after
+ * the reservation when restarted, so a clock stepped back across a restart can't make them emit
+ * ids issued before.
+ *
+ * Generators keep their reservation at least one configurable step ahead of the clock (see
+ * {@link SnowflakeOptions#getCheckpointReserveMillis()}): once within a step of it, they request
+ * a reservation two steps ahead with {@link #reserveAhead(long, long)}, which a background thread
+ * advances and syncs to disk. Syncs thus happen once per step rather than once per id, and off the
+ * threads emitting ids. These only wait for a sync, see {@link #reserve(long, long)}, when the
+ * clock reaches the reservation before the background thread extended it.
+ *
+ * The file holds one 8 bytes big endian slot per worker id, advanced with a compare and set so
+ * that a reservation never moves backwards. Ticks depend on the layout, which must not change
+ * once ids have been emitted anyway.
+ *
+ * The sync thread runs until {@link #close()} is called.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+@Slf4j
+public class TimestampCheckpoint implements AutoCloseable
+{
+  private static final VarHandle SLOTS =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+  private final Path path;
+  private final int slotCount;
+  private final MappedByteBuffer buffer;
+
+  // ticks reserved and synced to disk, per worker id. Slots of the buffer run ahead of them until
+  // synced: only these may be handed out to generators.
+  private final AtomicLongArray synced;
+  // slots read before the last sync, guarded by this
+  private final long[] syncing;
+
+  // reservations requested by generators, per worker id, advanced by the sync thread
+  private final AtomicLongArray requested;
+  private final AtomicBoolean pending = new AtomicBoolean();
+  private final Thread syncer;
+  private volatile boolean running = true;
+
+  /**
+   * Open the checkpoint file, creating it if needed.
+   *
+   * @param path checkpoint file
+   * @param layout layout of the ids, one slot is mapped per worker id
+   */
+  public TimestampCheckpoint(@NonNull final Path path, @NonNull final SnowflakeLayout layout) {
+    this.path = path;
+    this.slotCount = (int)layout.getMaxWorkerId() + 1;
+    try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      // the mapping outlives the channel
+      this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long)slotCount * Long.BYTES);
+    }
+    catch(IOException e) {
+      throw new UncheckedIOException("Unable to map checkpoint file " + path, e);
+    }
+
+    // reservations found in the file were synced by a previous run
+    this.synced = new AtomicLongArray(slotCount);
+    for(int slot = 0; slot < slotCount; slot++) {
+      synced.set(slot, (long)SLOTS.getVolatile(buffer, slot * Long.BYTES));
+    }
+    this.syncing = new long[slotCount];
+    this.requested = new AtomicLongArray(slotCount);
+
+    this.syncer = new Thread(this::sync, "uidgen-checkpoint-sync");
+    this.syncer.setDaemon(true);
+    this.syncer.start();
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * @return the tick reserved for the worker id and synced to disk, 0 if none was ever reserved.
+   * Ids may be emitted up to this tick, exclusive.
+   */
+  public long getReservedTick(final long workerId) {
+    return synced.get(slotOf(workerId));
+  }
+
+  /**
+   * Move the reservation of a worker id forward to {@code tick} and sync it to disk, blocking the
+   * calling thread. Ids may be emitted up to the returned tick, exclusive, once this method
+   * returns.
+   *
+   * @return the tick now reserved, greater than {@code tick} if already reserved further
+   */
+  public long reserve(final long workerId, final long tick) {
+    final int slot = slotOf(workerId);
+    advance(slot, tick);
+    force();
+    return synced.get(slot);
+  }
+
+  /**
+   * Request the reservation of a worker id to move forward to {@code tick}, without waiting for
+   * it: the sync thread advances and syncs it, after which {@link #getReservedTick(long)} returns
+   * it.
+   */
+  public void reserveAhead(final long workerId, final long tick) {
+    final int slot = slotOf(workerId);
+    if(requested.get(slot) < tick) {
+      requested.accumulateAndGet(slot, tick, Math::max);
+    }
+    if(!pending.get() && pending.compareAndSet(false, true)) {
+      LockSupport.unpark(syncer);
+    }
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    LockSupport.unpark(syncer);
+  }
+
+  /**
+   * Check the reservation of a worker id when a generator starts. A clock behind the reservation
+   * by no more than two reservation steps and the clock regression tolerance is expected after a
+   * quick restart, and is handled by the generator as ticks borrowed ahead of the clock. A larger
+   * gap means the clock was stepped back: the generator is refused.
+   *
+   * @return the tick reserved for the worker id
+   * @throws IllegalStateException if the clock is too far behind the reservation
+   */
+  long restore(final long workerId, final SnowflakeOptions options) {
+    final SnowflakeLayout layout = options.getLayout();
+    final long reserved = getReservedTick(workerId);
+    final long now = layout.toTick(options.getTickSource().currentTimeMillis());
+    final long behindMillis = (reserved - now) * layout.getTickMillis();
+    if(behindMillis > 2 * options.getCheckpointReserveMillis()
+        + options.getClockRegressionToleranceMillis()) {
+      options.getMetrics().recordClockRegressionFailure();
+      throw new IllegalStateException(String.format(
+          "Clock is %d ms behind the checkpoint of worker id %d in %s",
+          behindMillis, workerId, path));
+    }
+    return reserved;
+  }
+
+  private void sync() {
+    while(running) {
+      if(!pending.getAndSet(false)) {
+        LockSupport.park(this);
+        continue;
+      }
+      for(int slot = 0; slot < slotCount; slot++) {
+        advance(slot, requested.get(slot));
+      }
+      try {
+        force();
+      }
+      catch(RuntimeException e) {
+        // generators reaching their reservation sync it themselves, and fail if that fails too
+        log.warn("Unable to sync checkpoint file {}", path, e);
+      }
+    }
+  }
+
+  /**
+   * Move the slot of a worker id forward to {@code tick}, never backwards.
+   */
+  private void advance(final int slot, final long tick) {
+    final int index = slot * Long.BYTES;
+    long reserved = (long)SLOTS.getVolatile(buffer, index);
+    while(reserved < tick && !SLOTS.compareAndSet(buffer, index, reserved, tick)) {
+      reserved = (long)SLOTS.getVolatile(buffer, index);
+    }
+  }
+
+  /**
+   * Sync the file to disk, then publish the slots it held as synced.
+   */
+  private synchronized void force() {
+    for(int slot = 0; slot < slotCount; slot++) {
+      syncing[slot] = (long)SLOTS.getVolatile(buffer, slot * Long.BYTES);
+    }
+    buffer.force();
+    for(int slot = 0; slot < slotCount; slot++) {
+      if(synced.get(slot) < syncing[slot]) {
+        synced.accumulateAndGet(slot, syncing[slot], Math::max);
+      }
+    }
+  }
+
+  private int slotOf(final long workerId) {
+    if(workerId < 0 || workerId >= slotCount) {
+      throw new IllegalArgumentException(String.format("worker id must be between %d and %d", 0,
+          slotCount - 1));
+    }
+    return (int)workerId;
+  }
+}
@@ -0,0 +1,72 @@
+package com.ap.uidgen.core.services.uuid;
+
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Random bits for the uuid generators, drawn according to a {@link UUIDMode}.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+final class RandomSource
+{
+  // shared by all threads, its synchronized access serializes callers under load
+  private static final SecureRandom SHARED = new SecureRandom();
+
+  private static final ThreadLocal<BlockSecureRandom> STRONG =
+      ThreadLocal.withInitial(BlockSecureRandom::new);
+
+  private RandomSource() {
+  }
+
+  static long nextLong(final UUIDMode mode) {
+    switch(mode) {
+      case FAST:
+        return ThreadLocalRandom.current().nextLong();
+      case STRONG:
+        return STRONG.get().nextLong();
+      default:
+        return SHARED.nextLong();
+    }
+  }
+
+  /**
+   * DRBG SecureRandom owned by a single thread, so its internal lock is never contended. Random
+   * bytes are drawn by blocks to amortize the cost of each DRBG call.
+   */
+  private static class BlockSecureRandom
+  {
+    private static final int BLOCK_SIZE = 1024;
+
+    private final SecureRandom random;
+    private final byte[] bytes = new byte[BLOCK_SIZE];
+    private int position = BLOCK_SIZE;
+
+    private BlockSecureRandom() {
+      try {
+        random = SecureRandom.getInstance("DRBG",
+            DrbgParameters.instantiation(128, DrbgParameters.Capability.NONE, null));
+      }
+      catch(NoSuchAlgorithmException e) {
+        throw new IllegalStateException("DRBG SecureRandom is not available", e);
+      }
+    }
+
+    private long nextLong() {
+      if(position == BLOCK_SIZE) {
+        random.nextBytes(bytes);
+        position = 0;
+      }
+
+      long value = 0;
+      for(int i = position; i < position + 8; i++) {
+        value = (value << 8) | (bytes[i] & 0xFF);
+      }
+      position += 8;
+      return value;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package com.ap.uidgen.core.services.uuid;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import com.ap.uidgen.core.services.UniqueIdGenerator;
+import com.ap.uidgen.core.services.clock.SystemTickSource;
+import com.ap.uidgen.core.services.clock.TickSource;
+import com.ap.uidgen.core.services.encoding.CrockfordBase32;
+
+/**
+ * ULID generator: 48 bits of unix milliseconds followed by 80 random bits, encoded as 26 Crockford
+ * base32 characters that sort in generation order.
+ *
+ * Following the monotonic variant of the specification, the random part is drawn on every new
+ * millisecond then incremented by one for each id of the same millisecond, so ids generated by a
+ * thread are strictly increasing. Should the random part overflow, or the clock move backwards,
+ * the thread carries on with the following millisecond of its own timeline.
+ *
+ * State is kept per thread, making the generator safe to share without any contention.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+@Slf4j
+public class ULIDUniqueIdGenerator implements UniqueIdGenerator
+{
+  private static final long MAX_RANDOM_HIGH = 0xFFFFL;
+
+  private final UUIDMode mode;
+  private final TickSource tickSource;
+
+  private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+  public ULIDUniqueIdGenerator() {
+    this(UUIDMode.STRONG, SystemTickSource.INSTANCE);
+  }
+
+  public ULIDUniqueIdGenerator(
+      @NonNull final UUIDMode mode,
+      @NonNull final TickSource tickSource) {
+    this.mode = mode;
+    this.tickSource = tickSource;
+  }
+
+  @Override
+  public String generateUid(@NonNull final String namespace)
+  {
+    log.debug("generating new uid");
+
+    final State current = state.get();
+    final long now = tickSource.currentTimeMillis();
+    if(now > current.millis) {
+      current.millis = now;
+      current.reseed(mode);
+    }
+    else if(++current.randomLow == 0 && ++current.randomHigh > MAX_RANDOM_HIGH) {
+      current.millis++;
+      current.reseed(mode);
+    }
+
+    final int prefixLength = namespace.length();
+    final char[] chars = new char[prefixLength + 1 + CrockfordBase32.LENGTH_128];
+    namespace.getChars(0, prefixLength, chars, 0);
+    chars[prefixLength] = '-';
+    CrockfordBase32.encode128(
+        (current.millis << 16) | current.randomHigh,
+        current.randomLow,
+        chars,
+        prefixLength + 1);
+    return new String(chars);
+  }
+
+  /**
+   * Millisecond and 80 bits random part of the last id generated by a thread.
+   */
+  private static class State
+  {
+    private long millis = Long.MIN_VALUE;
+    private long randomHigh;
+    private long randomLow;
+
+    private void reseed(final UUIDMode mode) {
+      randomHigh = RandomSource.nextLong(mode) & MAX_RANDOM_HIGH;
+      randomLow = RandomSource.nextLong(mode);
+    }
+  }
+}
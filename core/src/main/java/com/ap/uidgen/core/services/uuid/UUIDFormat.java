@@ -0,0 +1,56 @@
+package com.ap.uidgen.core.services.uuid;
+
+/**
+ * Writes the canonical 36 characters representation of a UUID (8-4-4-4-12 lower case hex digits)
+ * straight into a char array, without going through {@link java.util.UUID#toString()}.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public final class UUIDFormat
+{
+  public static final int LENGTH = 36;
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private UUIDFormat() {
+  }
+
+  /**
+   * @param msb most significant 64 bits of the UUID
+   * @param lsb least significant 64 bits of the UUID
+   * @param dst destination array, with at least {@link #LENGTH} chars available from offset
+   * @param offset index of the first char to write
+   */
+  public static void formatTo(final long msb, final long lsb, final char[] dst, final int offset) {
+    writeHex(msb >>> 32, 8, dst, offset);
+    dst[offset + 8] = '-';
+    writeHex(msb >>> 16, 4, dst, offset + 9);
+    dst[offset + 13] = '-';
+    writeHex(msb, 4, dst, offset + 14);
+    dst[offset + 18] = '-';
+    writeHex(lsb >>> 48, 4, dst, offset + 19);
+    dst[offset + 23] = '-';
+    writeHex(lsb, 12, dst, offset + 24);
+  }
+
+  /**
+   * @return {@code prefix + "-" + uuid} built with a single char array
+   */
+  public static String format(final String prefix, final long msb, final long lsb) {
+    final int prefixLength = prefix.length();
+    final char[] chars = new char[prefixLength + 1 + LENGTH];
+    prefix.getChars(0, prefixLength, chars, 0);
+    chars[prefixLength] = '-';
+    formatTo(msb, lsb, chars, prefixLength + 1);
+    return new String(chars);
+  }
+
+  // write the lowest digits * 4 bits of value
+  private static void writeHex(long value, final int digits, final char[] dst, final int offset) {
+    for(int i = offset + digits - 1; i >= offset; i--) {
+      dst[i] = HEX_DIGITS[(int)value & 0xF];
+      value >>>= 4;
+    }
+  }
+}
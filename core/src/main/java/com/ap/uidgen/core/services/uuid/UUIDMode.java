@@ -0,0 +1,27 @@
+package com.ap.uidgen.core.services.uuid;
+
+/**
+ * Source of the 122 random bits of UUID v4 ids.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public enum UUIDMode
+{
+  /**
+   * {@link java.util.UUID#randomUUID()}: a single SecureRandom shared by all threads, which
+   * serializes callers under load.
+   */
+  SECURE,
+
+  /**
+   * One DRBG SecureRandom per thread: same strength as SECURE without contention.
+   */
+  STRONG,
+
+  /**
+   * {@link java.util.concurrent.ThreadLocalRandom}: fastest, but not cryptographically strong. Ids
+   * are unique in practice, yet predictable by someone observing enough of them.
+   */
+  FAST
+}
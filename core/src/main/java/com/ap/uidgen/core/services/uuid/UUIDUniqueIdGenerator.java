@@ -8,8 +8,13 @@ import lombok.extern.slf4j.Slf4j;
 import com.ap.uidgen.core.services.UniqueIdGenerator;
 
 /**
- * Alternate implementation using regular uuid v4. This will be slower under high load because UUID
- * uses a synchronized access to a random number generator.
+ * Alternate implementation using regular uuid v4. The source of random bits is picked by
+ * {@link UUIDMode}: the default {@link UUIDMode#SECURE} mode will be slower under high load
+ * because UUID uses a synchronized access to a random number generator, while the
+ * {@link UUIDMode#STRONG} and {@link UUIDMode#FAST} modes use a random number generator per thread.
+ *
+ * Ids are written straight into the char array backing the returned string, see
+ * {@link UUIDFormat}.
  *
  * @author aparadis
  * @since x.x.x
@@ -17,11 +22,46 @@ import com.ap.uidgen.core.services.UniqueIdGenerator;
 @Slf4j
 public class UUIDUniqueIdGenerator implements UniqueIdGenerator
 {
+  private static final long VERSION_MASK = 0xFFFFFFFFFFFF0FFFL;
+  private static final long VERSION_4 = 0x0000000000004000L;
+  private static final long VARIANT_MASK = 0x3FFFFFFFFFFFFFFFL;
+  private static final long VARIANT_IETF = 0x8000000000000000L;
+
+  private final UUIDMode mode;
+
+  public UUIDUniqueIdGenerator() {
+    this(UUIDMode.SECURE);
+  }
+
+  public UUIDUniqueIdGenerator(@NonNull final UUIDMode mode) {
+    this.mode = mode;
+  }
+
+  public UUIDMode getMode() {
+    return mode;
+  }
+
   @Override
   public String generateUid(@NonNull final String namespace)
   {
-    log.info("generating new uid");
+    log.debug("generating new uid");
+
+    final long msb;
+    final long lsb;
+    switch(mode) {
+      case FAST:
+      case STRONG:
+        msb = RandomSource.nextLong(mode);
+        lsb = RandomSource.nextLong(mode);
+        break;
+      default:
+        final UUID uuid = UUID.randomUUID();
+        msb = uuid.getMostSignificantBits();
+        lsb = uuid.getLeastSignificantBits();
+    }
 
-    return namespace + "-" + UUID.randomUUID().toString();
+    return UUIDFormat.format(namespace,
+        (msb & VERSION_MASK) | VERSION_4,
+        (lsb & VARIANT_MASK) | VARIANT_IETF);
   }
 }
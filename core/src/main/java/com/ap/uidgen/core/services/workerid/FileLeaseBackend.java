@@ -0,0 +1,120 @@
+package com.ap.uidgen.core.services.workerid;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import lombok.NonNull;
+
+/**
+ * Lease backend storing leases in a file shared by all nodes, e.g. on a network file system.
+ * Transactions hold an exclusive lock on the file while they read, modify and write back the
+ * leases, one per line:
+ *
+ * <pre>
+ * &lt;worker id&gt; &lt;owner&gt; &lt;expiration in epoch milliseconds&gt;
+ * </pre>
+ *
+ * File locks are held on behalf of the whole process, so transactions of the same process on the
+ * same file are serialized by an in process lock as well. It is a {@link ReentrantLock} rather than
+ * a monitor: the file I/O done while holding it must not pin the carrier of a virtual thread.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class FileLeaseBackend implements LeaseBackend
+{
+  // in process locks, by file
+  private static final ConcurrentMap<Path, ReentrantLock> PROCESS_LOCKS =
+      new ConcurrentHashMap<>();
+
+  private final Path path;
+  private final ReentrantLock processLock;
+
+  public FileLeaseBackend(@NonNull final Path path) {
+    this.path = path.toAbsolutePath().normalize();
+    this.processLock = PROCESS_LOCKS.computeIfAbsent(this.path, p -> new ReentrantLock());
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  @Override
+  public <T> T update(final Function<Map<Integer, Lease>, T> transaction) {
+    processLock.lock();
+    try {
+      try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+          StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        final FileLock lock = channel.lock();
+        try {
+          final String content = read(channel);
+          final Map<Integer, Lease> leases = parse(content);
+          final T result = transaction.apply(leases);
+
+          final String updated = format(leases);
+          if(!updated.equals(content)) {
+            channel.truncate(0);
+            final ByteBuffer bytes = ByteBuffer.wrap(updated.getBytes(StandardCharsets.US_ASCII));
+            while(bytes.hasRemaining()) {
+              channel.write(bytes, bytes.position());
+            }
+            channel.force(false);
+          }
+          return result;
+        }
+        finally {
+          lock.release();
+        }
+      }
+      catch(IOException e) {
+        throw new UncheckedIOException("Unable to update worker id leases in " + path, e);
+      }
+    }
+    finally {
+      processLock.unlock();
+    }
+  }
+
+  private static String read(final FileChannel channel) throws IOException {
+    final ByteBuffer bytes = ByteBuffer.allocate((int)channel.size());
+    while(bytes.hasRemaining() && channel.read(bytes, bytes.position()) >= 0) {
+      // read until the buffer is full
+    }
+    return new String(bytes.array(), 0, bytes.position(), StandardCharsets.US_ASCII);
+  }
+
+  private static Map<Integer, Lease> parse(final String content) {
+    final Map<Integer, Lease> leases = new HashMap<>();
+    for(String line : content.split("\n")) {
+      final String[] fields = line.trim().split(" ");
+      if(fields.length != 3) {
+        continue;
+      }
+      leases.put(Integer.parseInt(fields[0]), new Lease(fields[1], Long.parseLong(fields[2])));
+    }
+    return leases;
+  }
+
+  private static String format(final Map<Integer, Lease> leases) {
+    final StringBuilder content = new StringBuilder();
+    leases.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey())
+        .forEach(entry -> content
+            .append(entry.getKey()).append(' ')
+            .append(entry.getValue().getOwner()).append(' ')
+            .append(entry.getValue().getExpiresAtMillis()).append('\n'));
+    return content.toString();
+  }
+}
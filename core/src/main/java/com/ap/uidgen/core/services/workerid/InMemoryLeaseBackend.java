@@ -0,0 +1,30 @@
+package com.ap.uidgen.core.services.workerid;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Lease backend holding leases in memory, standing in for a shared backend when all stores live
+ * in the same process, e.g. in tests.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class InMemoryLeaseBackend implements LeaseBackend
+{
+  private final Map<Integer, Lease> leases = new HashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+
+  @Override
+  public <T> T update(final Function<Map<Integer, Lease>, T> transaction) {
+    lock.lock();
+    try {
+      return transaction.apply(leases);
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+}
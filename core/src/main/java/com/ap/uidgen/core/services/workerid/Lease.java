@@ -0,0 +1,24 @@
+package com.ap.uidgen.core.services.workerid;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Lease of a worker id by an owner, valid until it expires unless renewed.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+@Value
+public class Lease
+{
+  @NonNull
+  String owner;
+
+  // time after which the worker id may be claimed by another owner, in epoch milliseconds
+  long expiresAtMillis;
+
+  public boolean isExpired(final long nowMillis) {
+    return expiresAtMillis < nowMillis;
+  }
+}
@@ -0,0 +1,23 @@
+package com.ap.uidgen.core.services.workerid;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Storage of worker id leases shared by all nodes of a deployment, see {@link LeasedWorkerIdStore}.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public interface LeaseBackend
+{
+  /**
+   * Run a transaction over the lease table: no other transaction, from this process or another
+   * node, runs concurrently. Changes made by the transaction to the table are persisted before this
+   * method returns.
+   *
+   * @param transaction reads and modifies the leases, by worker id
+   * @return the result of the transaction
+   */
+  <T> T update(Function<Map<Integer, Lease>, T> transaction);
+}
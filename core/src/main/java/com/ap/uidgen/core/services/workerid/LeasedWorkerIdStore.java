@@ -0,0 +1,243 @@
+package com.ap.uidgen.core.services.workerid;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import com.ap.uidgen.core.services.WorkerIdStore;
+import com.ap.uidgen.core.services.clock.TickSource;
+
+/**
+ * Worker id store handing out leases on worker ids recorded in a {@link LeaseBackend} shared by all
+ * nodes, so that nodes started with the same configuration never use the same worker id.
+ *
+ * A worker id is claimed in a single transaction, picking the lowest id in range which is either
+ * free or whose lease expired. Leases held by this store are renewed by a background heartbeat
+ * well before their time to live elapses, and handed back as soon as they are released. The
+ * worker ids of a node that died without releasing them become available again once their lease
+ * expires, after at most the time to live.
+ *
+ * A lease found taken over by another owner on renewal can't be recovered: this happens when the
+ * heartbeat stalled for longer than the time to live, and is logged as an error. Such worker ids,
+ * along with all those held once renewals failed for longer than the time to live, are reported
+ * by {@link #getLostWorkerIds()} until released, and generators checking
+ * {@link #getLeaseValidity(int)} refuse to generate ids with them.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+@Slf4j
+public class LeasedWorkerIdStore implements WorkerIdStore, AutoCloseable
+{
+  public static final long DEFAULT_TTL_MILLIS = 30000L;
+  public static final long DEFAULT_HEARTBEAT_MILLIS = 10000L;
+
+  private final LeaseBackend backend;
+  private final int minWorkerId;
+  private final int maxWorkerId;
+  private final long ttlMillis;
+  private final TickSource tickSource;
+
+  // unique per store instance, a restarted node never resumes leases of its previous run
+  private final String owner;
+
+  // worker ids leased by this store
+  private final Set<Integer> leased = ConcurrentHashMap.newKeySet();
+
+  // worker ids taken over by another owner, until released
+  private final Set<Integer> lost = ConcurrentHashMap.newKeySet();
+
+  // expiration of the oldest lease held, as of the last successful renewal
+  private volatile long leasedUntil;
+
+  private final ScheduledExecutorService heartbeat;
+
+  /**
+   * @param backend storage of the leases, shared by all nodes
+   * @param minWorkerId lowest worker id handed out
+   * @param maxWorkerId highest worker id handed out
+   * @param ttlMillis time to live of leases
+   * @param heartbeatMillis interval between lease renewals, lower than the time to live. 0
+   * disables the background heartbeat, leases must then be renewed with {@link #renewLeases()}
+   * @param tickSource source of time of lease expirations, consistent across nodes
+   */
+  public LeasedWorkerIdStore(
+      @NonNull final LeaseBackend backend,
+      final int minWorkerId,
+      final int maxWorkerId,
+      final long ttlMillis,
+      final long heartbeatMillis,
+      @NonNull final TickSource tickSource) {
+    if(minWorkerId < 0 || maxWorkerId < minWorkerId) {
+      throw new IllegalArgumentException(String.format("invalid worker id range [%d, %d]",
+          minWorkerId, maxWorkerId));
+    }
+    if(heartbeatMillis < 0 || heartbeatMillis >= ttlMillis) {
+      throw new IllegalArgumentException("heartbeat interval must be lower than the time to live");
+    }
+
+    this.backend = backend;
+    this.minWorkerId = minWorkerId;
+    this.maxWorkerId = maxWorkerId;
+    this.ttlMillis = ttlMillis;
+    this.tickSource = tickSource;
+    this.owner = UUID.randomUUID().toString();
+
+    if(heartbeatMillis > 0) {
+      this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "uidgen-worker-id-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+      });
+      this.heartbeat.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis,
+          TimeUnit.MILLISECONDS);
+    }
+    else {
+      this.heartbeat = null;
+    }
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+
+  @Override
+  public Optional<Integer> getAvailableWorkerId() {
+    final Optional<Integer> workerId = backend.update(leases -> {
+      final long now = tickSource.currentTimeMillis();
+      for(int id = minWorkerId; id <= maxWorkerId; id++) {
+        final Lease lease = leases.get(id);
+        if(lease == null || lease.isExpired(now)) {
+          leases.put(id, new Lease(owner, now + ttlMillis));
+          return Optional.of(id);
+        }
+      }
+      return Optional.<Integer>empty();
+    });
+
+    if(workerId.isPresent()) {
+      if(leased.isEmpty()) {
+        leasedUntil = tickSource.currentTimeMillis() + ttlMillis;
+      }
+      leased.add(workerId.get());
+      log.info("Leased worker id {}", workerId.get());
+    }
+    else {
+      log.error("No worker id available in range [{}, {}]", minWorkerId, maxWorkerId);
+    }
+    return workerId;
+  }
+
+  @Override
+  public void releaseWorkerId(final int workerId) {
+    lost.remove(workerId);
+    if(!leased.remove(workerId)) {
+      return;
+    }
+
+    backend.update(leases -> {
+      final Lease lease = leases.get(workerId);
+      if(lease != null && lease.getOwner().equals(owner)) {
+        leases.remove(workerId);
+      }
+      return null;
+    });
+    log.info("Released worker id {}", workerId);
+  }
+
+  /**
+   * Extend the leases of all worker ids held by this store in a single transaction.
+   *
+   * @return number of leases lost to another owner
+   */
+  public int renewLeases() {
+    if(leased.isEmpty()) {
+      return 0;
+    }
+
+    final long expiresAt = tickSource.currentTimeMillis() + ttlMillis;
+    final int takenOver = backend.update(leases -> {
+      int count = 0;
+      for(Integer workerId : leased) {
+        final Lease lease = leases.get(workerId);
+        if(lease != null && !lease.getOwner().equals(owner)) {
+          log.error("Lease of worker id {} was taken over by {}", workerId, lease.getOwner());
+          leased.remove(workerId);
+          lost.add(workerId);
+          count++;
+          continue;
+        }
+        leases.put(workerId, new Lease(owner, expiresAt));
+      }
+      return count;
+    });
+    leasedUntil = expiresAt;
+    return takenOver;
+  }
+
+  /**
+   * @return worker ids currently leased by this store
+   */
+  public Set<Integer> getLeasedWorkerIds() {
+    return Set.copyOf(leased);
+  }
+
+  @Override
+  public int getWorkerIdsInUse() {
+    return leased.size();
+  }
+
+  /**
+   * @return worker ids taken over by another owner, along with all worker ids held once their
+   * leases expired without being renewed
+   */
+  @Override
+  public Set<Integer> getLostWorkerIds() {
+    final Set<Integer> lostWorkerIds = new HashSet<>(lost);
+    if(!leased.isEmpty() && tickSource.currentTimeMillis() >= leasedUntil) {
+      lostWorkerIds.addAll(leased);
+    }
+    return lostWorkerIds;
+  }
+
+  /**
+   * @return whether the worker id is still leased by this store, and its lease renewed within its
+   * time to live. Safe to call from any thread, without locking or allocating.
+   */
+  @Override
+  public BooleanSupplier getLeaseValidity(final int workerId) {
+    final Integer id = workerId;
+    return () -> leased.contains(id) && tickSource.currentTimeMillis() < leasedUntil;
+  }
+
+  /**
+   * Stop renewing leases and release all worker ids still held.
+   */
+  @Override
+  public void close() {
+    if(heartbeat != null) {
+      heartbeat.shutdownNow();
+    }
+    for(Integer workerId : getLeasedWorkerIds()) {
+      releaseWorkerId(workerId);
+    }
+  }
+
+  private void heartbeat() {
+    try {
+      renewLeases();
+    }
+    catch(RuntimeException e) {
+      log.warn("Unable to renew worker id leases", e);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.ap.uidgen.core.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.ap.uidgen.core.services.clock.TickSource;
+import com.ap.uidgen.core.services.snowflake.ConcurrentSnowflakeUid;
+import com.ap.uidgen.core.services.snowflake.SnowflakeLayout;
+import com.ap.uidgen.core.services.snowflake.SnowflakeOptions;
+import com.ap.uidgen.core.services.snowflake.SnowflakeUid;
+
+/**
+ * Clock regression handling of snowflake generators, driven by a scripted tick source.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class ClockRegressionTest
+{
+  // epoch 0 so that ticks are the milliseconds returned by the tick source
+  private static final SnowflakeLayout LAYOUT = new SnowflakeLayout(10, 1, 0, 1);
+
+  @Test
+  public void smallRegressionShouldBeWaitedOut() {
+    smallRegressionShouldBeWaitedOut(options -> new SnowflakeUid(1, options));
+    smallRegressionShouldBeWaitedOut(options -> new ConcurrentSnowflakeUid(1, options));
+  }
+
+  @Test
+  public void regressionWithinToleranceShouldBorrowLogicalTime() {
+    regressionWithinToleranceShouldBorrowLogicalTime(options -> new SnowflakeUid(1, options));
+    regressionWithinToleranceShouldBorrowLogicalTime(
+        options -> new ConcurrentSnowflakeUid(1, options));
+  }
+
+  @Test
+  public void regressionPastToleranceShouldFail() {
+    regressionPastToleranceShouldFail(options -> new SnowflakeUid(1, options));
+    regressionPastToleranceShouldFail(options -> new ConcurrentSnowflakeUid(1, options));
+  }
+
+  private void smallRegressionShouldBeWaitedOut(Function<SnowflakeOptions, LongIdGenerator> factory) {
+    final var clock = new ScriptedTickSource(1000, 995, 995, 997, 1000, 1001);
+    final var options = options(clock);
+    final var generator = factory.apply(options);
+
+    final long first = generator.nextId();
+    final long second = generator.nextId();
+    assertTrue(Long.compareUnsigned(first, second) < 0);
+    assertEquals(1000, LAYOUT.tickOf(second));
+    assertEquals(1, options.getMetrics().getClockRegressionWaits());
+  }
+
+  private void regressionWithinToleranceShouldBorrowLogicalTime(
+      Function<SnowflakeOptions, LongIdGenerator> factory) {
+    final var clock = new ScriptedTickSource(1000, 500, 500);
+    final var options = options(clock);
+    final var generator = factory.apply(options);
+
+    final long first = generator.nextId();
+    final long second = generator.nextId();
+    assertTrue(Long.compareUnsigned(first, second) < 0);
+    assertEquals(1000, LAYOUT.tickOf(second));
+    assertEquals(1, options.getMetrics().getClockRegressionBorrows());
+
+    // running on borrowed ticks, ahead of the clock
+    assertEquals(500, generator.getLeadMillis());
+
+    // sequence is exhausted (1 bit), ids can't be emitted until the clock catches up
+    assertThrows(IllegalStateException.class, generator::nextId);
+    assertEquals(1, options.getMetrics().getClockRegressionFailures());
+  }
+
+  private void regressionPastToleranceShouldFail(
+      Function<SnowflakeOptions, LongIdGenerator> factory) {
+    final var clock = new ScriptedTickSource(5000, 10, 5001);
+    final var options = options(clock);
+    final var generator = factory.apply(options);
+
+    final long first = generator.nextId();
+    assertThrows(IllegalStateException.class, generator::nextId);
+    assertEquals(1, options.getMetrics().getClockRegressionFailures());
+
+    final long next = generator.nextId();
+    assertTrue(Long.compareUnsigned(first, next) < 0);
+  }
+
+  private static SnowflakeOptions options(TickSource clock) {
+    return SnowflakeOptions.builder()
+        .layout(LAYOUT)
+        .clockRegressionWaitMillis(10)
+        .clockRegressionToleranceMillis(1000)
+        .tickSource(clock)
+        .build();
+  }
+
+  /**
+   * Returns the scripted readings in order, then keeps returning the last one.
+   */
+  private static class ScriptedTickSource implements TickSource
+  {
+    private final long[] readings;
+    private int index;
+
+    private ScriptedTickSource(long... readings) {
+      this.readings = readings;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+      return readings[Math.min(index++, readings.length - 1)];
+    }
+  }
+}
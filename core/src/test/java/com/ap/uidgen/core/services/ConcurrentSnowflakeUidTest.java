@@ -0,0 +1,64 @@
+package com.ap.uidgen.core.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.ap.uidgen.core.services.snowflake.ConcurrentSnowflakeUid;
+
+/**
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class ConcurrentSnowflakeUidTest
+{
+  private static final int THREADS = 8;
+  private static final int IDS_PER_THREAD = 20000;
+
+  @Test
+  public void testConcurrentIdsAreUnique() throws Exception {
+    final var snowflake = new ConcurrentSnowflakeUid(100);
+    final Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    final List<Future<?>> tasks = new ArrayList<>();
+    for(int t = 0; t < THREADS; t++) {
+      final boolean batch = t % 2 == 0;
+      tasks.add(executor.submit(() -> {
+        if(batch) {
+          final long[] range = new long[IDS_PER_THREAD];
+          snowflake.nextIds(range, 0, IDS_PER_THREAD);
+          for(long id : range) {
+            ids.add(id);
+          }
+        }
+        else {
+          for(int i = 0; i < IDS_PER_THREAD; i++) {
+            ids.add(snowflake.nextId());
+          }
+        }
+      }));
+    }
+    for(Future<?> task : tasks) {
+      task.get(30, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+  }
+
+  @Test
+  public void concurrentSnowflakeShouldRejectInvalidWorkerNode() {
+    assertThrows(IllegalArgumentException.class, () -> new ConcurrentSnowflakeUid(1024));
+    assertThrows(IllegalArgumentException.class, () -> new ConcurrentSnowflakeUid(-1));
+  }
+}
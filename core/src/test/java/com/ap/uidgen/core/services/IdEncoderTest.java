@@ -0,0 +1,103 @@
+package com.ap.uidgen.core.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+import com.ap.uidgen.core.services.encoding.IdEncoder;
+import com.ap.uidgen.core.services.encoding.IdFormat;
+
+/**
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class IdEncoderTest
+{
+  private static final long[] EDGE_VALUES = {
+      0L, 1L, 9L, 10L, 61L, 62L, 999_999_999_999_999_999L, 1_000_000_000_000_000_000L,
+      Long.MAX_VALUE, Long.MIN_VALUE, -10L, -1L
+  };
+
+  @Test
+  public void decimalShouldMatchUnsignedString() {
+    final IdEncoder encoder = IdFormat.DEC.getEncoder();
+    for(long id : EDGE_VALUES) {
+      assertEquals(Long.toUnsignedString(id), encoder.encode(id));
+    }
+    for(int i = 0; i < 10000; i++) {
+      final long id = ThreadLocalRandom.current().nextLong();
+      assertEquals(Long.toUnsignedString(id), encoder.encode(id));
+    }
+  }
+
+  @Test
+  public void hexShouldBeZeroPadded() {
+    final IdEncoder encoder = IdFormat.HEX.getEncoder();
+    for(long id : EDGE_VALUES) {
+      assertEquals(String.format("%016x", id), encoder.encode(id));
+    }
+  }
+
+  @Test
+  public void encodingsShouldBeFixedWidthAndBounded() {
+    assertEquals("0000000000000", IdFormat.B32.getEncoder().encode(0L));
+    assertEquals("FZZZZZZZZZZZZ", IdFormat.B32.getEncoder().encode(-1L));
+    assertEquals("00000000000", IdFormat.B62.getEncoder().encode(0L));
+    assertEquals("0000000000z", IdFormat.B62.getEncoder().encode(61L));
+    assertEquals("LygHa16AHYF", IdFormat.B62.getEncoder().encode(-1L));
+  }
+
+  @Test
+  public void fixedWidthEncodingsShouldPreserveOrder() {
+    final long[] ids = new long[10000];
+    for(int i = 0; i < ids.length; i++) {
+      ids[i] = ThreadLocalRandom.current().nextLong();
+    }
+    System.arraycopy(EDGE_VALUES, 0, ids, 0, EDGE_VALUES.length);
+    final long[] sorted = Arrays.stream(ids)
+        .boxed()
+        .sorted(Long::compareUnsigned)
+        .mapToLong(Long::longValue)
+        .toArray();
+
+    for(IdFormat format : new IdFormat[] { IdFormat.HEX, IdFormat.B32, IdFormat.B62 }) {
+      final IdEncoder encoder = format.getEncoder();
+      for(int i = 1; i < sorted.length; i++) {
+        final String previous = encoder.encode(sorted[i - 1]);
+        final String current = encoder.encode(sorted[i]);
+        assertEquals(encoder.maxLength(), current.length());
+        assertTrue(previous.compareTo(current) <= 0, format + ": " + previous + " > " + current);
+      }
+    }
+  }
+
+  @Test
+  public void encodersShouldWriteAtBufferPosition() {
+    for(IdFormat format : IdFormat.values()) {
+      final IdEncoder encoder = format.getEncoder();
+      for(ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(64),
+          ByteBuffer.allocateDirect(64) }) {
+        buffer.put((byte)'x');
+        final int length = encoder.encode(-1L, buffer);
+        assertEquals(1 + length, buffer.position());
+
+        final byte[] bytes = new byte[length];
+        buffer.flip().position(1);
+        buffer.get(bytes);
+        assertEquals(encoder.encode(-1L), new String(bytes, StandardCharsets.ISO_8859_1));
+      }
+    }
+  }
+
+  @Test
+  public void formatsShouldBeFoundByName() {
+    assertEquals(IdFormat.B62, IdFormat.fromName("b62").get());
+    assertFalse(IdFormat.fromName("b64").isPresent());
+    assertFalse(IdFormat.fromName(null).isPresent());
+  }
+}
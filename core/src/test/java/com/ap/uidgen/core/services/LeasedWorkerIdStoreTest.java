@@ -0,0 +1,161 @@
+package com.ap.uidgen.core.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.ap.uidgen.core.services.snowflake.SnowflakeUid;
+import com.ap.uidgen.core.services.snowflake.SnowflakeUniqueIdGenerator;
+import com.ap.uidgen.core.services.snowflake.StripedSnowflakeUid;
+import com.ap.uidgen.core.services.workerid.FileLeaseBackend;
+import com.ap.uidgen.core.services.workerid.InMemoryLeaseBackend;
+import com.ap.uidgen.core.services.workerid.LeaseBackend;
+import com.ap.uidgen.core.services.workerid.LeasedWorkerIdStore;
+
+/**
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class LeasedWorkerIdStoreTest
+{
+  private static final long TTL_MILLIS = 1000L;
+
+  // only moves when a test says so, making lease expiration deterministic
+  private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+
+  private LeasedWorkerIdStore store(LeaseBackend backend, int minWorkerId, int maxWorkerId) {
+    // leases are renewed explicitly
+    return new LeasedWorkerIdStore(backend, minWorkerId, maxWorkerId, TTL_MILLIS, 0, clock::get);
+  }
+
+  @Test
+  public void nodesShouldLeaseDistinctWorkerIds() {
+    final LeaseBackend backend = new InMemoryLeaseBackend();
+    final LeasedWorkerIdStore node1 = store(backend, 0, 3);
+    final LeasedWorkerIdStore node2 = store(backend, 0, 3);
+
+    final Set<Integer> workerIds = new HashSet<>();
+    workerIds.add(node1.getAvailableWorkerId().get());
+    workerIds.add(node2.getAvailableWorkerId().get());
+    workerIds.add(node1.getAvailableWorkerId().get());
+    workerIds.add(node2.getAvailableWorkerId().get());
+    assertEquals(Set.of(0, 1, 2, 3), workerIds);
+
+    assertEquals(Optional.empty(), node1.getAvailableWorkerId());
+  }
+
+  @Test
+  public void releasedWorkerIdShouldBeAvailableAgain() {
+    final LeaseBackend backend = new InMemoryLeaseBackend();
+    final LeasedWorkerIdStore node1 = store(backend, 5, 5);
+    final LeasedWorkerIdStore node2 = store(backend, 5, 5);
+
+    assertEquals(Optional.of(5), node1.getAvailableWorkerId());
+    assertEquals(Optional.empty(), node2.getAvailableWorkerId());
+
+    // releasing an id held by another node has no effect
+    node2.releaseWorkerId(5);
+    assertEquals(Optional.empty(), node2.getAvailableWorkerId());
+
+    node1.releaseWorkerId(5);
+    assertEquals(Optional.of(5), node2.getAvailableWorkerId());
+  }
+
+  @Test
+  public void expiredLeasesShouldBeReclaimed() {
+    final LeaseBackend backend = new InMemoryLeaseBackend();
+    final LeasedWorkerIdStore node1 = store(backend, 0, 0);
+    final LeasedWorkerIdStore node2 = store(backend, 0, 0);
+    assertEquals(Optional.of(0), node1.getAvailableWorkerId());
+
+    // renewed leases outlive their initial time to live
+    clock.addAndGet(TTL_MILLIS - 1);
+    assertEquals(0, node1.renewLeases());
+    clock.addAndGet(TTL_MILLIS - 1);
+    assertEquals(Optional.empty(), node2.getAvailableWorkerId());
+    assertTrue(node1.getLostWorkerIds().isEmpty());
+
+    // node1 stops heartbeating, its lease expires
+    clock.addAndGet(TTL_MILLIS + 1);
+    assertEquals(Set.of(0), node1.getLostWorkerIds());
+    assertEquals(Optional.of(0), node2.getAvailableWorkerId());
+
+    // and is found lost on the next renewal
+    assertEquals(1, node1.renewLeases());
+    assertTrue(node1.getLeasedWorkerIds().isEmpty());
+    assertEquals(Set.of(0), node1.getLostWorkerIds());
+    assertEquals(Set.of(0), node2.getLeasedWorkerIds());
+    assertTrue(node2.getLostWorkerIds().isEmpty());
+
+    // until its generator is closed
+    node1.releaseWorkerId(0);
+    assertTrue(node1.getLostWorkerIds().isEmpty());
+  }
+
+  @Test
+  public void lostLeaseShouldStopIdGeneration() {
+    final LeaseBackend backend = new InMemoryLeaseBackend();
+    final LeasedWorkerIdStore node1 = store(backend, 0, 0);
+    final LeasedWorkerIdStore node2 = store(backend, 0, 0);
+    final int workerId = node1.getAvailableWorkerId().get();
+    final var generator = new SnowflakeUniqueIdGenerator(
+        new SnowflakeUid(workerId), node1.getLeaseValidity(workerId), () -> {});
+    generator.generateLongId("test");
+
+    // expired without renewal: refused even before another node takes the worker id over
+    clock.addAndGet(TTL_MILLIS);
+    assertThrows(IllegalStateException.class, () -> generator.generateLongId("test"));
+    assertThrows(IllegalStateException.class,
+        () -> generator.generateLongIds("test", new long[10], 0, 10));
+
+    // taken over, renewing doesn't bring it back
+    clock.addAndGet(1);
+    assertEquals(Optional.of(0), node2.getAvailableWorkerId());
+    assertEquals(1, node1.renewLeases());
+    assertThrows(IllegalStateException.class, () -> generator.generateLongId("test"));
+  }
+
+  @Test
+  public void lostLeaseShouldStopStripe() {
+    final LeaseBackend backend = new InMemoryLeaseBackend();
+    final LeasedWorkerIdStore node1 = store(backend, 0, 0);
+    final LeasedWorkerIdStore node2 = store(backend, 0, 0);
+    final StripedSnowflakeUid snowflake = new StripedSnowflakeUid(node1, 1);
+    snowflake.nextId();
+
+    clock.addAndGet(TTL_MILLIS + 1);
+    assertEquals(Optional.of(0), node2.getAvailableWorkerId());
+    assertThrows(IllegalStateException.class, snowflake::nextId);
+  }
+
+  @Test
+  public void fileBackendShouldBeSharedAndPersistent() throws Exception {
+    final Path file = Files.createTempFile("worker-ids", ".leases");
+    try {
+      final LeasedWorkerIdStore node1 = store(new FileLeaseBackend(file), 0, 1023);
+      final LeasedWorkerIdStore node2 = store(new FileLeaseBackend(file), 0, 1023);
+      assertEquals(Optional.of(0), node1.getAvailableWorkerId());
+      assertEquals(Optional.of(1), node2.getAvailableWorkerId());
+      assertEquals(Optional.of(2), node1.getAvailableWorkerId());
+
+      // a restarted node doesn't reuse live leases
+      final LeasedWorkerIdStore restarted = store(new FileLeaseBackend(file), 0, 1023);
+      assertEquals(Optional.of(3), restarted.getAvailableWorkerId());
+
+      node1.close();
+      assertEquals(Optional.of(0), restarted.getAvailableWorkerId());
+      assertEquals(Optional.of(2), restarted.getAvailableWorkerId());
+      assertEquals(4, Files.readAllLines(file).size());
+    }
+    finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
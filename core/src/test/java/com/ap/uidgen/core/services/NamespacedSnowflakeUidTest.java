@@ -0,0 +1,90 @@
+package com.ap.uidgen.core.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.ap.uidgen.core.services.snowflake.NamespacedSnowflakeUid;
+import com.ap.uidgen.core.services.snowflake.SequenceExhaustedException;
+import com.ap.uidgen.core.services.snowflake.SequenceOverflowStrategy;
+import com.ap.uidgen.core.services.snowflake.SnowflakeOptions;
+
+/**
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class NamespacedSnowflakeUidTest
+{
+  // only moves when a test says so, making sequence exhaustion deterministic
+  private final AtomicLong frozenClock = new AtomicLong(System.currentTimeMillis());
+
+  private final SnowflakeOptions options = SnowflakeOptions.builder()
+      .sequenceOverflowStrategy(SequenceOverflowStrategy.DEFER)
+      .tickSource(frozenClock::get)
+      .build();
+
+  @Test
+  public void namespacesShouldHaveIndependentSequences() {
+    final var snowflake = new NamespacedSnowflakeUid(1, options, 16);
+    final int idsPerTick = (int)options.getLayout().getMaxSequence() + 1;
+
+    final long[] hot = new long[idsPerTick];
+    snowflake.nextIds("hot", hot, 0, hot.length);
+    assertThrows(SequenceExhaustedException.class, () -> snowflake.nextId("hot"));
+
+    // same tick, other namespace: starts its own sequence
+    assertEquals(hot[0], snowflake.nextId("cold"));
+    assertEquals(hot[1], snowflake.nextId("cold"));
+    assertEquals(2, snowflake.getNamespaceCount());
+
+    frozenClock.incrementAndGet();
+    assertTrue(Long.compareUnsigned(hot[hot.length - 1], snowflake.nextId("hot")) < 0);
+  }
+
+  @Test
+  public void namespaceCountShouldBeBounded() {
+    final var snowflake = new NamespacedSnowflakeUid(1, options, 64);
+    for(int i = 0; i < 10000; i++) {
+      // namespaces evicted on the current tick push newcomers to the next one
+      frozenClock.incrementAndGet();
+      snowflake.nextId("ns" + i);
+    }
+    assertEquals(64, snowflake.getNamespaceCount());
+    assertEquals(10000 - 64, snowflake.getEvictions());
+  }
+
+  @Test
+  public void evictedNamespacesShouldNeverReissueIds() {
+    final var snowflake = new NamespacedSnowflakeUid(1, options, 16);
+    final Map<String, Long> lastIds = new HashMap<>();
+    final Random random = new Random(42);
+
+    for(int i = 0; i < 200000; i++) {
+      final String namespace = "ns" + random.nextInt(100);
+      final long id;
+      try {
+        id = snowflake.nextId(namespace);
+      }
+      catch(SequenceExhaustedException e) {
+        frozenClock.addAndGet(e.getRetryAfterMillis());
+        continue;
+      }
+
+      // ids of a namespace only move forward, whether it was evicted in between or not
+      final Long previous = lastIds.put(namespace, id);
+      if(previous != null) {
+        assertTrue(Long.compareUnsigned(previous, id) < 0);
+      }
+      if(i % 1000 == 0) {
+        frozenClock.incrementAndGet();
+      }
+    }
+    assertTrue(snowflake.getEvictions() > 0);
+    assertEquals(16, snowflake.getNamespaceCount());
+  }
+}
@@ -0,0 +1,104 @@
+package com.ap.uidgen.core.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.ap.uidgen.core.services.snowflake.RingBufferSnowflakeUid;
+import com.ap.uidgen.core.services.snowflake.SnowflakeLayout;
+import com.ap.uidgen.core.services.snowflake.SnowflakeOptions;
+
+/**
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class RingBufferSnowflakeUidTest
+{
+  @Test
+  public void ringBufferIdsAreUnique() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try(var snowflake = new RingBufferSnowflakeUid(1, SnowflakeOptions.defaults(), 1024, 256,
+        1000)) {
+      final Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+      final List<Future<?>> tasks = new ArrayList<>();
+      for(int t = 0; t < 4; t++) {
+        final boolean batch = t % 2 == 0;
+        tasks.add(executor.submit(() -> {
+          final long[] buffer = new long[100];
+          for(int i = 0; i < 200; i++) {
+            if(batch) {
+              snowflake.nextIds(buffer, 0, buffer.length);
+              for(long id : buffer) {
+                ids.add(id);
+              }
+            }
+            else {
+              for(int j = 0; j < buffer.length; j++) {
+                ids.add(snowflake.nextId());
+              }
+            }
+          }
+        }));
+      }
+      for(Future<?> task : tasks) {
+        task.get();
+      }
+
+      assertEquals(4 * 200 * 100, ids.size());
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void ringBufferShouldBeRefilledBelowLowWaterMark() throws InterruptedException {
+    try(var snowflake = new RingBufferSnowflakeUid(1, SnowflakeOptions.defaults(), 64, 16, 1000)) {
+      awaitFull(snowflake);
+
+      // take ids till the low water mark is crossed
+      for(int i = 0; i < 64 - 16; i++) {
+        snowflake.nextId();
+      }
+      awaitFull(snowflake);
+      assertEquals(0, snowflake.getEmptyPolls());
+    }
+  }
+
+  @Test
+  public void staleIdsShouldNotBeHandedOut() throws InterruptedException {
+    final SnowflakeLayout layout = new SnowflakeLayout(10, 12, 0, 1);
+    final AtomicLong clock = new AtomicLong(1000);
+    final SnowflakeOptions options = SnowflakeOptions.builder()
+        .layout(layout)
+        .tickSource(clock::get)
+        .build();
+
+    try(var snowflake = new RingBufferSnowflakeUid(1, options, 64, 16, 100)) {
+      awaitFull(snowflake);
+
+      clock.set(2000);
+      final long id = snowflake.nextId();
+      assertTrue(layout.tickOf(id) >= 1900);
+      assertTrue(snowflake.getStaleDiscards() > 0);
+    }
+  }
+
+  private static void awaitFull(RingBufferSnowflakeUid snowflake) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + 5000;
+    while(snowflake.getSize() < snowflake.getCapacity()) {
+      assertTrue(System.currentTimeMillis() < deadline, "ring buffer was not refilled");
+      Thread.sleep(1);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.ap.uidgen.core.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.ap.uidgen.core.services.snowflake.SnowflakeLayout;
+import com.ap.uidgen.core.services.snowflake.SnowflakeUid;
+
+/**
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class SnowflakeLayoutTest
+{
+  @Test
+  public void defaultLayoutShouldMatchOriginalLayout() {
+    final var layout = SnowflakeLayout.DEFAULT;
+    assertEquals(42, layout.getTimestampBits());
+    assertEquals(1023, layout.getMaxWorkerId());
+    assertEquals(4095, layout.getMaxSequence());
+
+    final long id = layout.compose(123456L, 100, 42);
+    assertEquals((123456L << 22) | (100L << 12) | 42L, id);
+    assertEquals(123456L, layout.tickOf(id));
+    assertEquals(100L, layout.workerIdOf(id));
+    assertEquals(42L, layout.sequenceOf(id));
+  }
+
+  @Test
+  public void customLayoutShouldBeHonored() {
+    final long epoch = 1600000000000L;
+    final var layout = new SnowflakeLayout(8, 16, epoch, 10);
+    assertEquals(40, layout.getTimestampBits());
+    assertEquals(3L, layout.toTick(epoch + 35));
+
+    final var snowflake = new SnowflakeUid(255, layout);
+    final long id = snowflake.nextId();
+    assertEquals(255L, layout.workerIdOf(id));
+    assertEquals(layout.toTick(System.currentTimeMillis()), layout.tickOf(id), 1);
+    assertThrows(IllegalArgumentException.class, () -> new SnowflakeUid(256, layout));
+  }
+
+  @Test
+  public void invalidLayoutShouldBeRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new SnowflakeLayout(20, 20, SnowflakeLayout.DEFAULT_EPOCH, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> new SnowflakeLayout(10, 0, SnowflakeLayout.DEFAULT_EPOCH, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> new SnowflakeLayout(10, 12, SnowflakeLayout.DEFAULT_EPOCH, 0));
+    // 32 bits of milliseconds last about 49.7 days, long gone since the default epoch
+    assertThrows(IllegalArgumentException.class,
+        () -> new SnowflakeLayout(12, 20, SnowflakeLayout.DEFAULT_EPOCH, 1));
+    // 42 bits of milliseconds from now would last, but not from an epoch in the future
+    assertThrows(IllegalArgumentException.class,
+        () -> new SnowflakeLayout(10, 12, System.currentTimeMillis() + 60000, 1));
+  }
+}
@@ -2,8 +2,15 @@ package com.ap.uidgen.core.services;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.junit.jupiter.api.Test;
 
+import com.ap.uidgen.core.services.snowflake.SequenceExhaustedException;
+import com.ap.uidgen.core.services.snowflake.SequenceOverflowStrategy;
+import com.ap.uidgen.core.services.snowflake.SnowflakeOptions;
 import com.ap.uidgen.core.services.snowflake.SnowflakeUid;
 
 /**
@@ -19,4 +26,77 @@ public class SnowflakeUidTest
     final String id2 = snowflake.generateId();
     assertNotSame(id1, id2);
   }
+
+  @Test
+  public void testSnowflakeBatchIdsAreUniqueAndOrdered() {
+    final var snowflake = new SnowflakeUid(100);
+    final List<String> ids = snowflake.generateIds(10000);
+    assertEquals(10000, ids.size());
+    assertEquals(10000, new HashSet<>(ids).size());
+    for(int i = 1; i < ids.size(); i++) {
+      assertTrue(Long.compareUnsigned(
+          Long.parseUnsignedLong(ids.get(i - 1)), Long.parseUnsignedLong(ids.get(i))) < 0);
+    }
+
+    // single ids must keep increasing after a batch
+    final long next = Long.parseUnsignedLong(snowflake.generateId());
+    assertTrue(Long.compareUnsigned(Long.parseUnsignedLong(ids.get(ids.size() - 1)), next) < 0);
+  }
+
+  @Test
+  public void testSnowflakeLongIdsAreIncreasing() {
+    final var snowflake = new SnowflakeUid(100);
+    long previous = snowflake.nextId();
+    for(int i = 0; i < 100000; i++) {
+      final long next = snowflake.nextId();
+      assertTrue(Long.compareUnsigned(previous, next) < 0);
+      previous = next;
+    }
+    assertEquals(Long.toUnsignedString(previous), SnowflakeUid.format(previous));
+  }
+
+  // only moves when a test says so, making sequence exhaustion deterministic
+  private final AtomicLong frozenClock = new AtomicLong(System.currentTimeMillis());
+
+  @Test
+  public void borrowStrategyShouldMoveAheadOfClock() {
+    final var options = SnowflakeOptions.builder()
+        .sequenceOverflowStrategy(SequenceOverflowStrategy.BORROW)
+        .maxBorrowMillis(100)
+        .tickSource(frozenClock::get)
+        .build();
+    final var snowflake = new SnowflakeUid(100, options);
+
+    final long[] ids = new long[100000];
+    snowflake.nextIds(ids, 0, ids.length);
+    for(int i = 1; i < ids.length; i++) {
+      assertTrue(Long.compareUnsigned(ids[i - 1], ids[i]) < 0);
+    }
+    assertTrue(options.getMetrics().getSequenceExhaustedBorrows() > 0);
+    assertEquals(0, options.getMetrics().getClockRegressionWaits());
+  }
+
+  @Test
+  public void deferStrategyShouldThrowOnExhaustion() {
+    final var options = SnowflakeOptions.builder()
+        .sequenceOverflowStrategy(SequenceOverflowStrategy.DEFER)
+        .tickSource(frozenClock::get)
+        .build();
+    final var snowflake = new SnowflakeUid(100, options);
+
+    final var ids = new HashSet<Long>();
+    int deferrals = 0;
+    while(ids.size() < 100000) {
+      try {
+        ids.add(snowflake.nextId());
+      }
+      catch(SequenceExhaustedException e) {
+        assertTrue(e.getRetryAfterMillis() >= 1);
+        deferrals++;
+        frozenClock.addAndGet(e.getRetryAfterMillis());
+      }
+    }
+    assertTrue(deferrals > 0);
+    assertEquals(deferrals, options.getMetrics().getSequenceExhaustedDeferrals());
+  }
 }
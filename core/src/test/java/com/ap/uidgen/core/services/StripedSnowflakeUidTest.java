@@ -0,0 +1,130 @@
+package com.ap.uidgen.core.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.ap.uidgen.core.services.clock.SystemTickSource;
+import com.ap.uidgen.core.services.snowflake.SnowflakeUniqueIdGenerator;
+import com.ap.uidgen.core.services.snowflake.StripedSnowflakeUid;
+import com.ap.uidgen.core.services.workerid.InMemoryLeaseBackend;
+import com.ap.uidgen.core.services.workerid.LeasedWorkerIdStore;
+
+/**
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class StripedSnowflakeUidTest
+{
+  @Test
+  public void testStripedIdsAreUnique() throws InterruptedException {
+    final var snowflake = new StripedSnowflakeUid(new SequentialWorkerIdStore(0), 4);
+    final Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+    // threads hold on to their stripe until all of them leased one, so none is handed over
+    final Thread[] threads = new Thread[4];
+    final CountDownLatch leased = new CountDownLatch(threads.length);
+    for(int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        ids.add(snowflake.nextId());
+        leased.countDown();
+        try {
+          leased.await();
+        }
+        catch(InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        for(int i = 1; i < 20000; i++) {
+          ids.add(snowflake.nextId());
+        }
+      });
+      threads[t].start();
+    }
+    for(Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(4 * 20000, ids.size());
+    assertEquals(4, snowflake.getStripeCount());
+  }
+
+  @Test
+  public void stripesOfDeadThreadsShouldBeReused() throws InterruptedException {
+    final var snowflake = new StripedSnowflakeUid(new SequentialWorkerIdStore(0), 1);
+    final Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+    for(int t = 0; t < 3; t++) {
+      final Thread thread = new Thread(() -> {
+        for(int i = 0; i < 10000; i++) {
+          ids.add(snowflake.nextId());
+        }
+      });
+      thread.start();
+      thread.join();
+    }
+
+    assertEquals(3 * 10000, ids.size());
+    assertEquals(1, snowflake.getStripeCount());
+  }
+
+  @Test
+  public void stripedShouldFailWhenAllStripesAreLeased() {
+    final var snowflake = new StripedSnowflakeUid(new SequentialWorkerIdStore(0), 1);
+    snowflake.nextId();
+
+    final Throwable[] failure = new Throwable[1];
+    final Thread thread = new Thread(() -> {
+      try {
+        snowflake.nextId();
+      }
+      catch(Throwable t) {
+        failure[0] = t;
+      }
+    });
+    thread.start();
+    assertDoesNotThrow(() -> thread.join());
+    assertTrue(failure[0] instanceof IllegalStateException);
+
+    // once released, the stripe becomes available to other threads
+    snowflake.release();
+    final Thread other = new Thread(snowflake::nextId);
+    other.start();
+    assertDoesNotThrow(() -> other.join());
+    assertEquals(1, snowflake.getStripeCount());
+  }
+
+  @Test
+  public void sharedGeneratorShouldReleaseWorkerIdsOnClose() throws InterruptedException {
+    final var idStore = new LeasedWorkerIdStore(new InMemoryLeaseBackend(), 0, 15,
+        LeasedWorkerIdStore.DEFAULT_TTL_MILLIS, 0, SystemTickSource.INSTANCE);
+    final var generator = new SnowflakeUniqueIdGenerator(new StripedSnowflakeUid(idStore, 4));
+    final Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+    // a pool of threads blocking on generation, sharing a single generator
+    final ExecutorService pool = Executors.newFixedThreadPool(4);
+    for(int task = 0; task < 100; task++) {
+      pool.execute(() -> {
+        for(int i = 0; i < 1000; i++) {
+          ids.add(generator.generateLongId("test"));
+        }
+      });
+    }
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(100 * 1000, ids.size());
+    assertTrue(idStore.getWorkerIdsInUse() <= 4);
+    assertEquals(0, generator.getLeadMillis(), 10);
+
+    generator.close();
+    generator.close();
+    assertEquals(0, idStore.getWorkerIdsInUse());
+  }
+}
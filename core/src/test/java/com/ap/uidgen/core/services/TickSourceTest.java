@@ -0,0 +1,74 @@
+package com.ap.uidgen.core.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.ap.uidgen.core.services.clock.CachedTickSource;
+import com.ap.uidgen.core.services.clock.MonotonicTickSource;
+import com.ap.uidgen.core.services.clock.SystemTickSource;
+
+/**
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class TickSourceTest
+{
+  private static final long MAX_SKEW_MILLIS = 50;
+
+  @Test
+  public void monotonicTickSourceShouldNeverGoBackwards() {
+    final var source = new MonotonicTickSource(1);
+    long previous = source.currentTimeMillis();
+    assertEquals(System.currentTimeMillis(), previous, MAX_SKEW_MILLIS);
+
+    final long end = System.nanoTime() + 20_000_000L;
+    while(System.nanoTime() < end) {
+      final long current = source.currentTimeMillis();
+      assertTrue(current >= previous);
+      previous = current;
+    }
+    assertEquals(System.currentTimeMillis(), previous, MAX_SKEW_MILLIS);
+  }
+
+  @Test
+  public void monotonicTickSourceShouldNotGoBackwardsAcrossResync() {
+    // anchored at 1000 ms and 0 ns, re-synced every 2 ms to a wall clock in step with nano time.
+    // A reader holding the anchor reads 3 ms while another one re-syncs at 2.5 ms, then a last
+    // one reads 3.1 ms on the new anchor.
+    final Deque<Long> readings = new ArrayDeque<>(List.of(0L, 3_000_000L, 2_500_000L, 3_100_000L));
+    final AtomicLong lastReading = new AtomicLong();
+    final AtomicReference<MonotonicTickSource> source = new AtomicReference<>();
+    final LongSupplier nanoTime = () -> {
+      final long reading = readings.poll();
+      lastReading.set(reading);
+      if(reading == 3_000_000L) {
+        assertEquals(1002L, source.get().currentTimeMillis());
+      }
+      return reading;
+    };
+    source.set(new MonotonicTickSource(2, () -> 1000 + lastReading.get() / 1_000_000L, nanoTime));
+
+    final long stale = source.get().currentTimeMillis();
+    assertEquals(1003L, stale);
+    assertTrue(source.get().currentTimeMillis() >= stale);
+  }
+
+  @Test
+  public void cachedTickSourceShouldFollowItsSource() throws InterruptedException {
+    try(var source = new CachedTickSource(SystemTickSource.INSTANCE, 100)) {
+      final long first = source.currentTimeMillis();
+      assertEquals(System.currentTimeMillis(), first, MAX_SKEW_MILLIS);
+
+      Thread.sleep(20);
+      assertTrue(source.currentTimeMillis() > first);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.ap.uidgen.core.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.ap.uidgen.core.services.encoding.CrockfordBase32;
+import com.ap.uidgen.core.services.uuid.ULIDUniqueIdGenerator;
+import com.ap.uidgen.core.services.uuid.UUIDMode;
+import com.ap.uidgen.core.services.uuid.UUIDv7UniqueIdGenerator;
+
+/**
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class TimeOrderedUniqueIdGeneratorTest
+{
+  private static final long NOW = 1469918176385L;
+
+  @Test
+  public void uuidv7ShouldEmbedTimestampAndVersion() {
+    final var generator = new UUIDv7UniqueIdGenerator(UUIDMode.FAST, () -> NOW);
+    final var uid = generator.generateUid("test");
+    assertTrue(uid.startsWith("test-"));
+
+    final var uuid = UUID.fromString(uid.substring("test-".length()));
+    assertEquals(7, uuid.version());
+    assertEquals(2, uuid.variant());
+    assertEquals(NOW, uuid.getMostSignificantBits() >>> 16);
+  }
+
+  @Test
+  public void uuidv7ShouldBeMonotonic() {
+    final var clock = new AtomicLong(NOW);
+    final var generator = new UUIDv7UniqueIdGenerator(UUIDMode.STRONG, clock::get);
+    assertMonotonic(generator, clock);
+  }
+
+  @Test
+  public void ulidShouldEmbedTimestamp() {
+    final var generator = new ULIDUniqueIdGenerator(UUIDMode.FAST, () -> NOW);
+    final var uid = generator.generateUid("test");
+    assertTrue(uid.startsWith("test-"));
+
+    final var ulid = uid.substring("test-".length());
+    assertEquals(26, ulid.length());
+    // timestamp of the example of the ULID specification
+    assertEquals("01ARYZ6S41", ulid.substring(0, 10));
+    assertTrue(ulid.matches("[0-9A-HJKMNP-TV-Z]{26}"));
+  }
+
+  @Test
+  public void ulidShouldBeMonotonic() {
+    final var clock = new AtomicLong(NOW);
+    final var generator = new ULIDUniqueIdGenerator(UUIDMode.STRONG, clock::get);
+    assertMonotonic(generator, clock);
+  }
+
+  @Test
+  public void crockfordBase32ShouldEncodeBounds() {
+    final char[] chars = new char[CrockfordBase32.LENGTH_128];
+    CrockfordBase32.encode128(0, 0, chars, 0);
+    assertEquals("00000000000000000000000000", new String(chars));
+    CrockfordBase32.encode128(-1, -1, chars, 0);
+    assertEquals("7ZZZZZZZZZZZZZZZZZZZZZZZZZ", new String(chars));
+    CrockfordBase32.encode128(1, 0, chars, 0);
+    assertEquals("0000000000000G000000000000", new String(chars));
+  }
+
+  // ids must increase within a millisecond, across milliseconds and when the clock moves back
+  private static void assertMonotonic(UniqueIdGenerator generator, AtomicLong clock) {
+    String previous = generator.generateUid("test");
+    for(int i = 0; i < 30000; i++) {
+      if(i == 10000) {
+        clock.addAndGet(1);
+      }
+      else if(i == 20000) {
+        clock.addAndGet(-5000);
+      }
+
+      final String current = generator.generateUid("test");
+      assertTrue(previous.compareTo(current) < 0, previous + " >= " + current);
+      previous = current;
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package com.ap.uidgen.core.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ap.uidgen.core.services.snowflake.ConcurrentSnowflakeUid;
+import com.ap.uidgen.core.services.snowflake.NamespacedSnowflakeUid;
+import com.ap.uidgen.core.services.snowflake.SequenceOverflowStrategy;
+import com.ap.uidgen.core.services.snowflake.SnowflakeLayout;
+import com.ap.uidgen.core.services.snowflake.SnowflakeOptions;
+import com.ap.uidgen.core.services.snowflake.SnowflakeUid;
+import com.ap.uidgen.core.services.snowflake.TimestampCheckpoint;
+
+/**
+ * Restarts of snowflake generators checkpointing their timestamps, driven by a frozen clock.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class TimestampCheckpointTest
+{
+  // epoch 0 so that ticks are the milliseconds returned by the clock
+  private static final SnowflakeLayout LAYOUT = new SnowflakeLayout(10, 4, 0, 1);
+  private static final long RESERVE_MILLIS = 100L;
+
+  private final AtomicLong clock = new AtomicLong(10_000L);
+  private Path file;
+
+  @BeforeEach
+  public void createFile() throws IOException {
+    file = Files.createTempFile("uidgen-checkpoint", ".bin");
+  }
+
+  // each generator of a test starts from a checkpoint of its own
+  private void replaceFile() throws IOException {
+    deleteFile();
+    createFile();
+  }
+
+  @AfterEach
+  public void deleteFile() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  private SnowflakeOptions options() {
+    return SnowflakeOptions.builder()
+        .layout(LAYOUT)
+        .tickSource(clock::get)
+        .clockRegressionToleranceMillis(1000)
+        // ids of the restarted generator are borrowed ahead of the frozen clock
+        .sequenceOverflowStrategy(SequenceOverflowStrategy.BORROW)
+        .maxBorrowMillis(1000)
+        .checkpoint(new TimestampCheckpoint(file, LAYOUT))
+        .checkpointReserveMillis(RESERVE_MILLIS)
+        .build();
+  }
+
+  @Test
+  public void restartWithClockSteppedBackShouldResumeAfterIssuedIds() throws IOException {
+    restartWithClockSteppedBackShouldResumeAfterIssuedIds(
+        options -> new SnowflakeUid(1, options));
+    restartWithClockSteppedBackShouldResumeAfterIssuedIds(
+        options -> new ConcurrentSnowflakeUid(1, options));
+    restartWithClockSteppedBackShouldResumeAfterIssuedIds(options -> {
+      final NamespacedSnowflakeUid snowflake = new NamespacedSnowflakeUid(1, options, 16);
+      return () -> snowflake.nextId("test");
+    });
+  }
+
+  private void restartWithClockSteppedBackShouldResumeAfterIssuedIds(
+      Function<SnowflakeOptions, LongIdGenerator> factory) throws IOException {
+    replaceFile();
+    clock.set(10_000L);
+    final long issued = factory.apply(options()).nextId();
+
+    // crash, and restart with the clock 50 ms behind the last id
+    clock.set(9_950L);
+    final long resumed = factory.apply(options()).nextId();
+
+    assertTrue(Long.compareUnsigned(issued, resumed) < 0);
+    assertTrue(LAYOUT.tickOf(resumed) >= 10_000L + 2 * RESERVE_MILLIS);
+  }
+
+  @Test
+  public void restartWithClockFarBehindShouldBeRefused() {
+    clock.set(10_000L);
+    new SnowflakeUid(1, options()).nextId();
+
+    // crash, and restart with the clock stepped back by 5 s
+    clock.set(5_000L);
+    restartShouldBeRefused(options -> new SnowflakeUid(1, options));
+    restartShouldBeRefused(options -> new ConcurrentSnowflakeUid(1, options));
+    restartShouldBeRefused(options -> new NamespacedSnowflakeUid(1, options, 16));
+  }
+
+  private void restartShouldBeRefused(Function<SnowflakeOptions, Object> factory) {
+    final SnowflakeOptions options = options();
+    assertThrows(IllegalStateException.class, () -> factory.apply(options));
+    assertEquals(1, options.getMetrics().getClockRegressionFailures());
+  }
+
+  @Test
+  public void reservationShouldBeExtendedAheadOfTheClock()
+      throws IOException, InterruptedException {
+    reservationShouldBeExtendedAheadOfTheClock(options -> new SnowflakeUid(1, options));
+    reservationShouldBeExtendedAheadOfTheClock(options -> new ConcurrentSnowflakeUid(1, options));
+  }
+
+  private void reservationShouldBeExtendedAheadOfTheClock(
+      Function<SnowflakeOptions, LongIdGenerator> factory)
+      throws IOException, InterruptedException {
+    replaceFile();
+    clock.set(10_000L);
+    final SnowflakeOptions options = options();
+    final LongIdGenerator snowflake = factory.apply(options);
+    final TimestampCheckpoint checkpoint = options.getCheckpoint();
+
+    // nothing reserved yet, the first id waits for a reservation two steps ahead
+    snowflake.nextId();
+    assertEquals(10_000L + 2 * RESERVE_MILLIS, checkpoint.getReservedTick(1));
+
+    // more than a step ahead, the checkpoint is left alone
+    clock.set(10_000L + RESERVE_MILLIS - 1);
+    snowflake.nextIds(new long[16], 0, 16);
+    assertEquals(10_000L + 2 * RESERVE_MILLIS, checkpoint.getReservedTick(1));
+
+    // within a step, ids are emitted on the current reservation while the sync thread extends it
+    clock.set(10_000L + RESERVE_MILLIS);
+    assertTrue(LAYOUT.tickOf(snowflake.nextId()) < 10_000L + 2 * RESERVE_MILLIS);
+    final long deadline = System.currentTimeMillis() + 5000;
+    while(checkpoint.getReservedTick(1) < 10_000L + 3 * RESERVE_MILLIS
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals(10_000L + 3 * RESERVE_MILLIS, checkpoint.getReservedTick(1));
+    assertEquals(10_000L + 3 * RESERVE_MILLIS,
+        new TimestampCheckpoint(file, LAYOUT).getReservedTick(1));
+
+    // other worker ids have their own slot
+    assertEquals(0L, checkpoint.getReservedTick(2));
+    checkpoint.close();
+  }
+
+  @Test
+  public void reservationShouldNeverMoveBackwards() {
+    final TimestampCheckpoint checkpoint = new TimestampCheckpoint(file, LAYOUT);
+    assertEquals(500L, checkpoint.reserve(3, 500L));
+    assertEquals(500L, checkpoint.reserve(3, 400L));
+    assertEquals(500L, new TimestampCheckpoint(file, LAYOUT).getReservedTick(3));
+  }
+}
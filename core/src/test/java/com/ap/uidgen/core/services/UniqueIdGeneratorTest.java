@@ -2,10 +2,20 @@ package com.ap.uidgen.core.services;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
 import org.junit.jupiter.api.Test;
 
+import com.ap.uidgen.core.services.snowflake.SnowflakeUid;
 import com.ap.uidgen.core.services.snowflake.SnowflakeUniqueIdGenerator;
+import com.ap.uidgen.core.services.uuid.UUIDFormat;
+import com.ap.uidgen.core.services.uuid.UUIDMode;
 import com.ap.uidgen.core.services.uuid.UUIDUniqueIdGenerator;
+import com.ap.uidgen.core.services.workerid.InMemoryLeaseBackend;
+import com.ap.uidgen.core.services.workerid.LeasedWorkerIdStore;
 
 /**
  * @author aparadis
@@ -33,6 +43,22 @@ public class UniqueIdGeneratorTest
     });
   }
 
+  @Test
+  public void closingSnowflakeGeneratorShouldReleaseWorkerId() {
+    final LeasedWorkerIdStore store = new LeasedWorkerIdStore(
+        new InMemoryLeaseBackend(), 0, 0, 1000, 0, System::currentTimeMillis);
+    final int workerId = store.getAvailableWorkerId().get();
+
+    final var generator = new SnowflakeUniqueIdGenerator(
+        new SnowflakeUid(workerId), () -> store.releaseWorkerId(workerId));
+    generator.generateUid("test");
+    assertFalse(store.getAvailableWorkerId().isPresent());
+
+    generator.close();
+    assertTrue(store.getLeasedWorkerIds().isEmpty());
+    assertEquals(Optional.of(workerId), store.getAvailableWorkerId());
+  }
+
   @Test
   public void snowflakeShouldRejectNullNamespace() {
     var generator = new SnowflakeUniqueIdGenerator(100);
@@ -49,4 +75,34 @@ public class UniqueIdGeneratorTest
     assertTrue(segments.length >= 2);
     assertEquals(segments[0], "test");
   }
+
+  @Test
+  public void uuidModesShouldGenerateVersion4Uuids() {
+    for(UUIDMode mode : UUIDMode.values()) {
+      var generator = new UUIDUniqueIdGenerator(mode);
+      final var uids = new HashSet<String>();
+      for(int i = 0; i < 1000; i++) {
+        final var uid = generator.generateUid("test");
+        assertTrue(uid.startsWith("test-"));
+
+        final var uuid = UUID.fromString(uid.substring("test-".length()));
+        assertEquals(4, uuid.version());
+        assertEquals(2, uuid.variant());
+        uids.add(uid);
+      }
+      assertEquals(1000, uids.size());
+    }
+  }
+
+  @Test
+  public void uuidFormatShouldMatchUuidToString() {
+    final var random = ThreadLocalRandom.current();
+    for(int i = 0; i < 1000; i++) {
+      final var uuid = new UUID(random.nextLong(), random.nextLong());
+      assertEquals("ns-" + uuid,
+          UUIDFormat.format("ns", uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+    }
+    assertEquals("ns-00000000-0000-0000-0000-000000000000", UUIDFormat.format("ns", 0, 0));
+    assertEquals("ns-ffffffff-ffff-ffff-ffff-ffffffffffff", UUIDFormat.format("ns", -1, -1));
+  }
 }
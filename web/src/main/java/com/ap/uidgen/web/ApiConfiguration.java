@@ -2,9 +2,13 @@ package com.ap.uidgen.web;
 
 import io.vertx.config.ConfigRetrieverOptions;
 import io.vertx.config.ConfigStoreOptions;
+import io.vertx.core.http.Http2Settings;
+import io.vertx.core.http.HttpServerOptions;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author aparadis
  * @since x.x.x
@@ -13,11 +17,103 @@ public class ApiConfiguration
 {
   private static final String FILE_NAME = "default.properties";
 
+  // threads of the worker execution mode, vert.x default size of worker pools
+  public static final int DEFAULT_WORKER_POOL_SIZE = 20;
+
+  /**
+   * Threads running the id handlers: the event loop of each verticle instance, or a pool of worker
+   * threads shared by all of them, free to block on generation.
+   */
+  public enum ExecutionMode {
+    EVENT_LOOP,
+    WORKER
+  }
+
   public enum ConfigurationKeys {
     SERVER_PORT,
+    EXECUTION_MODE,
+    WORKER_POOL_SIZE,
+    TCP_SERVER_PORT,
+    METRICS_SERVER_PORT,
+    METRICS_MAX_NAMESPACES,
+    READINESS_MAX_CLOCK_LEAD_MILLIS,
+    HTTP2_CLEAR_TEXT_ENABLED,
+    HTTP2_MAX_CONCURRENT_STREAMS,
+    HTTP_TCP_NO_DELAY,
+    HTTP_SEND_BUFFER_SIZE,
+    HTTP_RECEIVE_BUFFER_SIZE,
+    HTTP_ACCEPT_BACKLOG,
+    HTTP_IDLE_TIMEOUT_SECONDS,
     BASE_WORKER_ID,
+    WORKER_ID_STORE,
+    WORKER_ID_LEASE_FILE,
+    WORKER_ID_LEASE_TTL_MILLIS,
+    WORKER_ID_LEASE_HEARTBEAT_MILLIS,
     CORS_ORIGIN_REGEX,
-    UID_GENERATOR
+    ACCESS_LOG_SAMPLE_RATE,
+    MAX_CONCURRENT_REQUESTS,
+    RATE_LIMIT_IDS_PER_SECOND,
+    RATE_LIMIT_NAMESPACE_QUOTAS,
+    UID_GENERATOR,
+    MAX_BATCH_SIZE,
+    SNOWFLAKE_WORKER_ID_BITS,
+    SNOWFLAKE_SEQUENCE_BITS,
+    SNOWFLAKE_EPOCH,
+    SNOWFLAKE_TICK_MILLIS,
+    SNOWFLAKE_CLOCK_REGRESSION_WAIT_MILLIS,
+    SNOWFLAKE_CLOCK_REGRESSION_TOLERANCE_MILLIS,
+    SNOWFLAKE_SEQUENCE_OVERFLOW_STRATEGY,
+    SNOWFLAKE_MAX_BORROW_MILLIS,
+    SNOWFLAKE_TICK_SOURCE,
+    SNOWFLAKE_RING_BUFFER_CAPACITY,
+    SNOWFLAKE_RING_BUFFER_LOW_WATER_MARK,
+    SNOWFLAKE_RING_BUFFER_MAX_STALENESS_MILLIS,
+    SNOWFLAKE_NAMESPACE_SEQUENCES,
+    SNOWFLAKE_MAX_NAMESPACES,
+    SNOWFLAKE_CHECKPOINT_FILE,
+    SNOWFLAKE_CHECKPOINT_RESERVE_MILLIS,
+    UUID_MODE
+  }
+
+  /**
+   * @return execution mode of the id handlers (event-loop | worker), event-loop by default
+   */
+  public static ExecutionMode getExecutionMode(JsonObject config) {
+    return ExecutionMode.valueOf(
+        config.getString(ConfigurationKeys.EXECUTION_MODE.toString(), "event-loop")
+            .toUpperCase()
+            .replace('-', '_'));
+  }
+
+  /**
+   * Options of the http server, vert.x defaults being kept for sizes left unset or negative.
+   */
+  public static HttpServerOptions getHttpServerOptions(JsonObject config) {
+    final HttpServerOptions options = new HttpServerOptions()
+        .setTcpNoDelay(config.getBoolean(ConfigurationKeys.HTTP_TCP_NO_DELAY.toString(), true))
+        .setIdleTimeout(
+            config.getInteger(ConfigurationKeys.HTTP_IDLE_TIMEOUT_SECONDS.toString(), 0))
+        .setIdleTimeoutUnit(TimeUnit.SECONDS)
+        .setInitialSettings(new Http2Settings().setMaxConcurrentStreams(
+            config.getLong(ConfigurationKeys.HTTP2_MAX_CONCURRENT_STREAMS.toString(),
+                Http2Settings.DEFAULT_MAX_CONCURRENT_STREAMS)));
+
+    final int sendBufferSize =
+        config.getInteger(ConfigurationKeys.HTTP_SEND_BUFFER_SIZE.toString(), -1);
+    if(sendBufferSize > 0) {
+      options.setSendBufferSize(sendBufferSize);
+    }
+    final int receiveBufferSize =
+        config.getInteger(ConfigurationKeys.HTTP_RECEIVE_BUFFER_SIZE.toString(), -1);
+    if(receiveBufferSize > 0) {
+      options.setReceiveBufferSize(receiveBufferSize);
+    }
+    final int acceptBacklog =
+        config.getInteger(ConfigurationKeys.HTTP_ACCEPT_BACKLOG.toString(), -1);
+    if(acceptBacklog > 0) {
+      options.setAcceptBacklog(acceptBacklog);
+    }
+    return options;
   }
 
   public static ConfigRetrieverOptions getConfigRetrieverOptions() {
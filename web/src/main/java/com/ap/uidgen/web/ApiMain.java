@@ -4,7 +4,10 @@ import io.vertx.config.ConfigRetriever;
 import io.vertx.config.ConfigRetrieverOptions;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Verticle;
 import io.vertx.core.Vertx;
 import io.vertx.core.VertxOptions;
 
@@ -17,6 +20,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.slf4j.LoggerFactory;
 
+import com.ap.uidgen.web.ApiConfiguration.ConfigurationKeys;
 import com.ap.uidgen.web.guice.ApiModule;
 import com.ap.uidgen.web.guice.GuiceVerticleFactory;
 import com.codahale.metrics.MetricRegistry;
@@ -78,6 +82,10 @@ public class ApiMain
       int nbCores,
       final Handler<AsyncResult<String>> asyncAssertSuccess) {
 
+    // h2c is read by vert.x when http servers are created, for the whole process
+    System.setProperty("vertx.disableH2c", String.valueOf(
+        !config.getBoolean(ConfigurationKeys.HTTP2_CLEAR_TEXT_ENABLED.toString(), true)));
+
     // set guice verticle factory
     GuiceVerticleFactory guiceVerticleFactory =
         new GuiceVerticleFactory(createInjector(vertx, config));
@@ -86,16 +94,45 @@ public class ApiMain
         .setInstances(nbCores)
         .setConfig(config);
 
+    Future<String> deployment = deploy(vertx, ApiVerticle.class, deploymentOptions);
+
+    // binary protocol over tcp, next to http
+    if(config.getInteger(ConfigurationKeys.TCP_SERVER_PORT.toString(), 0) > 0) {
+      deployment = deployment.compose(
+          id -> deploy(vertx, TcpApiVerticle.class, deploymentOptions));
+    }
+
+    // operational endpoints on a port of their own, served by a single instance
+    if(config.getInteger(ConfigurationKeys.METRICS_SERVER_PORT.toString(), 0) > 0) {
+      final DeploymentOptions metricsDeploymentOptions =
+          new DeploymentOptions(deploymentOptions).setInstances(1);
+      deployment = deployment.compose(
+          id -> deploy(vertx, MetricsVerticle.class, metricsDeploymentOptions));
+    }
+
     if(asyncAssertSuccess != null) {
-      vertx.deployVerticle(getPrefixedVerticleName(), deploymentOptions, asyncAssertSuccess);
+      deployment.setHandler(asyncAssertSuccess);
     }
     else {
-      vertx.deployVerticle(getPrefixedVerticleName(), deploymentOptions);
+      deployment.setHandler(ar -> {
+        if(ar.failed()) {
+          LoggerFactory.getLogger(ApiMain.class).error("Failed to deploy verticles", ar.cause());
+        }
+      });
     }
   }
 
-  private static String getPrefixedVerticleName() {
-    return GuiceVerticleFactory.PREFIX + ":" + ApiVerticle.class.getCanonicalName();
+  private static Future<String> deploy(
+      final Vertx vertx,
+      final Class<? extends Verticle> verticle,
+      final DeploymentOptions deploymentOptions) {
+    final Promise<String> promise = Promise.promise();
+    vertx.deployVerticle(getPrefixedVerticleName(verticle), deploymentOptions, promise);
+    return promise.future();
+  }
+
+  private static String getPrefixedVerticleName(final Class<? extends Verticle> verticle) {
+    return GuiceVerticleFactory.PREFIX + ":" + verticle.getCanonicalName();
   }
 
   private static Injector createInjector(Vertx vertx, JsonObject config) {
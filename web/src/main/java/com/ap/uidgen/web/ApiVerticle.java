@@ -1,13 +1,16 @@
 package com.ap.uidgen.web;
 
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Handler;
 import io.vertx.core.Promise;
+import io.vertx.core.WorkerExecutor;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.healthchecks.HealthCheckHandler;
 import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.CorsHandler;
-import io.vertx.ext.web.handler.LoggerHandler;
 import io.vertx.ext.web.handler.ResponseContentTypeHandler;
 import io.vertx.ext.web.handler.ResponseTimeHandler;
 
@@ -17,8 +20,17 @@ import java.util.Set;
 import lombok.NonNull;
 
 import com.ap.uidgen.web.ApiConfiguration.ConfigurationKeys;
+import com.ap.uidgen.web.ApiConfiguration.ExecutionMode;
 import com.ap.uidgen.web.handlers.ApiHandler;
+import com.ap.uidgen.web.handlers.BlockingApiHandler;
+import com.ap.uidgen.web.handlers.ConcurrencyLimitHandler;
 import com.ap.uidgen.web.handlers.FailureHandler;
+import com.ap.uidgen.web.handlers.RateLimitHandler;
+import com.ap.uidgen.web.handlers.ResponseType;
+import com.ap.uidgen.web.handlers.SampledLoggerHandler;
+import com.ap.uidgen.web.health.ReadinessChecks;
+import com.ap.uidgen.web.metrics.RequestMetricsHandler;
+import com.ap.uidgen.web.metrics.UidMetrics;
 import com.google.inject.Inject;
 
 
@@ -26,15 +38,34 @@ public class ApiVerticle extends AbstractVerticle {
 
   private static final Logger logger = LoggerFactory.getLogger(ApiVerticle.class);
 
+  // pool shared by all instances in worker execution mode
+  private static final String WORKER_POOL_NAME = "uidgen-api-worker";
+
   private ApiHandler handler;
   private FailureHandler failureHandler;
+  private UidMetrics metrics;
+  private ReadinessChecks readiness;
+  private RateLimitHandler rateLimitHandler;
+  private ConcurrencyLimitHandler concurrencyLimitHandler;
+
+  // set in worker execution mode only
+  private WorkerExecutor workerExecutor;
+  private BlockingApiHandler blockingHandler;
 
   @Inject
   public ApiVerticle(
       @NonNull final ApiHandler apiHandler,
-      @NonNull final FailureHandler failureHandler) {
+      @NonNull final FailureHandler failureHandler,
+      @NonNull final UidMetrics metrics,
+      @NonNull final ReadinessChecks readiness,
+      @NonNull final RateLimitHandler rateLimitHandler,
+      @NonNull final ConcurrencyLimitHandler concurrencyLimitHandler) {
     this.failureHandler = failureHandler;
     this.handler = apiHandler;
+    this.metrics = metrics;
+    this.readiness = readiness;
+    this.rateLimitHandler = rateLimitHandler;
+    this.concurrencyLimitHandler = concurrencyLimitHandler;
   }
 
   @Override
@@ -43,7 +74,15 @@ public class ApiVerticle extends AbstractVerticle {
 
     final int port = config().getInteger(ConfigurationKeys.SERVER_PORT.toString());
 
-    vertx.createHttpServer()
+    if(ApiConfiguration.getExecutionMode(config()) == ExecutionMode.WORKER) {
+      final int poolSize = config().getInteger(ConfigurationKeys.WORKER_POOL_SIZE.toString(),
+          ApiConfiguration.DEFAULT_WORKER_POOL_SIZE);
+      workerExecutor = vertx.createSharedWorkerExecutor(WORKER_POOL_NAME, poolSize);
+      blockingHandler = new BlockingApiHandler(workerExecutor, handler::copy);
+      logger.info("Running id handlers on {} worker threads", poolSize);
+    }
+
+    vertx.createHttpServer(ApiConfiguration.getHttpServerOptions(config()))
         .requestHandler(createV1Router())
         .listen(port, http -> {
           if (http.succeeded()) {
@@ -59,6 +98,10 @@ public class ApiVerticle extends AbstractVerticle {
   @Override
   public void stop() {
     logger.info("Shutting down application");
+    if(workerExecutor != null) {
+      workerExecutor.close();
+    }
+    handler.close();
   }
 
   private Router createV1Router() {
@@ -78,20 +121,58 @@ public class ApiVerticle extends AbstractVerticle {
             .allowedHeaders(allowedHeaders)
             .allowedMethod(HttpMethod.GET));
 
-    // log all requests
-    router.route("/uidapi/*").handler(LoggerHandler.create());
+    // log one request out of ACCESS_LOG_SAMPLE_RATE
+    router.route("/uidapi/*").handler(new SampledLoggerHandler(
+        config().getInteger(ConfigurationKeys.ACCESS_LOG_SAMPLE_RATE.toString(), 1)));
+
+    // reject requests past the bound on requests in flight, before any work is done for them
+    if(concurrencyLimitHandler.isEnabled()) {
+      router.route("/uidapi/*").handler(concurrencyLimitHandler);
+    }
 
     // generate content-type
     router.route("/uidapi/*").handler(ResponseContentTypeHandler.create());
 
+    // record request latencies
+    router.route("/uidapi/*").handler(new RequestMetricsHandler(metrics));
+
     // generate x-response-time header
     router.route("/uidapi/*").handler(ResponseTimeHandler.create());
 
+    // GET health: liveness, answered as long as the event loop serving the request is responsive
+    router.get("/health").handler(HealthCheckHandler.create(vertx));
+
+    // GET ready: readiness of the generators and their worker ids, 503 when not ready
+    router.get("/ready").handler(readiness.registerProcedures(HealthCheckHandler.create(vertx)));
+
+    // shed requests past the quota of their namespace
+    if(rateLimitHandler.isEnabled()) {
+      router.get("/uidapi/v1/uid/:namespace").handler(rateLimitHandler);
+      router.get("/uidapi/v1/uids/:namespace").handler(rateLimitHandler);
+    }
+
+    // run on the event loop, or dispatched to worker threads
+    final Handler<RoutingContext> getId =
+        blockingHandler != null ? blockingHandler::handleGetId : handler::handleGetId;
+    final Handler<RoutingContext> getIds =
+        blockingHandler != null ? blockingHandler::handleGetIds : handler::handleGetIds;
+
     // GET uid/namespace
     router
         .get("/uidapi/v1/uid/:namespace")
-        .handler(handler::handleGetId)
-        .produces("application/json")
+        .handler(getId)
+        .produces(ResponseType.JSON.getContentType())
+        .produces(ResponseType.TEXT.getContentType())
+        .produces(ResponseType.BINARY.getContentType())
+        .failureHandler(failureHandler);
+
+    // GET uids/namespace?count=N
+    router
+        .get("/uidapi/v1/uids/:namespace")
+        .handler(getIds)
+        .produces(ResponseType.JSON.getContentType())
+        .produces(ResponseType.TEXT.getContentType())
+        .produces(ResponseType.BINARY.getContentType())
         .failureHandler(failureHandler);
 
     return router;
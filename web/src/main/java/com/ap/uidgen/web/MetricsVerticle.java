@@ -0,0 +1,77 @@
+package com.ap.uidgen.web;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+
+import lombok.NonNull;
+
+import com.ap.uidgen.web.ApiConfiguration.ConfigurationKeys;
+import com.ap.uidgen.web.metrics.PrometheusExporter;
+import com.google.inject.Inject;
+
+/**
+ * Serves operational endpoints on a port of their own, away from the api: a single instance is
+ * deployed next to {@link ApiVerticle} when a metrics port is configured.
+ *
+ * - {@code GET /metrics}: all metrics in the Prometheus text format, see
+ * {@link PrometheusExporter}.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class MetricsVerticle extends AbstractVerticle {
+
+  private static final Logger logger = LoggerFactory.getLogger(MetricsVerticle.class);
+
+  private final PrometheusExporter exporter;
+
+  @Inject
+  public MetricsVerticle(@NonNull final PrometheusExporter exporter) {
+    this.exporter = exporter;
+  }
+
+  @Override
+  public void start(Promise<Void> startPromise) throws Exception {
+    logger.info("Verticle {} instance starting", MetricsVerticle.class.getCanonicalName());
+
+    final int port = config().getInteger(ConfigurationKeys.METRICS_SERVER_PORT.toString());
+
+    vertx.createHttpServer()
+        .requestHandler(createRouter())
+        .listen(port, http -> {
+          if (http.succeeded()) {
+            startPromise.complete();
+            logger.info("Metrics server started on port {}", port);
+          } else {
+            logger.error("Failed to start metrics server");
+            startPromise.fail(http.cause());
+          }
+        });
+  }
+
+  private Router createRouter() {
+    final Router router = Router.router(vertx);
+    router.get("/metrics").handler(this::handleGetMetrics);
+    return router;
+  }
+
+  /**
+   * Metrics are rendered on a worker thread, the registry holds the metrics of the whole process.
+   */
+  private void handleGetMetrics(RoutingContext routingContext) {
+    vertx.<String>executeBlocking(promise -> promise.complete(exporter.export()), false, ar -> {
+      if(ar.failed()) {
+        routingContext.fail(ar.cause());
+        return;
+      }
+      routingContext.response()
+          .putHeader(HttpHeaders.CONTENT_TYPE, PrometheusExporter.CONTENT_TYPE)
+          .end(ar.result());
+    });
+  }
+}
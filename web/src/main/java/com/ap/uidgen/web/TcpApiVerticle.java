@@ -0,0 +1,56 @@
+package com.ap.uidgen.web;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+import lombok.NonNull;
+
+import com.ap.uidgen.web.ApiConfiguration.ConfigurationKeys;
+import com.ap.uidgen.web.handlers.BinaryIdHandler;
+import com.google.inject.Inject;
+
+/**
+ * Serves ids over the binary protocol of {@link BinaryIdHandler}, deployed next to
+ * {@link ApiVerticle} when a TCP port is configured. Instances get their own generator and worker
+ * id from the same providers as the http verticles.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class TcpApiVerticle extends AbstractVerticle {
+
+  private static final Logger logger = LoggerFactory.getLogger(TcpApiVerticle.class);
+
+  private final BinaryIdHandler handler;
+
+  @Inject
+  public TcpApiVerticle(@NonNull final BinaryIdHandler handler) {
+    this.handler = handler;
+  }
+
+  @Override
+  public void start(Promise<Void> startPromise) throws Exception {
+    logger.info("Verticle {} instance starting", TcpApiVerticle.class.getCanonicalName());
+
+    final int port = config().getInteger(ConfigurationKeys.TCP_SERVER_PORT.toString());
+
+    vertx.createNetServer()
+        .connectHandler(handler)
+        .listen(port, tcp -> {
+          if (tcp.succeeded()) {
+            startPromise.complete();
+            logger.info("Tcp server started on port {}", port);
+          } else {
+            logger.error("Failed to start tcp server");
+            startPromise.fail(tcp.cause());
+          }
+        });
+  }
+
+  @Override
+  public void stop() {
+    handler.close();
+  }
+}
@@ -1,17 +1,51 @@
 package com.ap.uidgen.web.guice;
 
 
+import com.ap.uidgen.core.services.LongIdGenerator;
 import com.ap.uidgen.core.services.SequentialWorkerIdStore;
+import com.ap.uidgen.core.services.uuid.ULIDUniqueIdGenerator;
+import com.ap.uidgen.core.services.uuid.UUIDMode;
 import com.ap.uidgen.core.services.uuid.UUIDUniqueIdGenerator;
+import com.ap.uidgen.core.services.uuid.UUIDv7UniqueIdGenerator;
+import com.ap.uidgen.core.services.snowflake.NamespacedSnowflakeUid;
+import com.ap.uidgen.core.services.snowflake.RingBufferSnowflakeUid;
+import com.ap.uidgen.core.services.snowflake.SequenceOverflowStrategy;
+import com.ap.uidgen.core.services.snowflake.SnowflakeLayout;
+import com.ap.uidgen.core.services.snowflake.SnowflakeMetrics;
+import com.ap.uidgen.core.services.snowflake.SnowflakeOptions;
+import com.ap.uidgen.core.services.snowflake.SnowflakeUid;
 import com.ap.uidgen.core.services.snowflake.SnowflakeUniqueIdGenerator;
+import com.ap.uidgen.core.services.snowflake.StripedSnowflakeUid;
+import com.ap.uidgen.core.services.snowflake.TimestampCheckpoint;
 import com.ap.uidgen.core.services.UniqueIdGenerator;
 import com.ap.uidgen.core.services.WorkerIdStore;
+import com.ap.uidgen.core.services.clock.CachedTickSource;
+import com.ap.uidgen.core.services.clock.MonotonicTickSource;
+import com.ap.uidgen.core.services.clock.SystemTickSource;
+import com.ap.uidgen.core.services.clock.TickSource;
+import com.ap.uidgen.core.services.workerid.FileLeaseBackend;
+import com.ap.uidgen.core.services.workerid.InMemoryLeaseBackend;
+import com.ap.uidgen.core.services.workerid.LeaseBackend;
+import com.ap.uidgen.core.services.workerid.LeasedWorkerIdStore;
+import com.ap.uidgen.web.ApiConfiguration;
 import com.ap.uidgen.web.ApiConfiguration.ConfigurationKeys;
+import com.ap.uidgen.web.ApiConfiguration.ExecutionMode;
 import com.ap.uidgen.web.handlers.ApiHandler;
+import com.ap.uidgen.web.handlers.BinaryIdHandler;
+import com.ap.uidgen.web.handlers.ConcurrencyLimitHandler;
 import com.ap.uidgen.web.handlers.FailureHandler;
+import com.ap.uidgen.web.handlers.RateLimitHandler;
+import com.ap.uidgen.web.health.ReadinessChecks;
+import com.ap.uidgen.web.metrics.PrometheusExporter;
+import com.ap.uidgen.web.metrics.UidMetrics;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
 import com.google.inject.AbstractModule;
+import com.google.inject.Provider;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import com.google.inject.name.Named;
 
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.EventBus;
@@ -19,8 +53,11 @@ import io.vertx.core.file.FileSystem;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.shareddata.SharedData;
 
+import java.nio.file.Paths;
 import java.security.InvalidParameterException;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -34,9 +71,15 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class ApiModule extends AbstractModule {
 
+  // snowflake generator shared by all handlers in worker execution mode
+  private static final String SHARED_SNOWFLAKE = "snowflake-shared";
+
   private final Vertx vertx;
   private final JsonObject config;
 
+  // verticles using the shared snowflake, the last one to stop closes it
+  private final AtomicInteger sharedSnowflakeUsers = new AtomicInteger();
+
   public ApiModule(@NonNull Vertx vertx, @NonNull JsonObject config) {
     this.vertx = vertx;
     this.config = config;
@@ -52,8 +95,115 @@ public class ApiModule extends AbstractModule {
   }
 
   @Provides
-  public ApiHandler provideApiHandler(@NonNull final UniqueIdGenerator generator) {
-    return new ApiHandler(generator);
+  public ApiHandler provideApiHandler(
+      @NonNull final JsonObject config,
+      @NonNull final UniqueIdGenerator generator,
+      @NonNull final UidMetrics metrics) {
+    final int maxBatchSize = config.getInteger(
+        ConfigurationKeys.MAX_BATCH_SIZE.toString(), ApiHandler.DEFAULT_MAX_BATCH_SIZE);
+    return new ApiHandler(generator, maxBatchSize, metrics);
+  }
+
+  /**
+   * Handler of the binary tcp protocol, getting its own generator and worker id like
+   * {@link ApiHandler}.
+   */
+  @Provides
+  public BinaryIdHandler provideBinaryIdHandler(
+      @NonNull final JsonObject config,
+      @NonNull final UniqueIdGenerator generator,
+      @NonNull final UidMetrics metrics) {
+    final int maxBatchSize = config.getInteger(
+        ConfigurationKeys.MAX_BATCH_SIZE.toString(), ApiHandler.DEFAULT_MAX_BATCH_SIZE);
+    return new BinaryIdHandler(vertx, generator, maxBatchSize, metrics);
+  }
+
+  /**
+   * Per namespace quotas, one handler per verticle instance so that buckets stay confined to its
+   * event loop.
+   */
+  @Provides
+  public RateLimitHandler provideRateLimitHandler(@NonNull final UidMetrics metrics) {
+    return new RateLimitHandler(
+        config.getLong(ConfigurationKeys.RATE_LIMIT_IDS_PER_SECOND.toString(), 0L),
+        RateLimitHandler.parseQuotas(
+            config.getString(ConfigurationKeys.RATE_LIMIT_NAMESPACE_QUOTAS.toString())),
+        metrics);
+  }
+
+  /**
+   * Bound on requests in flight, shared by all verticle instances.
+   */
+  @Provides
+  @Singleton
+  public ConcurrencyLimitHandler provideConcurrencyLimitHandler(
+      @NonNull final UidMetrics metrics) {
+    return new ConcurrencyLimitHandler(
+        config.getInteger(ConfigurationKeys.MAX_CONCURRENT_REQUESTS.toString(), 0), metrics);
+  }
+
+  /**
+   * Registry of all metrics: the default registry set up by ApiMain along with the vert.x
+   * metrics, or a registry of this injector when none is set, e.g. in tests.
+   */
+  @Provides
+  @Singleton
+  public MetricRegistry provideMetricRegistry() {
+    final MetricRegistry registry = SharedMetricRegistries.tryGetDefault();
+    return registry != null ? registry : new MetricRegistry();
+  }
+
+  /**
+   * Metrics of id generation, along with counters of the exceptional paths of snowflake
+   * generators and the worker ids held from the store.
+   */
+  @Provides
+  @Singleton
+  public UidMetrics provideUidMetrics(
+      @NonNull final MetricRegistry registry,
+      @NonNull final SnowflakeMetrics snowflakeMetrics,
+      @NonNull final WorkerIdStore idStore,
+      @NonNull final SnowflakeLayout layout) {
+    final UidMetrics metrics = new UidMetrics(registry, config.getInteger(
+        ConfigurationKeys.METRICS_MAX_NAMESPACES.toString(), UidMetrics.DEFAULT_MAX_NAMESPACES));
+
+    metrics.registerCounter("uidgen.snowflake.clock-regression.waits",
+        snowflakeMetrics::getClockRegressionWaits);
+    metrics.registerCounter("uidgen.snowflake.clock-regression.borrows",
+        snowflakeMetrics::getClockRegressionBorrows);
+    metrics.registerCounter("uidgen.snowflake.clock-regression.failures",
+        snowflakeMetrics::getClockRegressionFailures);
+    metrics.registerCounter("uidgen.snowflake.sequence-exhausted.spins",
+        snowflakeMetrics::getSequenceExhaustedSpins);
+    metrics.registerCounter("uidgen.snowflake.sequence-exhausted.borrows",
+        snowflakeMetrics::getSequenceExhaustedBorrows);
+    metrics.registerCounter("uidgen.snowflake.sequence-exhausted.deferrals",
+        snowflakeMetrics::getSequenceExhaustedDeferrals);
+
+    final int baseWorkerId = config.getInteger(ConfigurationKeys.BASE_WORKER_ID.toString(), 0);
+    registry.remove("uidgen.worker-ids.in-use");
+    registry.register("uidgen.worker-ids.in-use", (Gauge<Integer>) idStore::getWorkerIdsInUse);
+    registry.remove("uidgen.worker-ids.capacity");
+    registry.register("uidgen.worker-ids.capacity",
+        (Gauge<Long>) () -> layout.getMaxWorkerId() - baseWorkerId + 1);
+    return metrics;
+  }
+
+  @Provides
+  @Singleton
+  public PrometheusExporter providePrometheusExporter(@NonNull final MetricRegistry registry) {
+    return new PrometheusExporter(registry);
+  }
+
+  /**
+   * Readiness procedures, shared by all verticle instances so that they track every generator.
+   */
+  @Provides
+  @Singleton
+  public ReadinessChecks provideReadinessChecks(@NonNull final WorkerIdStore idStore) {
+    return new ReadinessChecks(idStore, config.getLong(
+        ConfigurationKeys.READINESS_MAX_CLOCK_LEAD_MILLIS.toString(),
+        ReadinessChecks.DEFAULT_MAX_CLOCK_LEAD_MILLIS));
   }
 
   @Provides
@@ -64,7 +214,13 @@ public class ApiModule extends AbstractModule {
   @Provides
   public UniqueIdGenerator provideUidGenerator(
       @NonNull final JsonObject config,
-      @NonNull final WorkerIdStore idStore) {
+      @NonNull final WorkerIdStore idStore,
+      @NonNull final SnowflakeOptions options,
+      @NonNull final TickSource tickSource,
+      @NonNull final MetricRegistry registry,
+      @NonNull final ReadinessChecks readiness,
+      @NonNull @Named(SHARED_SNOWFLAKE)
+      final Provider<StripedSnowflakeUid> sharedSnowflake) {
 
     UniqueIdGenerator implementation;
 
@@ -73,8 +229,17 @@ public class ApiModule extends AbstractModule {
       case "uuid":
         implementation = buildUUIDNamespacedUniqueIdGenerator();
         break;
+      case "uuidv7":
+        implementation = buildUUIDv7NamespacedUniqueIdGenerator(tickSource);
+        break;
+      case "ulid":
+        implementation = buildULIDNamespacedUniqueIdGenerator(tickSource);
+        break;
       case "snowflake":
-        implementation = buildSnowflakeNamespacedUniqueIdGenerator(idStore);
+        // uuid generators are thread safe, snowflake ones need a worker id per thread
+        implementation = ApiConfiguration.getExecutionMode(config) == ExecutionMode.WORKER
+            ? buildSharedSnowflakeUniqueIdGenerator(sharedSnowflake.get(), readiness)
+            : buildSnowflakeNamespacedUniqueIdGenerator(idStore, options, registry, readiness);
         break;
       default:
         throw new InvalidParameterException("implementation not supported: " + generatorName);
@@ -82,22 +247,253 @@ public class ApiModule extends AbstractModule {
     return implementation;
   }
 
+  /**
+   * Striped snowflake of the worker execution mode, shared by all verticles. Each worker thread
+   * generates ids with a stripe of its own, so up to WORKER_POOL_SIZE worker ids are pulled from
+   * the store.
+   */
   @Provides
   @Singleton
-  public WorkerIdStore provideWorkerIdStore() {
+  @Named(SHARED_SNOWFLAKE)
+  public StripedSnowflakeUid provideSharedSnowflakeUid(
+      @NonNull final WorkerIdStore idStore,
+      @NonNull final SnowflakeOptions options,
+      @NonNull final ReadinessChecks readiness) {
+    if(config.getInteger(ConfigurationKeys.SNOWFLAKE_RING_BUFFER_CAPACITY.toString(), 0) > 0
+        || config.getBoolean(ConfigurationKeys.SNOWFLAKE_NAMESPACE_SEQUENCES.toString(), false)) {
+      log.warn("Ring buffer and per namespace sequences are not supported in worker execution "
+          + "mode, ignoring them");
+    }
+
+    final int poolSize = config.getInteger(ConfigurationKeys.WORKER_POOL_SIZE.toString(),
+        ApiConfiguration.DEFAULT_WORKER_POOL_SIZE);
+    log.info("Building shared instance of snowflake {} striped over up to {} worker ids",
+        StripedSnowflakeUid.class.getCanonicalName(), poolSize);
+
+    final StripedSnowflakeUid snowflake = new StripedSnowflakeUid(idStore, poolSize, options);
+    readiness.register(SHARED_SNOWFLAKE, snowflake::getLeadMillis);
+    return snowflake;
+  }
+
+  /**
+   * Store of worker ids (sequential | file | memory). Sequential counts up from the base worker
+   * id, only safe for a single node. File and memory lease worker ids between the base worker id
+   * and the highest worker id of the layout, the file being shared by all nodes.
+   */
+  @Provides
+  @Singleton
+  public WorkerIdStore provideWorkerIdStore(@NonNull final SnowflakeLayout layout) {
     int baseIndex = config.getInteger(ConfigurationKeys.BASE_WORKER_ID.toString());
-    return new SequentialWorkerIdStore(baseIndex);
+
+    final String storeName =
+        config.getString(ConfigurationKeys.WORKER_ID_STORE.toString(), "sequential");
+    final LeaseBackend backend;
+    switch(storeName) {
+      case "sequential":
+        return new SequentialWorkerIdStore(baseIndex);
+      case "file":
+        final String path = config.getString(ConfigurationKeys.WORKER_ID_LEASE_FILE.toString());
+        if(path == null) {
+          throw new InvalidParameterException("lease file required by the file worker id store");
+        }
+        backend = new FileLeaseBackend(Paths.get(path));
+        break;
+      case "memory":
+        backend = new InMemoryLeaseBackend();
+        break;
+      default:
+        throw new InvalidParameterException("worker id store not supported: " + storeName);
+    }
+
+    log.info("Leasing worker ids from {} store", storeName);
+    return new LeasedWorkerIdStore(
+        backend,
+        baseIndex,
+        (int)layout.getMaxWorkerId(),
+        config.getLong(ConfigurationKeys.WORKER_ID_LEASE_TTL_MILLIS.toString(),
+            LeasedWorkerIdStore.DEFAULT_TTL_MILLIS),
+        config.getLong(ConfigurationKeys.WORKER_ID_LEASE_HEARTBEAT_MILLIS.toString(),
+            LeasedWorkerIdStore.DEFAULT_HEARTBEAT_MILLIS),
+        SystemTickSource.INSTANCE);
+  }
+
+  /**
+   * Bit layout of snowflake ids. Defaults to the original 42 bits time, 10 bits worker id and
+   * 12 bits sequence layout.
+   */
+  @Provides
+  @Singleton
+  public SnowflakeLayout provideSnowflakeLayout() {
+    final SnowflakeLayout layout = new SnowflakeLayout(
+        config.getInteger(ConfigurationKeys.SNOWFLAKE_WORKER_ID_BITS.toString(),
+            SnowflakeLayout.DEFAULT_WORKER_ID_BITS),
+        config.getInteger(ConfigurationKeys.SNOWFLAKE_SEQUENCE_BITS.toString(),
+            SnowflakeLayout.DEFAULT_SEQUENCE_BITS),
+        config.getLong(ConfigurationKeys.SNOWFLAKE_EPOCH.toString(),
+            SnowflakeLayout.DEFAULT_EPOCH),
+        config.getLong(ConfigurationKeys.SNOWFLAKE_TICK_MILLIS.toString(),
+            SnowflakeLayout.DEFAULT_TICK_MILLIS));
+
+    log.info("Using snowflake layout {}", layout);
+    return layout;
+  }
+
+  /**
+   * Snowflake generator options, shared by all verticle instances along with their metrics and
+   * timestamp checkpoint.
+   */
+  @Provides
+  @Singleton
+  public SnowflakeOptions provideSnowflakeOptions(
+      @NonNull final SnowflakeLayout layout,
+      @NonNull final SnowflakeMetrics metrics,
+      @NonNull final TickSource tickSource) {
+    return SnowflakeOptions.builder()
+        .layout(layout)
+        .tickSource(tickSource)
+        .clockRegressionWaitMillis(
+            config.getLong(ConfigurationKeys.SNOWFLAKE_CLOCK_REGRESSION_WAIT_MILLIS.toString(),
+                SnowflakeOptions.DEFAULT_CLOCK_REGRESSION_WAIT_MILLIS))
+        .clockRegressionToleranceMillis(
+            config.getLong(ConfigurationKeys.SNOWFLAKE_CLOCK_REGRESSION_TOLERANCE_MILLIS.toString(),
+                SnowflakeOptions.DEFAULT_CLOCK_REGRESSION_TOLERANCE_MILLIS))
+        .sequenceOverflowStrategy(SequenceOverflowStrategy.valueOf(
+            config.getString(ConfigurationKeys.SNOWFLAKE_SEQUENCE_OVERFLOW_STRATEGY.toString(),
+                SequenceOverflowStrategy.SPIN.name()).toUpperCase()))
+        .maxBorrowMillis(
+            config.getLong(ConfigurationKeys.SNOWFLAKE_MAX_BORROW_MILLIS.toString(),
+                SnowflakeOptions.DEFAULT_MAX_BORROW_MILLIS))
+        .metrics(metrics)
+        .checkpoint(provideTimestampCheckpoint(layout))
+        .checkpointReserveMillis(
+            config.getLong(ConfigurationKeys.SNOWFLAKE_CHECKPOINT_RESERVE_MILLIS.toString(),
+                SnowflakeOptions.DEFAULT_CHECKPOINT_RESERVE_MILLIS))
+        .build();
+  }
+
+  /**
+   * @return the checkpoint of reserved ticks, null when SNOWFLAKE_CHECKPOINT_FILE is unset
+   */
+  private TimestampCheckpoint provideTimestampCheckpoint(final SnowflakeLayout layout) {
+    final String file = config.getString(ConfigurationKeys.SNOWFLAKE_CHECKPOINT_FILE.toString());
+    if(file == null || file.isEmpty()) {
+      return null;
+    }
+
+    log.info("Checkpointing snowflake timestamps to {}", file);
+    return new TimestampCheckpoint(Paths.get(file), layout);
+  }
+
+  /**
+   * Source of wall clock time of snowflake generators (system | cached | monotonic). A single
+   * instance is shared so that the cached source runs one refresh thread per process.
+   */
+  @Provides
+  @Singleton
+  public TickSource provideTickSource() {
+    final String tickSourceName =
+        config.getString(ConfigurationKeys.SNOWFLAKE_TICK_SOURCE.toString(), "system");
+
+    final TickSource tickSource;
+    switch(tickSourceName) {
+      case "system":
+        tickSource = SystemTickSource.INSTANCE;
+        break;
+      case "cached":
+        tickSource = new CachedTickSource();
+        break;
+      case "monotonic":
+        tickSource = new MonotonicTickSource();
+        break;
+      default:
+        throw new InvalidParameterException("tick source not supported: " + tickSourceName);
+    }
+
+    log.info("Using tick source {}", tickSource.getClass().getSimpleName());
+    return tickSource;
+  }
+
+  @Provides
+  @Singleton
+  public SnowflakeMetrics provideSnowflakeMetrics() {
+    return new SnowflakeMetrics();
   }
 
   private UUIDUniqueIdGenerator buildUUIDNamespacedUniqueIdGenerator() {
-    log.info("Building instance of id generator: {}",
-        UUIDUniqueIdGenerator.class.getCanonicalName());
+    final UUIDMode mode = getUUIDMode();
+
+    log.info("Building instance of id generator: {} in {} mode",
+        UUIDUniqueIdGenerator.class.getCanonicalName(), mode);
 
-    return new UUIDUniqueIdGenerator();
+    return new UUIDUniqueIdGenerator(mode);
+  }
+
+  private UUIDv7UniqueIdGenerator buildUUIDv7NamespacedUniqueIdGenerator(
+      final TickSource tickSource) {
+    final UUIDMode mode = getUUIDMode();
+
+    log.info("Building instance of id generator: {} in {} mode",
+        UUIDv7UniqueIdGenerator.class.getCanonicalName(), mode);
+
+    return new UUIDv7UniqueIdGenerator(mode, tickSource);
+  }
+
+  private ULIDUniqueIdGenerator buildULIDNamespacedUniqueIdGenerator(
+      final TickSource tickSource) {
+    final UUIDMode mode = getUUIDMode();
+
+    log.info("Building instance of id generator: {} in {} mode",
+        ULIDUniqueIdGenerator.class.getCanonicalName(), mode);
+
+    return new ULIDUniqueIdGenerator(mode, tickSource);
+  }
+
+  private UUIDMode getUUIDMode() {
+    return UUIDMode.valueOf(
+        config.getString(ConfigurationKeys.UUID_MODE.toString(), UUIDMode.STRONG.name())
+            .toUpperCase());
+  }
+
+  /**
+   * @return generator of one verticle over the shared striped snowflake, which is closed along
+   * with the generator of the last verticle, releasing its worker ids
+   */
+  private SnowflakeUniqueIdGenerator buildSharedSnowflakeUniqueIdGenerator(
+      final StripedSnowflakeUid snowflake,
+      final ReadinessChecks readiness) {
+    sharedSnowflakeUsers.incrementAndGet();
+
+    // not AutoCloseable, so that closing one generator leaves the snowflake to the others
+    final LongIdGenerator view = new LongIdGenerator() {
+      @Override
+      public long nextId() {
+        return snowflake.nextId();
+      }
+
+      @Override
+      public void nextIds(final long[] ids, final int offset, final int count) {
+        snowflake.nextIds(ids, offset, count);
+      }
+
+      @Override
+      public long getLeadMillis() {
+        return snowflake.getLeadMillis();
+      }
+    };
+
+    return new SnowflakeUniqueIdGenerator(view, () -> {
+      if(sharedSnowflakeUsers.decrementAndGet() == 0) {
+        readiness.unregister(SHARED_SNOWFLAKE);
+        snowflake.close();
+      }
+    });
   }
 
   private SnowflakeUniqueIdGenerator buildSnowflakeNamespacedUniqueIdGenerator(
-      final WorkerIdStore idStore) {
+      final WorkerIdStore idStore,
+      final SnowflakeOptions options,
+      final MetricRegistry registry,
+      final ReadinessChecks readiness) {
 
     final Optional<Integer> workerId = idStore.getAvailableWorkerId();
     if(!workerId.isPresent()) {
@@ -109,6 +505,75 @@ public class ApiModule extends AbstractModule {
         SnowflakeUniqueIdGenerator.class.getCanonicalName(),
         workerId.get());
 
-    return new SnowflakeUniqueIdGenerator(workerId.get());
+    // hand the worker id back to the store once the generator is closed
+    final int leasedWorkerId = workerId.get();
+    final String name = "snowflake-" + leasedWorkerId;
+    final Runnable release = () -> {
+      readiness.unregister(name);
+      idStore.releaseWorkerId(leasedWorkerId);
+    };
+    // refuse ids once the lease is lost, another node may be using the worker id
+    final BooleanSupplier leaseValidity = idStore.getLeaseValidity(leasedWorkerId);
+
+    final SnowflakeUniqueIdGenerator generator;
+    final int ringBufferCapacity = config.getInteger(
+        ConfigurationKeys.SNOWFLAKE_RING_BUFFER_CAPACITY.toString(), 0);
+    if(config.getBoolean(ConfigurationKeys.SNOWFLAKE_NAMESPACE_SEQUENCES.toString(), false)) {
+      if(ringBufferCapacity > 0) {
+        log.warn("Ring buffer is not supported with per namespace sequences, ignoring it");
+      }
+      final int maxNamespaces = config.getInteger(
+          ConfigurationKeys.SNOWFLAKE_MAX_NAMESPACES.toString(),
+          NamespacedSnowflakeUid.DEFAULT_MAX_NAMESPACES);
+      log.info("Using per namespace sequences for up to {} namespaces", maxNamespaces);
+      generator = new SnowflakeUniqueIdGenerator(
+          new NamespacedSnowflakeUid(workerId.get(), options, maxNamespaces), leaseValidity,
+          release);
+    }
+    else if(ringBufferCapacity > 0) {
+      generator = new SnowflakeUniqueIdGenerator(
+          buildRingBufferSnowflake(workerId.get(), options, ringBufferCapacity, registry),
+          leaseValidity, release);
+    }
+    else {
+      generator = new SnowflakeUniqueIdGenerator(
+          new SnowflakeUid(workerId.get(), options), leaseValidity, release);
+    }
+
+    readiness.register(name, generator::getLeadMillis);
+    return generator;
+  }
+
+  /**
+   * Snowflake serving pre-generated ids, with its fill level gauges registered in the metric
+   * registry.
+   */
+  private RingBufferSnowflakeUid buildRingBufferSnowflake(
+      final int workerId,
+      final SnowflakeOptions options,
+      final int capacity,
+      final MetricRegistry registry) {
+    final RingBufferSnowflakeUid snowflake = new RingBufferSnowflakeUid(
+        workerId,
+        options,
+        capacity,
+        config.getInteger(ConfigurationKeys.SNOWFLAKE_RING_BUFFER_LOW_WATER_MARK.toString(),
+            capacity / 4),
+        config.getLong(ConfigurationKeys.SNOWFLAKE_RING_BUFFER_MAX_STALENESS_MILLIS.toString(),
+            RingBufferSnowflakeUid.DEFAULT_MAX_STALENESS_MILLIS));
+
+    log.info("Using ring buffer of {} ids for worker id {}", capacity, workerId);
+
+    final String prefix = MetricRegistry.name("uidgen", "ring-buffer", String.valueOf(workerId));
+    registry.removeMatching((name, metric) -> name.startsWith(prefix + "."));
+    registry.register(MetricRegistry.name(prefix, "size"),
+        (Gauge<Integer>) snowflake::getSize);
+    registry.register(MetricRegistry.name(prefix, "capacity"),
+        (Gauge<Integer>) snowflake::getCapacity);
+    registry.register(MetricRegistry.name(prefix, "empty-polls"),
+        (Gauge<Long>) snowflake::getEmptyPolls);
+    registry.register(MetricRegistry.name(prefix, "stale-discards"),
+        (Gauge<Long>) snowflake::getStaleDiscards);
+    return snowflake;
   }
 }
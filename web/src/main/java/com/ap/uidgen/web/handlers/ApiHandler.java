@@ -1,13 +1,26 @@
 package com.ap.uidgen.web.handlers;
 
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.json.Json;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.ext.web.RoutingContext;
 
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.ap.uidgen.core.services.LongUniqueIdGenerator;
 import com.ap.uidgen.core.services.UniqueIdGenerator;
+import com.ap.uidgen.core.services.encoding.IdEncoder;
+import com.ap.uidgen.core.services.encoding.IdFormat;
+import com.ap.uidgen.core.services.snowflake.SequenceExhaustedException;
+import com.ap.uidgen.web.metrics.UidMetrics;
 import com.ap.uidgen.web.models.ErrorResponse;
-import com.ap.uidgen.web.models.GetIdResponse;
 
 /**
  * @author aparadis
@@ -18,42 +31,477 @@ public class ApiHandler
   private static final Logger logger = LoggerFactory.getLogger(ApiHandler.class);
 
   private static final String NAMESPACE_PARAM_NAME = "namespace";
+  private static final String COUNT_PARAM_NAME = "count";
+  private static final String FORMAT_PARAM_NAME = "format";
+
+  // default upper bound of ids returned by a single batch request
+  public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+
+  // number of ids generated and written to the response at once when streaming a batch
+  private static final int BATCH_CHUNK_SIZE = 256;
+
+  // number of times a request is deferred to a later tick on sequence exhaustion before failing
+  private static final int MAX_DEFERRALS = 100;
 
   private UniqueIdGenerator uidGenerator;
+  private final int maxBatchSize;
+  private final UidMetrics metrics;
+
+  // runs continuations of requests, inline on the event loop unless handlers run on workers
+  private final Executor continuations;
+
+  // set when the generator emits 64 bits ids, which are then encoded straight into responses
+  private final LongUniqueIdGenerator longUidGenerator;
+
+  // scratch space for batches of 64 bits ids. Handlers are confined to the event loop of their
+  // verticle, and these are only used within a single synchronous pass.
+  private final long[] idChunk = new long[BATCH_CHUNK_SIZE];
+  // decimal is the longest encoding
+  private final byte[] encodedId = new byte[IdFormat.DEC.getEncoder().maxLength()];
+
+  // writes responses with cached namespace prefixes, confined to the event loop as well
+  private final UidResponseWriter responseWriter = new UidResponseWriter();
 
   public ApiHandler(UniqueIdGenerator generator) {
+    this(generator, DEFAULT_MAX_BATCH_SIZE);
+  }
+
+  public ApiHandler(UniqueIdGenerator generator, int maxBatchSize) {
+    this(generator, maxBatchSize, new UidMetrics());
+  }
+
+  public ApiHandler(UniqueIdGenerator generator, int maxBatchSize, UidMetrics metrics) {
+    this(generator, maxBatchSize, metrics, Runnable::run);
+  }
+
+  private ApiHandler(
+      UniqueIdGenerator generator,
+      int maxBatchSize,
+      UidMetrics metrics,
+      Executor continuations) {
     this.uidGenerator = generator;
+    this.maxBatchSize = maxBatchSize;
+    this.metrics = metrics;
+    this.continuations = continuations;
+    this.longUidGenerator = generator instanceof LongUniqueIdGenerator
+        ? (LongUniqueIdGenerator)generator
+        : null;
   }
 
   /**
-   * Generate a unique id given a valid namespace is provided.
+   * Generate a unique id given a valid namespace is provided, in the format requested if any. The
+   * response is written in the representation negotiated from the Accept header, see
+   * {@link ResponseType}.
    * @param routingContext
    */
   public void handleGetId(RoutingContext routingContext) {
-    logger.info("handleGetId called");
+    logger.debug("handleGetId called");
 
     final String namespace = routingContext.pathParam(NAMESPACE_PARAM_NAME);
-    final NamespaceValidator validator = new NamespaceValidator(namespace);
+    if(NamespaceValidator.isValidNamespace(namespace) == false) {
+      logger.warn("Invalid namespace provided {}", namespace);
+      sendBadRequest(routingContext, new NamespaceValidator(namespace).getValidationMessage());
+      return;
+    }
 
-    if(validator.isValid() == false) {
+    IdEncoder encoder = IdFormat.DEC.getEncoder();
+    if(routingContext.request().getParam(FORMAT_PARAM_NAME) != null) {
+      final FormatValidator formatValidator = validateFormat(routingContext);
+      if(formatValidator.isValid() == false) {
+        sendBadRequest(routingContext, formatValidator.getValidationMessage());
+        return;
+      }
+      encoder = formatValidator.getValue().get().getEncoder();
+    }
+
+    final ResponseType type = negotiateResponseType(routingContext);
+    if(type == null) {
+      return;
+    }
+
+    respondWithUid(routingContext, namespace, encoder, type, 0);
+  }
+
+  /**
+   * Generate the id and send the response. When the generator defers on sequence exhaustion, the
+   * request is retried on a timer once the next tick starts instead of blocking the event loop.
+   * 64 bits ids are encoded straight into the response buffer, the encoder is ignored by other
+   * generators.
+   */
+  private void respondWithUid(
+      RoutingContext routingContext,
+      String namespace,
+      IdEncoder encoder,
+      ResponseType type,
+      int deferrals) {
+    final Buffer body;
+    final long startNanos = System.nanoTime();
+    try {
+      body = longUidGenerator != null
+          ? writeUid(namespace, longUidGenerator.generateLongId(namespace), encoder, type)
+          : writeUid(uidGenerator.generateUid(namespace), type);
+    }
+    catch(SequenceExhaustedException e) {
+      defer(routingContext, e, deferrals,
+          () -> respondWithUid(routingContext, namespace, encoder, type, deferrals + 1));
+      return;
+    }
+    metrics.recordGeneration(namespace, 1, startNanos);
+
+    routingContext.response()
+        .setStatusCode(200)
+        .end(body);
+  }
+
+  private Buffer writeUid(String namespace, long id, IdEncoder encoder, ResponseType type) {
+    switch(type) {
+      case TEXT:
+        return responseWriter.writePlain(namespace, id, encoder);
+      case BINARY:
+        return responseWriter.writeBinary(id);
+      default:
+        return responseWriter.write(namespace, id, encoder);
+    }
+  }
+
+  private Buffer writeUid(String uid, ResponseType type) {
+    return type == ResponseType.TEXT
+        ? Buffer.buffer(uid)
+        : responseWriter.write(uid);
+  }
+
+  /**
+   * Generate a batch of unique ids given a valid namespace and count are provided, in the format
+   * requested if any. The response is streamed in chunks as ids are generated, so large batches
+   * are never fully buffered. The representation is negotiated as in {@link #handleGetId}.
+   * @param routingContext
+   */
+  public void handleGetIds(RoutingContext routingContext) {
+    logger.debug("handleGetIds called");
+
+    final String namespace = routingContext.pathParam(NAMESPACE_PARAM_NAME);
+    if(NamespaceValidator.isValidNamespace(namespace) == false) {
       logger.warn("Invalid namespace provided {}", namespace);
-      final ErrorResponse error = ErrorResponse
-          .builder()
-          .message(validator.getValidationMessage())
-          .code(400)
-          .build();
+      sendBadRequest(routingContext, new NamespaceValidator(namespace).getValidationMessage());
+      return;
+    }
+
+    final String count = routingContext.request().getParam(COUNT_PARAM_NAME);
+    final CountValidator countValidator = new CountValidator(count, maxBatchSize);
+    if(countValidator.isValid() == false) {
+      logger.warn("Invalid count provided {}", count);
+      sendBadRequest(routingContext, countValidator.getValidationMessage());
+      return;
+    }
+
+    final FormatValidator formatValidator = validateFormat(routingContext);
+    if(formatValidator.isValid() == false) {
+      sendBadRequest(routingContext, formatValidator.getValidationMessage());
+      return;
+    }
+
+    final ResponseType type = negotiateResponseType(routingContext);
+    if(type == null) {
+      return;
+    }
+
+    final int total = countValidator.getValue();
+    final HttpServerResponse response = routingContext.response();
+    response.setStatusCode(200).setChunked(true);
+    if(type == ResponseType.JSON) {
+      response.write("{\"uids\":[");
+    }
+    else if(type == ResponseType.BINARY) {
+      response.write(Buffer.buffer(Integer.BYTES).appendInt(total));
+    }
+
+    if(longUidGenerator != null) {
+      final IdEncoder encoder = formatValidator.getValue().orElse(IdFormat.DEC).getEncoder();
+      streamEncodedUids(routingContext, namespace, encoder, type, total, true, 0);
+    }
+    else {
+      streamUids(routingContext, namespace, type, total, true, 0);
+    }
+  }
+
+  /**
+   * Binary responses carry raw 64 bits ids, which other generators don't emit: such requests are
+   * answered with a 406 error.
+   *
+   * @return the response type negotiated for the request, or null if an error was sent
+   */
+  private ResponseType negotiateResponseType(RoutingContext routingContext) {
+    final ResponseType type =
+        ResponseType.fromContentType(routingContext.getAcceptableContentType());
+    if(type == ResponseType.BINARY && longUidGenerator == null) {
+      logger.warn("Binary response requested from a generator of string uids");
+      sendError(routingContext, 406, "Binary responses require a generator of 64 bits ids");
+      return null;
+    }
+    return type;
+  }
+
+  private FormatValidator validateFormat(RoutingContext routingContext) {
+    final String format = routingContext.request().getParam(FORMAT_PARAM_NAME);
+    final FormatValidator validator = new FormatValidator(format, longUidGenerator != null);
+    if(validator.isValid() == false) {
+      logger.warn("Invalid format provided {}", format);
+    }
+    return validator;
+  }
+
+  /**
+   * Write the remaining ids of a batch to the response, one chunk at a time. When the generator
+   * defers on sequence exhaustion, the rest of the batch is written on a timer once the next tick
+   * starts. When the client doesn't keep up and the write queue of the response fills up, the rest
+   * of the batch is written once it drains.
+   */
+  private void streamUids(
+      RoutingContext routingContext,
+      String namespace,
+      ResponseType type,
+      int remaining,
+      boolean first,
+      int deferrals) {
+    final HttpServerResponse response = routingContext.response();
+
+    // uids only contain characters in [a-zA-Z_0-9-], no json escaping is required.
+    while(remaining > 0) {
+      final int chunkSize = Math.min(BATCH_CHUNK_SIZE, remaining);
+      final List<String> uids;
+      final long startNanos = System.nanoTime();
+      try {
+        uids = uidGenerator.generateUids(namespace, chunkSize);
+      }
+      catch(SequenceExhaustedException e) {
+        final int left = remaining;
+        final boolean none = first;
+        defer(routingContext, e, deferrals,
+            () -> streamUids(routingContext, namespace, type, left, none, deferrals + 1));
+        return;
+      }
+
+      metrics.recordGeneration(namespace, chunkSize, startNanos);
+
+      final Buffer chunk = Buffer.buffer(chunkSize * (namespace.length() + 24));
+      for(String uid : uids) {
+        if(type == ResponseType.TEXT) {
+          chunk.appendString(uid).appendByte((byte)'\n');
+          continue;
+        }
+        if(!first) {
+          chunk.appendByte((byte)',');
+        }
+        chunk.appendByte((byte)'"').appendString(uid).appendByte((byte)'"');
+        first = false;
+      }
+      response.write(chunk);
+      remaining -= chunkSize;
 
-      routingContext.response()
-          .setStatusCode(400)
-          .end(Json.encodePrettily(error));
+      if(remaining > 0 && response.writeQueueFull()) {
+        final int left = remaining;
+        final boolean none = first;
+        resumeOnDrain(routingContext,
+            () -> streamUids(routingContext, namespace, type, left, none, deferrals));
+        return;
+      }
+    }
+
+    endBatch(response, type);
+  }
+
+  /**
+   * Same as {@link #streamUids}, for generators of 64 bits ids: ids are encoded straight into the
+   * response chunks, without creating a string per id.
+   */
+  private void streamEncodedUids(
+      RoutingContext routingContext,
+      String namespace,
+      IdEncoder encoder,
+      ResponseType type,
+      int remaining,
+      boolean first,
+      int deferrals) {
+    final HttpServerResponse response = routingContext.response();
+
+    while(remaining > 0) {
+      final int chunkSize = Math.min(BATCH_CHUNK_SIZE, remaining);
+      final long startNanos = System.nanoTime();
+      try {
+        longUidGenerator.generateLongIds(namespace, idChunk, 0, chunkSize);
+      }
+      catch(SequenceExhaustedException e) {
+        final int left = remaining;
+        final boolean none = first;
+        defer(routingContext, e, deferrals, () -> streamEncodedUids(
+            routingContext, namespace, encoder, type, left, none, deferrals + 1));
+        return;
+      }
+
+      metrics.recordGeneration(namespace, chunkSize, startNanos);
+
+      final Buffer chunk =
+          Buffer.buffer(chunkSize * (namespace.length() + encoder.maxLength() + 4));
+      for(int i = 0; i < chunkSize; i++) {
+        if(type == ResponseType.BINARY) {
+          chunk.appendLong(idChunk[i]);
+          continue;
+        }
+
+        final int length = encoder.encode(idChunk[i], encodedId, 0);
+        if(type == ResponseType.TEXT) {
+          responseWriter.appendPrefix(chunk, namespace)
+              .appendBytes(encodedId, 0, length)
+              .appendByte((byte)'\n');
+          continue;
+        }
+
+        if(!first) {
+          chunk.appendByte((byte)',');
+        }
+        responseWriter.appendPrefix(chunk.appendByte((byte)'"'), namespace)
+            .appendBytes(encodedId, 0, length)
+            .appendByte((byte)'"');
+        first = false;
+      }
+      response.write(chunk);
+      remaining -= chunkSize;
+
+      if(remaining > 0 && response.writeQueueFull()) {
+        final int left = remaining;
+        final boolean none = first;
+        resumeOnDrain(routingContext, () -> streamEncodedUids(
+            routingContext, namespace, encoder, type, left, none, deferrals));
+        return;
+      }
+    }
+
+    endBatch(response, type);
+  }
+
+  private void endBatch(HttpServerResponse response, ResponseType type) {
+    if(type == ResponseType.JSON) {
+      response.end("]}");
     }
     else {
-      final String newUid = uidGenerator.generateUid(namespace);
-      final GetIdResponse response = GetIdResponse.builder().uid(newUid).build();
+      response.end();
+    }
+  }
+
+  private void defer(
+      RoutingContext routingContext,
+      SequenceExhaustedException e,
+      int deferrals,
+      Runnable retry) {
+    if(deferrals >= MAX_DEFERRALS) {
+      fail(routingContext, e);
+      return;
+    }
+    routingContext.vertx().setTimer(e.getRetryAfterMillis(), id -> resume(routingContext, retry));
+  }
+
+  /**
+   * Resume a request once its write queue drained. The drain handler may fire again before the
+   * continuation, when not run inline, refills the queue: it is cleared and resumes only once. The
+   * queue may also drain before the handler is set when streaming from a worker thread, hence the
+   * check that follows.
+   */
+  private void resumeOnDrain(RoutingContext routingContext, Runnable continuation) {
+    final HttpServerResponse response = routingContext.response();
+    final AtomicBoolean resumed = new AtomicBoolean();
+    final Handler<Void> drained = v -> {
+      if(resumed.compareAndSet(false, true)) {
+        response.drainHandler(null);
+        resume(routingContext, continuation);
+      }
+    };
+    response.drainHandler(drained);
+    if(!response.writeQueueFull()) {
+      drained.handle(null);
+    }
+  }
+
+  /**
+   * Run the continuation of a request, on a deferral timer or once its write queue drained. These
+   * run outside of the router, so errors they throw are failed here rather than left to it.
+   * Requests whose connection closed meanwhile are dropped.
+   */
+  private void resume(RoutingContext routingContext, Runnable continuation) {
+    continuations.execute(() -> {
+      if(routingContext.response().closed()) {
+        return;
+      }
+      try {
+        continuation.run();
+      }
+      catch(RuntimeException e) {
+        fail(routingContext, e);
+      }
+    });
+  }
+
+  /**
+   * Fail a request. Once the head of a streamed batch is written, its status can't be changed: the
+   * response is reset instead, so that the client sees an aborted transfer rather than a 200 with
+   * a truncated body.
+   */
+  static void fail(RoutingContext routingContext, Throwable failure) {
+    final HttpServerResponse response = routingContext.response();
+    if(!response.headWritten()) {
+      routingContext.fail(failure);
+      return;
+    }
+    logger.error("Request failed after its response started, aborting it", failure);
+    abort(routingContext);
+  }
 
-      routingContext.response()
-          .setStatusCode(200)
-          .end(Json.encodePrettily(response));
+  /**
+   * Abort a response whose head is written: HTTP/2 streams are reset, HTTP/1.x connections are
+   * closed as resetting them is not supported.
+   */
+  static void abort(RoutingContext routingContext) {
+    if(routingContext.request().version() == HttpVersion.HTTP_2) {
+      routingContext.response().reset();
+    }
+    else {
+      routingContext.response().close();
     }
   }
+
+  /**
+   * @param continuations runs the continuations of the requests of the copy, which would otherwise
+   * run on the event loop firing their deferral timer or drain handler
+   * @return another handler sharing the generator and metrics of this one, with scratch buffers of
+   * its own. The generator is closed by this handler only.
+   */
+  public ApiHandler copy(Executor continuations) {
+    return new ApiHandler(uidGenerator, maxBatchSize, metrics, continuations);
+  }
+
+  /**
+   * Close the generator, once the verticle owning this handler stops.
+   */
+  public void close() {
+    uidGenerator.close();
+  }
+
+  private void sendBadRequest(RoutingContext routingContext, String message) {
+    sendError(routingContext, 400, message);
+  }
+
+  /**
+   * Errors are always sent as json, whatever the representation negotiated for the request.
+   */
+  static void sendError(RoutingContext routingContext, int code, String message) {
+    final ErrorResponse error = ErrorResponse
+        .builder()
+        .message(message)
+        .code(code)
+        .build();
+
+    routingContext.response()
+        .setStatusCode(code)
+        .putHeader(HttpHeaders.CONTENT_TYPE, ResponseType.JSON.getContentType())
+        .end(Json.encodePrettily(error));
+  }
 }
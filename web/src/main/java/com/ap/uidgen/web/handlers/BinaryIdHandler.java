@@ -0,0 +1,235 @@
+package com.ap.uidgen.web.handlers;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.parsetools.RecordParser;
+
+import com.ap.uidgen.core.services.LongUniqueIdGenerator;
+import com.ap.uidgen.core.services.UniqueIdGenerator;
+import com.ap.uidgen.core.services.snowflake.SequenceExhaustedException;
+import com.ap.uidgen.web.metrics.UidMetrics;
+
+/**
+ * Serves 64 bits ids over raw TCP connections with a pipelined binary protocol. Clients keep
+ * connections open and may send any number of requests without waiting for responses, which are
+ * sent back in request order. All integers are big endian:
+ *
+ * <pre>
+ * request:  [namespace length: 1 byte][namespace: ASCII][count: 4 bytes]
+ * response: [status: 1 byte][count: 4 bytes][ids: count x 8 bytes]
+ * </pre>
+ *
+ * The count of a response is 0 unless its status is {@link #STATUS_OK}. Namespaces and counts are
+ * validated as in {@link ApiHandler}.
+ *
+ * When the generator defers on sequence exhaustion, reading from the connection is paused until
+ * the response is written, keeping responses in order. Reading is paused as well while the write
+ * queue of the connection is full.
+ *
+ * Each verticle instance owns a handler and its generator, confined to the event loop of the
+ * verticle like {@link ApiHandler}.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class BinaryIdHandler implements Handler<NetSocket>
+{
+  private static final Logger logger = LoggerFactory.getLogger(BinaryIdHandler.class);
+
+  public static final byte STATUS_OK = 0;
+  public static final byte STATUS_INVALID_NAMESPACE = 1;
+  public static final byte STATUS_INVALID_COUNT = 2;
+  public static final byte STATUS_UNAVAILABLE = 3;
+
+  // status and count
+  public static final int RESPONSE_HEADER_SIZE = 5;
+
+  // number of ids generated at once
+  private static final int CHUNK_SIZE = 256;
+
+  // number of times a request is deferred to a later tick on sequence exhaustion before failing
+  private static final int MAX_DEFERRALS = 100;
+
+  private final Vertx vertx;
+  private final LongUniqueIdGenerator generator;
+  private final int maxBatchSize;
+  private final UidMetrics metrics;
+
+  // scratch space shared by the connections of the handler, only used within a single pass
+  private final long[] idChunk = new long[CHUNK_SIZE];
+
+  public BinaryIdHandler(Vertx vertx, UniqueIdGenerator generator, int maxBatchSize) {
+    this(vertx, generator, maxBatchSize, new UidMetrics());
+  }
+
+  public BinaryIdHandler(
+      Vertx vertx,
+      UniqueIdGenerator generator,
+      int maxBatchSize,
+      UidMetrics metrics) {
+    if(!(generator instanceof LongUniqueIdGenerator)) {
+      throw new IllegalArgumentException("Binary protocol requires a generator of 64 bits ids");
+    }
+    this.vertx = vertx;
+    this.generator = (LongUniqueIdGenerator)generator;
+    this.maxBatchSize = maxBatchSize;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void handle(NetSocket socket) {
+    new Connection(socket);
+  }
+
+  /**
+   * Close the generator, once the verticle owning this handler stops.
+   */
+  public void close() {
+    generator.close();
+  }
+
+  /**
+   * Protocol state of a connection.
+   */
+  private class Connection
+  {
+    private final NetSocket socket;
+    private final RecordParser parser;
+
+    // length of the namespace of the request being read, -1 while reading the length itself
+    private int namespaceLength = -1;
+
+    // namespace of the previous request, pipelining clients usually stick to a namespace
+    private String lastNamespace;
+
+    private boolean closed;
+
+    Connection(NetSocket socket) {
+      this.socket = socket;
+      this.parser = RecordParser.newFixed(1, socket);
+      parser.exceptionHandler(e -> {
+        logger.warn("Closing connection from {} on error", socket.remoteAddress(), e);
+        socket.close();
+      });
+      socket.closeHandler(v -> closed = true);
+      parser.handler(this::handleRecord);
+    }
+
+    private void handleRecord(Buffer record) {
+      if(namespaceLength < 0) {
+        namespaceLength = record.getUnsignedByte(0);
+        parser.fixedSizeMode(namespaceLength + Integer.BYTES);
+        return;
+      }
+
+      final String namespace = namespaceOf(record, namespaceLength);
+      final long count = record.getUnsignedInt(namespaceLength);
+      namespaceLength = -1;
+      parser.fixedSizeMode(1);
+
+      if(NamespaceValidator.isValidNamespace(namespace) == false) {
+        logger.warn("Invalid namespace provided {}", namespace);
+        write(error(STATUS_INVALID_NAMESPACE));
+        return;
+      }
+      if(count < 1 || count > maxBatchSize) {
+        logger.warn("Invalid count provided {}", count);
+        write(error(STATUS_INVALID_COUNT));
+        return;
+      }
+
+      final Buffer response = Buffer.buffer(RESPONSE_HEADER_SIZE + (int)count * Long.BYTES)
+          .appendByte(STATUS_OK)
+          .appendInt((int)count);
+      generate(namespace, response, (int)count, 0);
+    }
+
+    /**
+     * Append the remaining ids to the response and write it. Requests of closed connections are
+     * dropped rather than consuming sequence numbers.
+     *
+     * @return false if the request was deferred to a later tick
+     */
+    private boolean generate(String namespace, Buffer response, int remaining, int deferrals) {
+      if(closed) {
+        return true;
+      }
+      while(remaining > 0) {
+        final int chunkSize = Math.min(CHUNK_SIZE, remaining);
+        final long startNanos = System.nanoTime();
+        try {
+          generator.generateLongIds(namespace, idChunk, 0, chunkSize);
+        }
+        catch(SequenceExhaustedException e) {
+          if(deferrals >= MAX_DEFERRALS) {
+            write(error(STATUS_UNAVAILABLE));
+            return true;
+          }
+
+          // hold back the following requests until this response is written
+          parser.pause();
+          final int left = remaining;
+          vertx.setTimer(e.getRetryAfterMillis(), id -> {
+            if(closed) {
+              return;
+            }
+            if(generate(namespace, response, left, deferrals + 1) && !socket.writeQueueFull()) {
+              parser.resume();
+            }
+          });
+          return false;
+        }
+        catch(IllegalStateException e) {
+          logger.error("Unable to generate ids", e);
+          write(error(STATUS_UNAVAILABLE));
+          return true;
+        }
+        metrics.recordGeneration(namespace, chunkSize, startNanos);
+
+        for(int i = 0; i < chunkSize; i++) {
+          response.appendLong(idChunk[i]);
+        }
+        remaining -= chunkSize;
+      }
+
+      write(response);
+      return true;
+    }
+
+    private void write(Buffer response) {
+      if(closed) {
+        return;
+      }
+
+      socket.write(response);
+      if(socket.writeQueueFull()) {
+        parser.pause();
+        socket.drainHandler(v -> parser.resume());
+      }
+    }
+
+    private String namespaceOf(Buffer record, int length) {
+      final String last = lastNamespace;
+      if(last != null && last.length() == length) {
+        int i = 0;
+        while(i < length && record.getByte(i) == last.charAt(i)) {
+          i++;
+        }
+        if(i == length) {
+          return last;
+        }
+      }
+
+      lastNamespace = record.getString(0, length, "US-ASCII");
+      return lastNamespace;
+    }
+  }
+
+  private static Buffer error(byte status) {
+    return Buffer.buffer(RESPONSE_HEADER_SIZE).appendByte(status).appendInt(0);
+  }
+}
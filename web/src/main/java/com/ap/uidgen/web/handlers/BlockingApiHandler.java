@@ -0,0 +1,90 @@
+package com.ap.uidgen.web.handlers;
+
+import io.vertx.core.WorkerExecutor;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import lombok.NonNull;
+
+/**
+ * Runs the {@link ApiHandler} routes on a pool of worker threads instead of the event loop, for
+ * the worker execution mode. Generators may then block, e.g. spin on sequence exhaustion, without
+ * stalling the other requests of the event loop.
+ *
+ * An {@link ApiHandler} keeps scratch buffers which must not be shared: each request takes an idle
+ * handler from a pool, or creates one, and hands it back once its response ends. Continuations of
+ * a request, after its write queue drained or on a deferral timer, thus keep the handler to
+ * themselves. They are sent back to the pool as well, rather than run on the event loop firing
+ * them, so that only pool threads ever call the generator. Handlers of responses never ended, e.g.
+ * on a closed connection, are simply dropped. All handlers share the generator of the verticle,
+ * which must be thread safe.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class BlockingApiHandler
+{
+  private final WorkerExecutor executor;
+  private final Function<Executor, ApiHandler> handlerFactory;
+
+  // handlers not serving any request
+  private final Queue<ApiHandler> idle = new ConcurrentLinkedQueue<>();
+
+  /**
+   * @param executor pool of worker threads running the handlers
+   * @param handlerFactory creates handlers sharing a thread safe generator and running their
+   * continuations with the given executor, e.g. {@link ApiHandler#copy(Executor)}
+   */
+  public BlockingApiHandler(
+      @NonNull final WorkerExecutor executor,
+      @NonNull final Function<Executor, ApiHandler> handlerFactory) {
+    this.executor = executor;
+    this.handlerFactory = handlerFactory;
+  }
+
+  /**
+   * See {@link ApiHandler#handleGetId(RoutingContext)}.
+   */
+  public void handleGetId(final RoutingContext routingContext) {
+    dispatch(routingContext, ApiHandler::handleGetId);
+  }
+
+  /**
+   * See {@link ApiHandler#handleGetIds(RoutingContext)}.
+   */
+  public void handleGetIds(final RoutingContext routingContext) {
+    dispatch(routingContext, ApiHandler::handleGetIds);
+  }
+
+  private void dispatch(
+      final RoutingContext routingContext,
+      final BiConsumer<ApiHandler, RoutingContext> route) {
+    final ApiHandler pooled = idle.poll();
+    final ApiHandler handler = pooled != null ? pooled : handlerFactory.apply(this::resume);
+    routingContext.addBodyEndHandler(v -> idle.offer(handler));
+
+    executor.<Void>executeBlocking(promise -> {
+      route.accept(handler, routingContext);
+      promise.complete();
+    }, false, ar -> {
+      if(ar.failed()) {
+        routingContext.fail(ar.cause());
+      }
+    });
+  }
+
+  /**
+   * Run a continuation of a request on the pool. Continuations fail their request themselves.
+   */
+  private void resume(final Runnable continuation) {
+    executor.<Void>executeBlocking(promise -> {
+      continuation.run();
+      promise.complete();
+    }, false, null);
+  }
+}
@@ -0,0 +1,96 @@
+package com.ap.uidgen.web.handlers;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.NonNull;
+
+import com.ap.uidgen.web.metrics.UidMetrics;
+
+/**
+ * Bound on the number of requests in flight across all event loops. Past the bound, requests are
+ * rejected right away with a 503 error and a Retry-After header rather than queued behind the
+ * others: when event loops are saturated, shedding the excess keeps the latency of the requests
+ * admitted predictable.
+ *
+ * A single instance is shared by all verticles. A request is in flight from the time it is routed
+ * until its response ends or its connection closes.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class ConcurrencyLimitHandler implements Handler<RoutingContext>
+{
+  // seconds callers are asked to wait, saturation is expected to be short lived
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  private final int maxConcurrentRequests;
+  private final UidMetrics metrics;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  /**
+   * @param maxConcurrentRequests requests in flight above which new ones are rejected, 0 leaves
+   * them unbounded
+   * @param metrics metrics counting the requests shed
+   */
+  public ConcurrencyLimitHandler(
+      final int maxConcurrentRequests,
+      @NonNull final UidMetrics metrics) {
+    if(maxConcurrentRequests < 0) {
+      throw new IllegalArgumentException("max concurrent requests must be positive or 0");
+    }
+    this.maxConcurrentRequests = maxConcurrentRequests;
+    this.metrics = metrics;
+  }
+
+  /**
+   * @return whether requests in flight are bounded, the handler is useless otherwise
+   */
+  public boolean isEnabled() {
+    return maxConcurrentRequests > 0;
+  }
+
+  @Override
+  public void handle(final RoutingContext context) {
+    if(inFlight.incrementAndGet() > maxConcurrentRequests) {
+      inFlight.decrementAndGet();
+      metrics.getOverloaded().inc();
+      context.response().putHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+      ApiHandler.sendError(context, 503, "Too many requests in flight");
+      return;
+    }
+
+    final Completion completion = new Completion();
+    context.addBodyEndHandler(completion);
+    context.response().closeHandler(completion);
+    context.next();
+  }
+
+  /**
+   * @return number of requests currently in flight
+   */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * Leaves the request once, whether its response ends or its connection closes first. Responses
+   * may end on a worker thread, see {@link BlockingApiHandler}.
+   */
+  private final class Completion implements Handler<Void>
+  {
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    @Override
+    public void handle(final Void event) {
+      if(done.compareAndSet(false, true)) {
+        inFlight.decrementAndGet();
+      }
+    }
+  }
+}
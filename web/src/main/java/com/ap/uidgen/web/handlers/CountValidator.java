@@ -0,0 +1,73 @@
+package com.ap.uidgen.web.handlers;
+
+/**
+ * Basic validator for the batch count query parameter
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class CountValidator
+{
+  private enum ValidationCode {
+    OK,
+    BLANK,
+    NOT_A_NUMBER,
+    OUT_OF_RANGE
+  };
+
+  private final String count;
+  private final int maxCount;
+  private ValidationCode code = ValidationCode.BLANK;
+  private int value;
+
+  public CountValidator(String count, int maxCount) {
+    this.count = count;
+    this.maxCount = maxCount;
+    validate();
+  }
+
+  public boolean isValid() {
+    return code == ValidationCode.OK;
+  }
+
+  public int getValue() {
+    return value;
+  }
+
+  public String getValidationMessage() {
+    String msg = "";
+    switch(code) {
+      case NOT_A_NUMBER:
+      case OUT_OF_RANGE:
+        msg = "Count must be a number between 1 and " + maxCount;
+        break;
+      case BLANK:
+        msg = "Count must not be blank. It must be a number between 1 and " + maxCount;
+        break;
+      default:
+        msg = "";
+    }
+    return msg;
+  }
+
+  private void validate() {
+    if(count == null || count.length() == 0) {
+      code = ValidationCode.BLANK;
+      return;
+    }
+
+    try {
+      value = Integer.parseInt(count);
+    }
+    catch(NumberFormatException e) {
+      code = ValidationCode.NOT_A_NUMBER;
+      return;
+    }
+
+    if(value < 1 || value > maxCount) {
+      code = ValidationCode.OUT_OF_RANGE;
+    }
+    else {
+      code = ValidationCode.OK;
+    }
+  }
+}
@@ -16,6 +16,11 @@ public class FailureHandler implements Handler<RoutingContext>
   public void handle(RoutingContext context) {
     Throwable thrown = context.failure();
     recordError(thrown);
+    if(context.response().headWritten()) {
+      // a streamed batch failing midway, its status is already sent: abort the transfer
+      ApiHandler.abort(context);
+      return;
+    }
     context.response().setStatusCode(500).end();
   }
 
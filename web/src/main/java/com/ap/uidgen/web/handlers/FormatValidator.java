@@ -0,0 +1,84 @@
+package com.ap.uidgen.web.handlers;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import com.ap.uidgen.core.services.encoding.IdFormat;
+
+/**
+ * Basic validator for the optional id format query parameter
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class FormatValidator
+{
+  private enum ValidationCode {
+    OK,
+    UNKNOWN_FORMAT,
+    UNSUPPORTED_BY_GENERATOR
+  };
+
+  private static final String FORMAT_NAMES = Arrays.stream(IdFormat.values())
+      .map(IdFormat::getFormatName)
+      .collect(Collectors.joining(", "));
+
+  private final String format;
+  private final boolean supported;
+  private ValidationCode code = ValidationCode.UNKNOWN_FORMAT;
+  private Optional<IdFormat> value = Optional.empty();
+
+  /**
+   * @param format requested format, null when not provided
+   * @param supported whether the generator emits 64 bits ids, the only ones formats apply to
+   */
+  public FormatValidator(String format, boolean supported) {
+    this.format = format;
+    this.supported = supported;
+    validate();
+  }
+
+  public boolean isValid() {
+    return code == ValidationCode.OK;
+  }
+
+  /**
+   * @return the requested format, empty when none was provided
+   */
+  public Optional<IdFormat> getValue() {
+    return value;
+  }
+
+  public String getValidationMessage() {
+    String msg = "";
+    switch(code) {
+      case UNKNOWN_FORMAT:
+        msg = "Format must be one of " + FORMAT_NAMES;
+        break;
+      case UNSUPPORTED_BY_GENERATOR:
+        msg = "Format is not supported by the configured id generator";
+        break;
+      default:
+        msg = "";
+    }
+    return msg;
+  }
+
+  private void validate() {
+    if(format == null) {
+      code = ValidationCode.OK;
+      return;
+    }
+
+    value = IdFormat.fromName(format);
+    if(!value.isPresent()) {
+      code = ValidationCode.UNKNOWN_FORMAT;
+    }
+    else if(!supported) {
+      code = ValidationCode.UNSUPPORTED_BY_GENERATOR;
+    }
+    else {
+      code = ValidationCode.OK;
+    }
+  }
+}
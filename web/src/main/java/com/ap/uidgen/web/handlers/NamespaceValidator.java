@@ -1,7 +1,9 @@
 package com.ap.uidgen.web.handlers;
 
 /**
- * Basic validator for namespace query parameter
+ * Basic validator for namespace query parameter. Characters are checked against a lookup table
+ * rather than a regular expression, and {@link #isValidNamespace(String)} validates without
+ * creating a validator for the common case of a valid namespace.
  * @author aparadis
  * @since 1.0.0
  */
@@ -15,7 +17,21 @@ public class NamespaceValidator
   };
 
   private static final int MAX_LENGTH = 50;
-  private static final String VALID_NAMESPACE_REGEX = "^\\w+$";
+
+  // characters allowed in a namespace: [a-zA-Z_0-9], indexed by ascii code
+  private static final boolean[] VALID_CHARACTERS = new boolean[128];
+  static {
+    for(char c = 'a'; c <= 'z'; c++) {
+      VALID_CHARACTERS[c] = true;
+    }
+    for(char c = 'A'; c <= 'Z'; c++) {
+      VALID_CHARACTERS[c] = true;
+    }
+    for(char c = '0'; c <= '9'; c++) {
+      VALID_CHARACTERS[c] = true;
+    }
+    VALID_CHARACTERS['_'] = true;
+  }
 
   private final String namespace;
   private ValidationCode code = ValidationCode.BLANK;
@@ -29,6 +45,16 @@ public class NamespaceValidator
     return code == ValidationCode.OK;
   }
 
+  /**
+   * @return true if the namespace is valid, same as {@link #isValid()} without any allocation
+   */
+  public static boolean isValidNamespace(String namespace) {
+    return namespace != null
+        && namespace.length() > 0
+        && namespace.length() <= MAX_LENGTH
+        && hasValidCharacters(namespace);
+  }
+
   public String getValidationMessage() {
     String msg = "";
     switch(code) {
@@ -54,11 +80,21 @@ public class NamespaceValidator
     else if(namespace.length() > MAX_LENGTH) {
       code = ValidationCode.INVALID_LENGTH;
     }
-    else if(!namespace.matches(VALID_NAMESPACE_REGEX)) {
+    else if(!hasValidCharacters(namespace)) {
       code = ValidationCode.INVALID_CHARACTERS;
     }
     else {
       code = ValidationCode.OK;
     }
   }
+
+  private static boolean hasValidCharacters(String namespace) {
+    for(int i = 0; i < namespace.length(); i++) {
+      final char c = namespace.charAt(i);
+      if(c >= VALID_CHARACTERS.length || !VALID_CHARACTERS[c]) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
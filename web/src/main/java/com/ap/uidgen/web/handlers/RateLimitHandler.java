@@ -0,0 +1,190 @@
+package com.ap.uidgen.web.handlers;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+
+import com.ap.uidgen.web.metrics.UidMetrics;
+
+/**
+ * Per namespace quota of ids, in front of the routes generating them. Each namespace gets a token
+ * bucket refilled at its rate of ids per second, holding at most one second worth of ids. A
+ * request takes one token per id it asks for, batches their count: requests finding too few
+ * tokens are answered with a 429 error and a Retry-After header, in seconds, telling when enough
+ * tokens will be available.
+ *
+ * A handler instance is created per verticle, buckets are only ever updated from the event loop of
+ * that verticle, so no lock or atomic operation is involved. Quotas therefore apply per event
+ * loop, i.e. per worker id sequence space: a namespace exhausting the sequence of one verticle
+ * only gets shed on that verticle.
+ *
+ * Buckets of the least recently used namespaces are dropped past {@link #MAX_NAMESPACES}, coming
+ * back full.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class RateLimitHandler implements Handler<RoutingContext>
+{
+  public static final int MAX_NAMESPACES = 4096;
+
+  private static final String NAMESPACE_PARAM_NAME = "namespace";
+  private static final String COUNT_PARAM_NAME = "count";
+
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final long defaultIdsPerSecond;
+  private final Map<String, Long> namespaceIdsPerSecond;
+  private final UidMetrics metrics;
+
+  // access ordered, the eldest entry is the least recently used namespace
+  private final Map<String, TokenBucket> buckets =
+      new LinkedHashMap<String, TokenBucket>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, TokenBucket> eldest) {
+          return size() > MAX_NAMESPACES;
+        }
+      };
+
+  /**
+   * @param defaultIdsPerSecond quota of namespaces without their own, 0 leaves them unlimited
+   * @param namespaceIdsPerSecond quotas of specific namespaces, 0 leaving one unlimited
+   * @param metrics metrics counting the requests shed
+   */
+  public RateLimitHandler(
+      final long defaultIdsPerSecond,
+      @NonNull final Map<String, Long> namespaceIdsPerSecond,
+      @NonNull final UidMetrics metrics) {
+    if(defaultIdsPerSecond < 0 || namespaceIdsPerSecond.values().stream().anyMatch(q -> q < 0)) {
+      throw new IllegalArgumentException("quotas must be positive or 0");
+    }
+    this.defaultIdsPerSecond = defaultIdsPerSecond;
+    this.namespaceIdsPerSecond = new HashMap<>(namespaceIdsPerSecond);
+    this.metrics = metrics;
+  }
+
+  /**
+   * @return whether any namespace has a quota, the handler is useless otherwise
+   */
+  public boolean isEnabled() {
+    return defaultIdsPerSecond > 0
+        || namespaceIdsPerSecond.values().stream().anyMatch(quota -> quota > 0);
+  }
+
+  @Override
+  public void handle(final RoutingContext context) {
+    final String namespace = context.pathParam(NAMESPACE_PARAM_NAME);
+    if(!NamespaceValidator.isValidNamespace(namespace)) {
+      // rejected by the api handler, without consuming any quota
+      context.next();
+      return;
+    }
+
+    final long idsPerSecond = namespaceIdsPerSecond.getOrDefault(namespace, defaultIdsPerSecond);
+    if(idsPerSecond == 0) {
+      context.next();
+      return;
+    }
+
+    TokenBucket bucket = buckets.get(namespace);
+    if(bucket == null) {
+      bucket = new TokenBucket(idsPerSecond);
+      buckets.put(namespace, bucket);
+    }
+
+    final long waitNanos = bucket.tryAcquire(requestedIds(context), System.nanoTime());
+    if(waitNanos == 0) {
+      context.next();
+      return;
+    }
+
+    // whole seconds, rounded up
+    final long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1;
+    metrics.getRateLimited().inc();
+    context.response().putHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    ApiHandler.sendError(context, 429, "Quota of namespace " + namespace + " exceeded");
+  }
+
+  /**
+   * @return number of ids asked for, 1 when the count is missing or invalid: such batches are
+   * rejected by the api handler
+   */
+  private static int requestedIds(final RoutingContext context) {
+    final String count = context.request().getParam(COUNT_PARAM_NAME);
+    if(count == null) {
+      return 1;
+    }
+    try {
+      return Math.max(1, Integer.parseInt(count));
+    }
+    catch(NumberFormatException e) {
+      return 1;
+    }
+  }
+
+  /**
+   * @return quotas of namespaces parsed from a comma separated list of namespace=ids per second
+   */
+  public static Map<String, Long> parseQuotas(final String quotas) {
+    if(quotas == null || quotas.trim().isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    final Map<String, Long> parsed = new HashMap<>();
+    for(String quota : quotas.split(",")) {
+      final int separator = quota.indexOf('=');
+      if(separator <= 0) {
+        throw new IllegalArgumentException("invalid namespace quota: " + quota);
+      }
+      parsed.put(quota.substring(0, separator).trim(),
+          Long.parseLong(quota.substring(separator + 1).trim()));
+    }
+    return parsed;
+  }
+
+  /**
+   * Tokens refilled continuously at the rate of the quota, up to one second worth of tokens.
+   */
+  static final class TokenBucket
+  {
+    private final double capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(final long idsPerSecond) {
+      this.capacity = idsPerSecond;
+      this.tokensPerNano = idsPerSecond / NANOS_PER_SECOND;
+      this.tokens = capacity;
+      this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Take tokens if enough are available. A request for more tokens than the capacity only needs
+     * a full bucket, which it drains.
+     *
+     * @return 0 if the tokens were taken, otherwise the time until enough are available, in
+     * nanoseconds
+     */
+    long tryAcquire(final int count, final long nowNanos) {
+      tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * tokensPerNano);
+      lastRefillNanos = nowNanos;
+
+      final double needed = Math.min(count, capacity);
+      if(tokens >= needed) {
+        tokens -= needed;
+        return 0L;
+      }
+      return Math.max(1L, (long)Math.ceil((needed - tokens) / tokensPerNano));
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.ap.uidgen.web.handlers;
+
+/**
+ * Representations of uid responses, negotiated from the {@code Accept} header of requests.
+ *
+ * <ul>
+ *   <li>JSON: {@code {"uid" : "<uid>"}} or {@code {"uids":["<uid>",...]}}</li>
+ *   <li>TEXT: the bare uid, or one uid per line for batches</li>
+ *   <li>BINARY: the 64 bits id as 8 big endian bytes, without namespace. Batches are prefixed by
+ *   the number of ids as 4 big endian bytes. Only available for generators of 64 bits ids.</li>
+ * </ul>
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public enum ResponseType
+{
+  JSON("application/json"),
+  TEXT("text/plain"),
+  BINARY("application/octet-stream");
+
+  private final String contentType;
+
+  ResponseType(final String contentType) {
+    this.contentType = contentType;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  /**
+   * @param contentType content type negotiated for a request, may be null
+   * @return the matching response type, JSON when none matches
+   */
+  public static ResponseType fromContentType(final String contentType) {
+    if(contentType != null) {
+      for(ResponseType type : values()) {
+        if(type.contentType.equals(contentType)) {
+          return type;
+        }
+      }
+    }
+    return JSON;
+  }
+}
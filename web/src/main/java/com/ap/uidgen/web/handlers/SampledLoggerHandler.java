@@ -0,0 +1,46 @@
+package com.ap.uidgen.web.handlers;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.LoggerHandler;
+
+/**
+ * Access log of one request out of {@code sampleRate}, the others being passed on without being
+ * logged. A sample rate of 1 logs every request, 0 none.
+ *
+ * Requests are counted per handler instance: each verticle creates its own router, so the count
+ * is only ever updated from the event loop of that verticle.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class SampledLoggerHandler implements Handler<RoutingContext>
+{
+  private final LoggerHandler delegate;
+  private final int sampleRate;
+
+  private int skipped;
+
+  public SampledLoggerHandler(final int sampleRate) {
+    this(LoggerHandler.create(), sampleRate);
+  }
+
+  public SampledLoggerHandler(final LoggerHandler delegate, final int sampleRate) {
+    if(sampleRate < 0) {
+      throw new IllegalArgumentException("sample rate must be positive or 0");
+    }
+    this.delegate = delegate;
+    this.sampleRate = sampleRate;
+  }
+
+  @Override
+  public void handle(final RoutingContext context) {
+    if(sampleRate > 0 && ++skipped >= sampleRate) {
+      skipped = 0;
+      delegate.handle(context);
+    }
+    else {
+      context.next();
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package com.ap.uidgen.web.handlers;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.ap.uidgen.core.services.encoding.IdEncoder;
+import com.ap.uidgen.web.models.GetIdResponse;
+
+/**
+ * Writes uid responses straight into buffers, byte for byte identical to the
+ * {@link Json#encodePrettily(Object)} serialization of a {@link GetIdResponse}:
+ *
+ * <pre>
+ * {
+ *   "uid" : "&lt;namespace&gt;-&lt;id&gt;"
+ * }
+ * </pre>
+ *
+ * Plain text and binary representations are written as well, see {@link ResponseType}.
+ *
+ * Uids only contain characters in [a-zA-Z_0-9-], no json escaping is required. The bytes of the
+ * envelope head followed by the namespace prefix are cached per namespace, up to a bound after
+ * which the least recently used namespaces are evicted.
+ *
+ * Not thread safe: each handler, confined to the event loop of its verticle, owns a writer.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class UidResponseWriter
+{
+  public static final int DEFAULT_MAX_CACHED_NAMESPACES = 1024;
+
+  // same line separator as the jackson pretty printer
+  private static final String NEW_LINE = System.lineSeparator();
+  private static final byte[] ENVELOPE_HEAD =
+      ("{" + NEW_LINE + "  \"uid\" : \"").getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] ENVELOPE_TAIL =
+      ("\"" + NEW_LINE + "}").getBytes(StandardCharsets.US_ASCII);
+
+  // envelope head and namespace prefix, by namespace
+  private final Map<String, byte[]> heads;
+
+  // scratch space for encoded ids, decimal being the longest encoding
+  private final byte[] encodedId = new byte[20];
+
+  public UidResponseWriter() {
+    this(DEFAULT_MAX_CACHED_NAMESPACES);
+  }
+
+  public UidResponseWriter(final int maxCachedNamespaces) {
+    this.heads = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+        return size() > maxCachedNamespaces;
+      }
+    };
+  }
+
+  /**
+   * @return the response for the id encoded with the supplied encoder
+   */
+  public Buffer write(final String namespace, final long id, final IdEncoder encoder) {
+    final byte[] head = head(namespace);
+    final int length = encoder.encode(id, encodedId, 0);
+    return Buffer.buffer(head.length + length + ENVELOPE_TAIL.length)
+        .appendBytes(head)
+        .appendBytes(encodedId, 0, length)
+        .appendBytes(ENVELOPE_TAIL);
+  }
+
+  /**
+   * @return the response for an already formatted uid
+   */
+  public Buffer write(final String uid) {
+    return Buffer.buffer(ENVELOPE_HEAD.length + uid.length() + ENVELOPE_TAIL.length)
+        .appendBytes(ENVELOPE_HEAD)
+        .appendString(uid, StandardCharsets.US_ASCII.name())
+        .appendBytes(ENVELOPE_TAIL);
+  }
+
+  /**
+   * @return the bare uid for the id encoded with the supplied encoder, see {@link ResponseType}
+   */
+  public Buffer writePlain(final String namespace, final long id, final IdEncoder encoder) {
+    final byte[] head = head(namespace);
+    final int length = encoder.encode(id, encodedId, 0);
+    return Buffer.buffer(head.length - ENVELOPE_HEAD.length + length)
+        .appendBytes(head, ENVELOPE_HEAD.length, head.length - ENVELOPE_HEAD.length)
+        .appendBytes(encodedId, 0, length);
+  }
+
+  /**
+   * @return the id as 8 big endian bytes, see {@link ResponseType}
+   */
+  public Buffer writeBinary(final long id) {
+    return Buffer.buffer(Long.BYTES).appendLong(id);
+  }
+
+  /**
+   * Append the namespace prefix of uids ({@code <namespace>-}) to the supplied buffer.
+   */
+  public Buffer appendPrefix(final Buffer buffer, final String namespace) {
+    final byte[] head = head(namespace);
+    return buffer.appendBytes(head, ENVELOPE_HEAD.length, head.length - ENVELOPE_HEAD.length);
+  }
+
+  private byte[] head(final String namespace) {
+    byte[] head = heads.get(namespace);
+    if(head == null) {
+      final int namespaceLength = namespace.length();
+      head = new byte[ENVELOPE_HEAD.length + namespaceLength + 1];
+      System.arraycopy(ENVELOPE_HEAD, 0, head, 0, ENVELOPE_HEAD.length);
+      for(int i = 0; i < namespaceLength; i++) {
+        head[ENVELOPE_HEAD.length + i] = (byte)namespace.charAt(i);
+      }
+      head[head.length - 1] = '-';
+      heads.put(namespace, head);
+    }
+    return head;
+  }
+}
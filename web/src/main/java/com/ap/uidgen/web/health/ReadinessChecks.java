@@ -0,0 +1,104 @@
+package com.ap.uidgen.web.health;
+
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.healthchecks.HealthCheckHandler;
+import io.vertx.ext.healthchecks.Status;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import lombok.NonNull;
+
+import com.ap.uidgen.core.services.WorkerIdStore;
+
+/**
+ * Readiness procedures of the node, shared by all verticle instances:
+ *
+ * - {@code generators}: down while a snowflake generator runs more than {@code maxLeadMillis}
+ * ahead of the clock, i.e. keeps emitting ids on borrowed ticks after sequence exhaustion or a
+ * clock regression, or waits for the clock to catch up with a restored checkpoint.
+ * - {@code worker-ids}: down while a worker id in use may be used by another node, i.e. its lease
+ * was taken over or could not be renewed within its time to live.
+ *
+ * Generators register under a name of their own when built, e.g. their worker id, and unregister
+ * once closed.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class ReadinessChecks
+{
+  public static final long DEFAULT_MAX_CLOCK_LEAD_MILLIS = 100L;
+
+  private final WorkerIdStore idStore;
+  private final long maxLeadMillis;
+
+  // lead of the generators over the clock, by name
+  private final Map<String, LongSupplier> generators = new ConcurrentHashMap<>();
+
+  /**
+   * @param idStore store the worker ids of generators come from
+   * @param maxLeadMillis lead over the clock above which a generator is not ready
+   */
+  public ReadinessChecks(@NonNull final WorkerIdStore idStore, final long maxLeadMillis) {
+    if(maxLeadMillis < 0) {
+      throw new IllegalArgumentException("max clock lead must be positive or 0");
+    }
+    this.idStore = idStore;
+    this.maxLeadMillis = maxLeadMillis;
+  }
+
+  public void register(@NonNull final String name, @NonNull final LongSupplier leadMillis) {
+    generators.put(name, leadMillis);
+  }
+
+  public void unregister(@NonNull final String name) {
+    generators.remove(name);
+  }
+
+  /**
+   * Register all procedures in a handler, e.g. serving {@code GET /ready}.
+   */
+  public HealthCheckHandler registerProcedures(@NonNull final HealthCheckHandler handler) {
+    return handler
+        .register("generators", this::checkGenerators)
+        .register("worker-ids", this::checkWorkerIds);
+  }
+
+  void checkGenerators(final Promise<Status> promise) {
+    final JsonArray ahead = new JsonArray();
+    generators.forEach((name, leadMillis) -> {
+      final long lead = leadMillis.getAsLong();
+      if(lead > maxLeadMillis) {
+        ahead.add(new JsonObject().put("generator", name).put("leadMillis", lead));
+      }
+    });
+
+    final JsonObject data = new JsonObject()
+        .put("generators", generators.size())
+        .put("maxLeadMillis", maxLeadMillis);
+    if(ahead.isEmpty()) {
+      promise.complete(Status.OK(data));
+    }
+    else {
+      promise.complete(Status.KO(data.put("ahead", ahead)));
+    }
+  }
+
+  void checkWorkerIds(final Promise<Status> promise) {
+    final Set<Integer> lost = new TreeSet<>(idStore.getLostWorkerIds());
+    final JsonObject data = new JsonObject().put("inUse", idStore.getWorkerIdsInUse());
+    if(lost.isEmpty()) {
+      promise.complete(Status.OK(data));
+    }
+    else {
+      promise.complete(Status.KO(data.put("lost", new JsonArray(new ArrayList<>(lost)))));
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package com.ap.uidgen.web.metrics;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.Recorder;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+
+/**
+ * Dropwizard reservoir recording every value in an HdrHistogram, instead of sampling them. Each
+ * thread records in its own HdrHistogram recorder, so that event loops recording latencies
+ * never contend on a shared counter. Recorders are merged when a snapshot is taken.
+ *
+ * Each snapshot covers the values recorded since the previous snapshot: quantiles reported on a
+ * scrape describe the latencies of the last scrape interval, not of the lifetime of the process.
+ * The sum of the values, on the other hand, covers the lifetime of the reservoir, like the count of
+ * a timer does.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class HdrHistogramReservoir implements Reservoir
+{
+  // relative error of 0.1% on recorded values, the histogram grows to the largest value recorded
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final List<Recorder> recorders = new CopyOnWriteArrayList<>();
+
+  // striped across threads, like recorders
+  private final LongAdder sum = new LongAdder();
+  private final ThreadLocal<Recorder> recorder = ThreadLocal.withInitial(() -> {
+    final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    recorders.add(recorder);
+    return recorder;
+  });
+
+  @Override
+  public int size() {
+    // only used by dropwizard for reporting, snapshots hold the actual count
+    return 0;
+  }
+
+  @Override
+  public void update(final long value) {
+    final long recorded = Math.max(0L, value);
+    recorder.get().recordValue(recorded);
+    sum.add(recorded);
+  }
+
+  /**
+   * @return sum of all values recorded since the reservoir was created
+   */
+  public long getSum() {
+    return sum.sum();
+  }
+
+  @Override
+  public synchronized Snapshot getSnapshot() {
+    final Histogram merged = new Histogram(SIGNIFICANT_DIGITS);
+    for(Recorder threadRecorder : recorders) {
+      merged.add(threadRecorder.getIntervalHistogram());
+    }
+    return new HistogramSnapshot(merged);
+  }
+
+  private static class HistogramSnapshot extends Snapshot
+  {
+    private final Histogram histogram;
+
+    private HistogramSnapshot(final Histogram histogram) {
+      this.histogram = histogram;
+    }
+
+    @Override
+    public double getValue(final double quantile) {
+      return histogram.getValueAtPercentile(quantile * 100.0);
+    }
+
+    @Override
+    public long[] getValues() {
+      final long[] values = new long[(int)Math.min(Integer.MAX_VALUE, histogram.getTotalCount())];
+      int index = 0;
+      for(HistogramIterationValue value : histogram.recordedValues()) {
+        for(long i = 0; i < value.getCountAtValueIteratedTo() && index < values.length; i++) {
+          values[index++] = value.getValueIteratedTo();
+        }
+      }
+      return values;
+    }
+
+    @Override
+    public int size() {
+      return (int)Math.min(Integer.MAX_VALUE, histogram.getTotalCount());
+    }
+
+    @Override
+    public long getMax() {
+      return histogram.getMaxValue();
+    }
+
+    @Override
+    public double getMean() {
+      return histogram.getMean();
+    }
+
+    @Override
+    public long getMin() {
+      return histogram.getTotalCount() == 0 ? 0L : histogram.getMinValue();
+    }
+
+    @Override
+    public double getStdDev() {
+      return histogram.getStdDeviation();
+    }
+
+    @Override
+    public void dump(final OutputStream output) {
+      try(PrintWriter writer = new PrintWriter(
+          new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+        for(long value : getValues()) {
+          writer.println(value);
+        }
+      }
+    }
+  }
+}
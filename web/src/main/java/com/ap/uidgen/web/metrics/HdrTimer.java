@@ -0,0 +1,31 @@
+package com.ap.uidgen.web.metrics;
+
+import com.codahale.metrics.Timer;
+
+/**
+ * Timer recording durations in an {@link HdrHistogramReservoir}, which also exposes the total time
+ * recorded: Prometheus summaries need it as their {@code _sum} sample.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class HdrTimer extends Timer
+{
+  private final HdrHistogramReservoir reservoir;
+
+  public HdrTimer() {
+    this(new HdrHistogramReservoir());
+  }
+
+  private HdrTimer(final HdrHistogramReservoir reservoir) {
+    super(reservoir);
+    this.reservoir = reservoir;
+  }
+
+  /**
+   * @return total of the durations recorded since the timer was created, in nanoseconds
+   */
+  public long getSumNanos() {
+    return reservoir.getSum();
+  }
+}
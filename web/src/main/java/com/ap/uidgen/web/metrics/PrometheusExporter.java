@@ -0,0 +1,217 @@
+package com.ap.uidgen.web.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import lombok.NonNull;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+/**
+ * Render the metrics of a registry in the Prometheus text exposition format (version 0.0.4).
+ *
+ * Dropwizard names are sanitized into Prometheus names, except for the families below where a
+ * segment of the name becomes a label, so that they aggregate in queries:
+ *
+ * - {@code uidgen.namespace.<namespace>.ids}: {@code uidgen_namespace_ids_total{namespace=...}}
+ * - {@code uidgen.ring-buffer.<worker id>.<name>}: {@code uidgen_ring_buffer_<name>{worker_id=...}}
+ *
+ * Counters and meters are exported as counters, gauges with a numeric or boolean value as gauges,
+ * histograms and timers as summaries. Timers are exported in seconds. Summaries carry a {@code _sum}
+ * sample when the total of the values is known, i.e. for {@link HdrTimer}s.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class PrometheusExporter
+{
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private static final double[] QUANTILES = { 0.5, 0.75, 0.95, 0.99, 0.999 };
+  private static final double SECONDS_PER_NANO = 1.0 / TimeUnit.SECONDS.toNanos(1);
+
+  private static final LabelledFamily[] LABELLED_FAMILIES = {
+      new LabelledFamily("uidgen\\.namespace\\.([^.]+)\\.ids", "uidgen.namespace.ids", "namespace"),
+      new LabelledFamily("uidgen\\.ring-buffer\\.([^.]+)\\.(.+)", "uidgen.ring-buffer.$2",
+          "worker_id")
+  };
+
+  private final MetricRegistry registry;
+
+  public PrometheusExporter(@NonNull final MetricRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * @return all metrics of the registry, one family after the other
+   */
+  public String export() {
+    // samples of a family are written together, under a single TYPE line
+    final Map<String, StringBuilder> families = new LinkedHashMap<>();
+    for(Map.Entry<String, Metric> entry : registry.getMetrics().entrySet()) {
+      String family = entry.getKey();
+      String labels = "";
+      for(LabelledFamily labelled : LABELLED_FAMILIES) {
+        final Matcher matcher = labelled.pattern.matcher(entry.getKey());
+        if(matcher.matches()) {
+          family = matcher.replaceFirst(labelled.family);
+          labels = labelled.label + "=\"" + escape(matcher.group(1)) + "\"";
+          break;
+        }
+      }
+      write(families, sanitize(family), labels, entry.getValue());
+    }
+
+    final StringBuilder output = new StringBuilder();
+    families.values().forEach(output::append);
+    return output.toString();
+  }
+
+  private void write(
+      final Map<String, StringBuilder> families,
+      final String name,
+      final String labels,
+      final Metric metric) {
+    if(metric instanceof Counter) {
+      final String counter = name.endsWith("_total") ? name : name + "_total";
+      sample(family(families, counter, "counter"), counter, labels,
+          ((Counter)metric).getCount());
+    }
+    else if(metric instanceof Gauge) {
+      final Object value = ((Gauge<?>)metric).getValue();
+      if(value instanceof Number) {
+        sample(family(families, name, "gauge"), name, labels, ((Number)value).doubleValue());
+      }
+      else if(value instanceof Boolean) {
+        sample(family(families, name, "gauge"), name, labels, (Boolean)value ? 1 : 0);
+      }
+    }
+    else if(metric instanceof Timer) {
+      final Timer timer = (Timer)metric;
+      final String summary = name + "_seconds";
+      final double sum = timer instanceof HdrTimer ? ((HdrTimer)timer).getSumNanos() : Double.NaN;
+      summary(family(families, summary, "summary"), summary, labels, timer.getSnapshot(),
+          sum, timer.getCount(), SECONDS_PER_NANO);
+    }
+    else if(metric instanceof Histogram) {
+      final Histogram histogram = (Histogram)metric;
+      summary(family(families, name, "summary"), name, labels, histogram.getSnapshot(),
+          Double.NaN, histogram.getCount(), 1.0);
+    }
+    else if(metric instanceof Meter) {
+      final String counter = name + "_total";
+      sample(family(families, counter, "counter"), counter, labels, ((Meter)metric).getCount());
+    }
+  }
+
+  private static StringBuilder family(
+      final Map<String, StringBuilder> families,
+      final String name,
+      final String type) {
+    return families.computeIfAbsent(name,
+        key -> new StringBuilder("# TYPE ").append(key).append(' ').append(type).append('\n'));
+  }
+
+  /**
+   * @param sum total of the values recorded, NaN when unknown and left out
+   */
+  private static void summary(
+      final StringBuilder output,
+      final String name,
+      final String labels,
+      final Snapshot snapshot,
+      final double sum,
+      final long count,
+      final double factor) {
+    for(double quantile : QUANTILES) {
+      final String quantileLabel = "quantile=\"" + quantile + "\"";
+      sample(output, name, labels.isEmpty() ? quantileLabel : labels + "," + quantileLabel,
+          snapshot.getValue(quantile) * factor);
+    }
+    if(!Double.isNaN(sum)) {
+      sample(output, name + "_sum", labels, sum * factor);
+    }
+    sample(output, name + "_count", labels, count);
+  }
+
+  private static void sample(
+      final StringBuilder output,
+      final String name,
+      final String labels,
+      final long value) {
+    labelled(output, name, labels).append(value).append('\n');
+  }
+
+  private static void sample(
+      final StringBuilder output,
+      final String name,
+      final String labels,
+      final double value) {
+    labelled(output, name, labels).append(format(value)).append('\n');
+  }
+
+  private static StringBuilder labelled(
+      final StringBuilder output,
+      final String name,
+      final String labels) {
+    output.append(name);
+    if(!labels.isEmpty()) {
+      output.append('{').append(labels).append('}');
+    }
+    return output.append(' ');
+  }
+
+  private static String format(final double value) {
+    if(Double.isNaN(value)) {
+      return "NaN";
+    }
+    if(Double.isInfinite(value)) {
+      return value > 0 ? "+Inf" : "-Inf";
+    }
+    return Double.toString(value);
+  }
+
+  /**
+   * Replace the characters not allowed in Prometheus names, such as dots, by underscores.
+   */
+  static String sanitize(final String name) {
+    final StringBuilder sanitized = new StringBuilder(name.length() + 1);
+    if(!name.isEmpty() && Character.isDigit(name.charAt(0))) {
+      sanitized.append('_');
+    }
+    for(int i = 0; i < name.length(); i++) {
+      final char c = name.charAt(i);
+      final boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+          || (c >= '0' && c <= '9') || c == '_';
+      sanitized.append(valid ? c : '_');
+    }
+    return sanitized.toString();
+  }
+
+  private static String escape(final String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  private static class LabelledFamily
+  {
+    private final Pattern pattern;
+    private final String family;
+    private final String label;
+
+    private LabelledFamily(final String pattern, final String family, final String label) {
+      this.pattern = Pattern.compile(pattern);
+      this.family = family;
+      this.label = label;
+    }
+  }
+}
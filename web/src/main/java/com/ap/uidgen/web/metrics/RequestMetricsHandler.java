@@ -0,0 +1,29 @@
+package com.ap.uidgen.web.metrics;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+import lombok.NonNull;
+
+/**
+ * Record the latency of requests once their response is fully written, including batches
+ * streamed in chunks and requests deferred on sequence exhaustion.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class RequestMetricsHandler implements Handler<RoutingContext>
+{
+  private final UidMetrics metrics;
+
+  public RequestMetricsHandler(@NonNull final UidMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void handle(final RoutingContext context) {
+    final long startNanos = System.nanoTime();
+    context.addBodyEndHandler(v -> metrics.recordRequest(startNanos));
+    context.next();
+  }
+}
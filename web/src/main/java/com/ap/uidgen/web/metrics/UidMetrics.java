@@ -0,0 +1,150 @@
+package com.ap.uidgen.web.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import lombok.NonNull;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/**
+ * Metrics of id generation, shared by the handlers of all verticle instances:
+ *
+ * - {@code uidgen.namespace.<namespace>.ids}: ids generated per namespace. Namespaces come from
+ * callers, so at most {@code maxNamespaces} of them get their own counter, ids of the others are
+ * counted under {@link #OTHER_NAMESPACE}.
+ * - {@code uidgen.generation.latency}: duration of each call to a generator, for a single id or a
+ * chunk of a batch.
+ * - {@code uidgen.request.latency}: duration of requests, from routing to the end of the response.
+ * - {@code uidgen.requests.rate-limited}, {@code uidgen.requests.overloaded}: requests shed for
+ * exceeding the quota of their namespace, or the bound on requests in flight.
+ *
+ * Latencies are recorded in HdrHistograms, see {@link HdrHistogramReservoir}.
+ *
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class UidMetrics
+{
+  public static final int DEFAULT_MAX_NAMESPACES = 100;
+
+  // not a valid namespace, can't collide with the counter of an actual namespace
+  public static final String OTHER_NAMESPACE = "-other";
+
+  private static final String NAMESPACE_PREFIX = "uidgen.namespace";
+
+  private final MetricRegistry registry;
+  private final int maxNamespaces;
+
+  private final Map<String, Counter> namespaceIds = new ConcurrentHashMap<>();
+  private final Counter otherNamespaceIds;
+
+  private final Timer generationLatency;
+  private final Timer requestLatency;
+
+  private final Counter rateLimited;
+  private final Counter overloaded;
+
+  public UidMetrics() {
+    this(new MetricRegistry(), DEFAULT_MAX_NAMESPACES);
+  }
+
+  /**
+   * @param registry registry of the metrics
+   * @param maxNamespaces number of namespaces counted on their own
+   */
+  public UidMetrics(@NonNull final MetricRegistry registry, final int maxNamespaces) {
+    if(maxNamespaces < 0) {
+      throw new IllegalArgumentException("max namespaces must be positive or 0");
+    }
+    this.registry = registry;
+    this.maxNamespaces = maxNamespaces;
+    this.otherNamespaceIds = registry.counter(namespaceIdsName(OTHER_NAMESPACE));
+    this.generationLatency = registry.timer("uidgen.generation.latency", UidMetrics::newTimer);
+    this.requestLatency = registry.timer("uidgen.request.latency", UidMetrics::newTimer);
+    this.rateLimited = registry.counter("uidgen.requests.rate-limited");
+    this.overloaded = registry.counter("uidgen.requests.overloaded");
+  }
+
+  public MetricRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * Record a successful call to a generator.
+   *
+   * @param namespace namespace of the ids
+   * @param count number of ids generated
+   * @param startNanos {@link System#nanoTime()} before calling the generator
+   */
+  public void recordGeneration(final String namespace, final int count, final long startNanos) {
+    generationLatency.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    namespaceIdsCounter(namespace).inc(count);
+  }
+
+  /**
+   * @param startNanos {@link System#nanoTime()} when the request was routed
+   */
+  public void recordRequest(final long startNanos) {
+    requestLatency.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Register a counter maintained outside of the registry, e.g. by the generators.
+   */
+  public void registerCounter(final String name, @NonNull final LongSupplier count) {
+    registry.remove(name);
+    registry.register(name, new Counter() {
+      @Override
+      public long getCount() {
+        return count.getAsLong();
+      }
+    });
+  }
+
+  public Counter getNamespaceIds(final String namespace) {
+    return namespaceIds.getOrDefault(namespace, otherNamespaceIds);
+  }
+
+  public Timer getGenerationLatency() {
+    return generationLatency;
+  }
+
+  public Timer getRequestLatency() {
+    return requestLatency;
+  }
+
+  public Counter getRateLimited() {
+    return rateLimited;
+  }
+
+  public Counter getOverloaded() {
+    return overloaded;
+  }
+
+  private Counter namespaceIdsCounter(final String namespace) {
+    final Counter counter = namespaceIds.get(namespace);
+    if(counter != null) {
+      return counter;
+    }
+
+    // racing threads may go slightly past the bound, which only matters to keep it small
+    if(namespaceIds.size() >= maxNamespaces) {
+      return otherNamespaceIds;
+    }
+    return namespaceIds.computeIfAbsent(namespace,
+        key -> registry.counter(namespaceIdsName(key)));
+  }
+
+  private static String namespaceIdsName(final String namespace) {
+    return MetricRegistry.name(NAMESPACE_PREFIX, namespace, "ids");
+  }
+
+  private static Timer newTimer() {
+    return new HdrTimer();
+  }
+}
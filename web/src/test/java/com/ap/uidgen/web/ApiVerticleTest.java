@@ -4,13 +4,19 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.junit5.Checkpoint;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
 
 import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.HashSet;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -78,6 +84,229 @@ public class ApiVerticleTest
         });
   }
 
+  @Test
+  public void testGetUids(Vertx vertx, VertxTestContext testContext) {
+    client
+        .get(port, "localhost", "/uidapi/v1/uids/testns?count=500")
+        .send(ar -> {
+          if (ar.succeeded()) {
+            HttpResponse<Buffer> response = ar.result();
+            assertEquals(200, response.statusCode());
+            final JsonArray uids = response.bodyAsJsonObject().getJsonArray("uids");
+            assertEquals(500, uids.size());
+            assertEquals(500, new HashSet<>(uids.getList()).size());
+            assertTrue(uids.getString(0).startsWith("testns-"));
+            testContext.completeNow();
+          } else {
+            fail();
+            testContext.completeNow();
+          }
+        });
+  }
+
+  @Test
+  public void testGetUidsInvalidCount(Vertx vertx, VertxTestContext testContext) {
+    client
+        .get(port, "localhost", "/uidapi/v1/uids/testns?count=100000")
+        .send(ar -> {
+          if (ar.succeeded()) {
+            HttpResponse<Buffer> response = ar.result();
+            assertEquals(400, response.statusCode());
+            assertTrue(response.bodyAsJsonObject().getInteger("code") == 400);
+            testContext.completeNow();
+          } else {
+            fail();
+            testContext.completeNow();
+          }
+        });
+  }
+
+  @Test
+  public void testGetUidWithFormat(Vertx vertx, VertxTestContext testContext) {
+    client
+        .get(port, "localhost", "/uidapi/v1/uid/testns?format=b62")
+        .send(ar -> {
+          if (ar.succeeded()) {
+            HttpResponse<Buffer> response = ar.result();
+            assertEquals(200, response.statusCode());
+            assertTrue(response.bodyAsJsonObject().getString("uid")
+                .matches("testns-[0-9A-Za-z]{11}"));
+            testContext.completeNow();
+          } else {
+            fail();
+            testContext.completeNow();
+          }
+        });
+  }
+
+  @Test
+  public void testGetUidsWithFormat(Vertx vertx, VertxTestContext testContext) {
+    client
+        .get(port, "localhost", "/uidapi/v1/uids/testns?count=300&format=hex")
+        .send(ar -> {
+          if (ar.succeeded()) {
+            HttpResponse<Buffer> response = ar.result();
+            assertEquals(200, response.statusCode());
+            final JsonArray uids = response.bodyAsJsonObject().getJsonArray("uids");
+            assertEquals(300, uids.size());
+            assertEquals(300, new HashSet<>(uids.getList()).size());
+            for(int i = 0; i < uids.size(); i++) {
+              assertTrue(uids.getString(i).matches("testns-[0-9a-f]{16}"));
+            }
+            testContext.completeNow();
+          } else {
+            fail();
+            testContext.completeNow();
+          }
+        });
+  }
+
+  @Test
+  public void testGetUidInvalidFormat(Vertx vertx, VertxTestContext testContext) {
+    client
+        .get(port, "localhost", "/uidapi/v1/uid/testns?format=b64")
+        .send(ar -> {
+          if (ar.succeeded()) {
+            HttpResponse<Buffer> response = ar.result();
+            assertEquals(400, response.statusCode());
+            assertTrue(response.bodyAsJsonObject().getInteger("code") == 400);
+            testContext.completeNow();
+          } else {
+            fail();
+            testContext.completeNow();
+          }
+        });
+  }
+
+  @Test
+  public void testGetUidAsText(Vertx vertx, VertxTestContext testContext) {
+    client
+        .get(port, "localhost", "/uidapi/v1/uid/testns")
+        .putHeader("Accept", "text/plain")
+        .send(ar -> {
+          if (ar.succeeded()) {
+            HttpResponse<Buffer> response = ar.result();
+            assertEquals(200, response.statusCode());
+            assertEquals("text/plain", response.getHeader("Content-Type"));
+            assertTrue(response.bodyAsString().matches("testns-[0-9]+"));
+            testContext.completeNow();
+          } else {
+            fail();
+            testContext.completeNow();
+          }
+        });
+  }
+
+  @Test
+  public void testGetUidsAsText(Vertx vertx, VertxTestContext testContext) {
+    client
+        .get(port, "localhost", "/uidapi/v1/uids/testns?count=300&format=b32")
+        .putHeader("Accept", "text/plain")
+        .send(ar -> {
+          if (ar.succeeded()) {
+            HttpResponse<Buffer> response = ar.result();
+            assertEquals(200, response.statusCode());
+            final String[] uids = response.bodyAsString().split("\n");
+            assertEquals(300, uids.length);
+            assertEquals(300, new HashSet<>(Arrays.asList(uids)).size());
+            for(String uid : uids) {
+              assertTrue(uid.matches("testns-[0-9A-Z]{13}"));
+            }
+            testContext.completeNow();
+          } else {
+            fail();
+            testContext.completeNow();
+          }
+        });
+  }
+
+  @Test
+  public void testGetUidAsBinary(Vertx vertx, VertxTestContext testContext) {
+    client
+        .get(port, "localhost", "/uidapi/v1/uid/testns")
+        .putHeader("Accept", "application/octet-stream")
+        .send(ar -> {
+          if (ar.succeeded()) {
+            HttpResponse<Buffer> response = ar.result();
+            assertEquals(200, response.statusCode());
+            assertEquals("application/octet-stream", response.getHeader("Content-Type"));
+            assertEquals(8, response.body().length());
+            assertNotEquals(0L, response.body().getLong(0));
+            testContext.completeNow();
+          } else {
+            fail();
+            testContext.completeNow();
+          }
+        });
+  }
+
+  @Test
+  public void testGetUidsAsBinary(Vertx vertx, VertxTestContext testContext) {
+    client
+        .get(port, "localhost", "/uidapi/v1/uids/testns?count=300")
+        .putHeader("Accept", "application/octet-stream")
+        .send(ar -> {
+          if (ar.succeeded()) {
+            HttpResponse<Buffer> response = ar.result();
+            assertEquals(200, response.statusCode());
+            final Buffer body = response.body();
+            assertEquals(300, body.getInt(0));
+            assertEquals(4 + 300 * 8, body.length());
+            final HashSet<Long> ids = new HashSet<>();
+            for(int i = 0; i < 300; i++) {
+              ids.add(body.getLong(4 + i * 8));
+            }
+            assertEquals(300, ids.size());
+            testContext.completeNow();
+          } else {
+            fail();
+            testContext.completeNow();
+          }
+        });
+  }
+
+  @Test
+  public void testGetUidAsTextInvalidNamespace(Vertx vertx, VertxTestContext testContext) {
+    client
+        .get(port, "localhost", "/uidapi/v1/uid/test--ns")
+        .putHeader("Accept", "text/plain")
+        .send(ar -> {
+          if (ar.succeeded()) {
+            // errors are always json
+            HttpResponse<Buffer> response = ar.result();
+            assertEquals(400, response.statusCode());
+            assertEquals("application/json", response.getHeader("Content-Type"));
+            assertTrue(response.bodyAsJsonObject().getInteger("code") == 400);
+            testContext.completeNow();
+          } else {
+            fail();
+            testContext.completeNow();
+          }
+        });
+  }
+
+  @Test
+  public void testGetUidsOverHttp2(Vertx vertx, VertxTestContext testContext) {
+    // h2c with prior knowledge, all requests multiplexed over a single connection
+    final WebClient http2Client = WebClient.create(vertx, new WebClientOptions()
+        .setProtocolVersion(HttpVersion.HTTP_2)
+        .setHttp2ClearTextUpgrade(false)
+        .setHttp2MaxPoolSize(1));
+    final Checkpoint responses = testContext.checkpoint(10);
+    for(int i = 0; i < 10; i++) {
+      http2Client
+          .get(port, "localhost", "/uidapi/v1/uids/testns?count=1000")
+          .send(ar -> testContext.verify(() -> {
+            assertTrue(ar.succeeded());
+            final HttpResponse<Buffer> response = ar.result();
+            assertEquals(HttpVersion.HTTP_2, response.version());
+            assertEquals(200, response.statusCode());
+            assertEquals(1000, response.bodyAsJsonObject().getJsonArray("uids").size());
+            responses.flag();
+          }));
+    }
+  }
+
   private static JsonObject getConfig()
   {
     JsonObject config = null;
@@ -92,6 +321,7 @@ public class ApiVerticleTest
       config.put(ConfigurationKeys.UID_GENERATOR.toString(), "snowflake");
       config.put(ConfigurationKeys.CORS_ORIGIN_REGEX.toString(), "*");
       config.put(ConfigurationKeys.BASE_WORKER_ID.toString(), 0);
+      config.put(ConfigurationKeys.MAX_BATCH_SIZE.toString(), 1000);
     }
     catch(Throwable t)
     {
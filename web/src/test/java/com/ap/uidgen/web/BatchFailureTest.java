@@ -0,0 +1,105 @@
+package com.ap.uidgen.web;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.ap.uidgen.core.services.LongUniqueIdGenerator;
+import com.ap.uidgen.core.services.snowflake.SequenceExhaustedException;
+import com.ap.uidgen.web.handlers.ApiHandler;
+import com.ap.uidgen.web.handlers.FailureHandler;
+import com.ap.uidgen.web.handlers.ResponseType;
+
+/**
+ * Test batches failing once their response started streaming
+ * @author aparadis
+ * @since 1.0.0
+ */
+@ExtendWith(VertxExtension.class)
+public class BatchFailureTest
+{
+  private static int port;
+  private static WebClient client;
+
+  @BeforeAll
+  public static void setup(Vertx vertx, VertxTestContext testContext) throws IOException {
+    final ApiHandler handler = new ApiHandler(new ScriptedGenerator(), 1000);
+    final Router router = Router.router(vertx);
+    router
+        .get("/uidapi/v1/uids/:namespace")
+        .handler(handler::handleGetIds)
+        .produces(ResponseType.JSON.getContentType())
+        .failureHandler(new FailureHandler());
+
+    client = WebClient.create(vertx);
+    vertx.createHttpServer()
+        .requestHandler(router)
+        .listen(port = freePort(), testContext.succeeding(server -> testContext.completeNow()));
+  }
+
+  @Test
+  public void deferralLimitMidBatchShouldAbortResponse(Vertx vertx, VertxTestContext testContext) {
+    // the first chunk is written, then the sequence stays exhausted
+    client.get(port, "localhost", "/uidapi/v1/uids/exhausted?count=1000")
+        .send(testContext.failing(e -> testContext.completeNow()));
+  }
+
+  @Test
+  public void failureInContinuationShouldAbortResponse(Vertx vertx, VertxTestContext testContext) {
+    // the first chunk is written, then the generator fails once retried on a timer
+    client.get(port, "localhost", "/uidapi/v1/uids/broken?count=1000")
+        .send(testContext.failing(e -> testContext.completeNow()));
+  }
+
+  private static int freePort() throws IOException {
+    try(ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  /**
+   * Generates the first chunk of each namespace, then keeps deferring on sequence exhaustion. The
+   * broken namespace fails outright once retried.
+   */
+  private static class ScriptedGenerator implements LongUniqueIdGenerator
+  {
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Override
+    public String generateUid(String namespace) {
+      return namespace + "-" + generateLongId(namespace);
+    }
+
+    @Override
+    public long generateLongId(String namespace) {
+      return ids.incrementAndGet();
+    }
+
+    @Override
+    public void generateLongIds(String namespace, long[] ids, int offset, int count) {
+      final int call = calls.computeIfAbsent(namespace, n -> new AtomicInteger()).getAndIncrement();
+      if(namespace.equals("broken") && call > 1) {
+        throw new IllegalStateException("generator failure");
+      }
+      if(call > 0) {
+        throw new SequenceExhaustedException(1);
+      }
+      for(int i = offset; i < offset + count; i++) {
+        ids[i] = generateLongId(namespace);
+      }
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.ap.uidgen.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.ap.uidgen.web.ApiConfiguration.ConfigurationKeys;
+
+/**
+ * Test health and readiness endpoints
+ * @author aparadis
+ * @since 1.0.0
+ */
+@ExtendWith(VertxExtension.class)
+public class HealthCheckTest
+{
+  private static final long LEASE_TTL_MILLIS = 2000L;
+
+  private static int port;
+  private static WebClient client;
+
+  @BeforeAll
+  public static void setup(Vertx vertx, VertxTestContext testContext) throws IOException {
+    // leases are never renewed, worker ids are lost once their time to live elapses
+    final JsonObject config = new JsonObject()
+        .put(ConfigurationKeys.SERVER_PORT.toString(), port = freePort())
+        .put(ConfigurationKeys.METRICS_SERVER_PORT.toString(), 0)
+        .put(ConfigurationKeys.UID_GENERATOR.toString(), "snowflake")
+        .put(ConfigurationKeys.CORS_ORIGIN_REGEX.toString(), "*")
+        .put(ConfigurationKeys.BASE_WORKER_ID.toString(), 0)
+        .put(ConfigurationKeys.WORKER_ID_STORE.toString(), "memory")
+        .put(ConfigurationKeys.WORKER_ID_LEASE_TTL_MILLIS.toString(), LEASE_TTL_MILLIS)
+        .put(ConfigurationKeys.WORKER_ID_LEASE_HEARTBEAT_MILLIS.toString(), 0L);
+
+    client = WebClient.create(vertx);
+    ApiMain.deployVerticle(vertx, config, 2, testContext.completing());
+  }
+
+  @Test
+  public void testHealthAndReadiness(Vertx vertx, VertxTestContext testContext) {
+    get("/health")
+        .compose(response -> {
+          testContext.verify(() -> assertEquals(204, response.statusCode()));
+          return get("/ready");
+        })
+        .compose(response -> {
+          testContext.verify(() -> {
+            assertEquals(200, response.statusCode());
+            final JsonObject body = response.bodyAsJsonObject();
+            assertEquals("UP", body.getString("outcome"));
+
+            final JsonObject generators = check(body.getJsonArray("checks"), "generators");
+            assertEquals("UP", generators.getString("status"));
+            assertEquals(2, generators.getJsonObject("data").getInteger("generators"));
+            assertEquals("UP",
+                check(body.getJsonArray("checks"), "worker-ids").getString("status"));
+          });
+
+          final Promise<Long> expired = Promise.promise();
+          vertx.setTimer(LEASE_TTL_MILLIS + 100, expired::complete);
+          return expired.future().compose(id -> get("/ready"));
+        })
+        .setHandler(testContext.succeeding(response -> testContext.verify(() -> {
+          assertEquals(503, response.statusCode());
+          final JsonObject body = response.bodyAsJsonObject();
+          assertEquals("DOWN", body.getString("outcome"));
+
+          final JsonObject workerIds = check(body.getJsonArray("checks"), "worker-ids");
+          assertEquals("DOWN", workerIds.getString("status"));
+          assertEquals(new JsonArray().add(0).add(1), workerIds.getJsonObject("data")
+              .getJsonArray("lost"));
+          testContext.completeNow();
+        })));
+  }
+
+  private static JsonObject check(final JsonArray checks, final String id) {
+    for(int i = 0; i < checks.size(); i++) {
+      if(id.equals(checks.getJsonObject(i).getString("id"))) {
+        return checks.getJsonObject(i);
+      }
+    }
+    throw new AssertionError("no check " + id + " in " + checks);
+  }
+
+  private static Future<HttpResponse<Buffer>> get(String uri) {
+    final Promise<HttpResponse<Buffer>> promise = Promise.promise();
+    client.get(port, "localhost", uri).send(promise);
+    return promise.future();
+  }
+
+  private static int freePort() throws IOException {
+    try(ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
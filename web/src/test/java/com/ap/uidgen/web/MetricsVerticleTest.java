@@ -0,0 +1,92 @@
+package com.ap.uidgen.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.ap.uidgen.web.ApiConfiguration.ConfigurationKeys;
+import com.ap.uidgen.web.metrics.PrometheusExporter;
+import com.ap.uidgen.web.metrics.UidMetrics;
+
+/**
+ * Test metrics endpoint
+ * @author aparadis
+ * @since 1.0.0
+ */
+@ExtendWith(VertxExtension.class)
+public class MetricsVerticleTest
+{
+  private static int port;
+  private static int metricsPort;
+  private static WebClient client;
+
+  @BeforeAll
+  public static void setup(Vertx vertx, VertxTestContext testContext) throws IOException {
+    final JsonObject config = new JsonObject()
+        .put(ConfigurationKeys.SERVER_PORT.toString(), port = freePort())
+        .put(ConfigurationKeys.METRICS_SERVER_PORT.toString(), metricsPort = freePort())
+        .put(ConfigurationKeys.METRICS_MAX_NAMESPACES.toString(), 1)
+        .put(ConfigurationKeys.UID_GENERATOR.toString(), "snowflake")
+        .put(ConfigurationKeys.CORS_ORIGIN_REGEX.toString(), "*")
+        .put(ConfigurationKeys.BASE_WORKER_ID.toString(), 0);
+
+    client = WebClient.create(vertx);
+    ApiMain.deployVerticle(vertx, config, 2, testContext.completing());
+  }
+
+  @Test
+  public void testGetMetrics(Vertx vertx, VertxTestContext testContext) {
+    // the second namespace goes past the bound of 1 namespace counted on its own
+    get(port, "/uidapi/v1/uids/alpha?count=10")
+        .compose(response -> get(port, "/uidapi/v1/uid/beta"))
+        .compose(response -> get(metricsPort, "/metrics"))
+        .setHandler(testContext.succeeding(response -> testContext.verify(() -> {
+          assertEquals(200, response.statusCode());
+          assertEquals(PrometheusExporter.CONTENT_TYPE, response.getHeader("Content-Type"));
+
+          final String metrics = response.bodyAsString();
+          assertTrue(metrics.contains("# TYPE uidgen_namespace_ids_total counter\n"));
+          assertTrue(metrics.contains("uidgen_namespace_ids_total{namespace=\"alpha\"} 10\n"));
+          assertTrue(metrics.contains("uidgen_namespace_ids_total{namespace=\""
+              + UidMetrics.OTHER_NAMESPACE + "\"} 1\n"));
+          assertFalse(metrics.contains("namespace=\"beta\""));
+
+          assertTrue(metrics.contains("# TYPE uidgen_generation_latency_seconds summary\n"));
+          assertTrue(metrics.contains("uidgen_generation_latency_seconds_count 2\n"));
+          assertTrue(metrics.contains("uidgen_generation_latency_seconds_sum "));
+          assertTrue(metrics.contains("# TYPE uidgen_request_latency_seconds summary\n"));
+          assertTrue(metrics.contains(
+              "# TYPE uidgen_snowflake_sequence_exhausted_spins_total counter\n"));
+          assertTrue(metrics.contains("uidgen_worker_ids_in_use 2.0\n"));
+          assertTrue(metrics.contains("uidgen_worker_ids_capacity 1024.0\n"));
+          testContext.completeNow();
+        })));
+  }
+
+  private static Future<HttpResponse<Buffer>> get(int port, String uri) {
+    final Promise<HttpResponse<Buffer>> promise = Promise.promise();
+    client.get(port, "localhost", uri).send(promise);
+    return promise.future();
+  }
+
+  private static int freePort() throws IOException {
+    try(ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package com.ap.uidgen.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.ap.uidgen.web.ApiConfiguration.ConfigurationKeys;
+import com.ap.uidgen.web.handlers.ConcurrencyLimitHandler;
+import com.ap.uidgen.web.metrics.UidMetrics;
+
+/**
+ * Test per namespace quotas
+ * @author aparadis
+ * @since 1.0.0
+ */
+@ExtendWith(VertxExtension.class)
+public class RateLimitTest
+{
+  private static int port;
+  private static WebClient client;
+
+  @BeforeAll
+  public static void setup(Vertx vertx, VertxTestContext testContext) throws IOException {
+    // a single verticle, so that all requests go through the same buckets
+    final JsonObject config = new JsonObject()
+        .put(ConfigurationKeys.SERVER_PORT.toString(), port = freePort())
+        .put(ConfigurationKeys.METRICS_SERVER_PORT.toString(), 0)
+        .put(ConfigurationKeys.UID_GENERATOR.toString(), "snowflake")
+        .put(ConfigurationKeys.CORS_ORIGIN_REGEX.toString(), "*")
+        .put(ConfigurationKeys.BASE_WORKER_ID.toString(), 0)
+        .put(ConfigurationKeys.MAX_CONCURRENT_REQUESTS.toString(), 100)
+        .put(ConfigurationKeys.RATE_LIMIT_NAMESPACE_QUOTAS.toString(), "limited=10, free=0");
+
+    client = WebClient.create(vertx);
+    ApiMain.deployVerticle(vertx, config, 1, testContext.completing());
+  }
+
+  @Test
+  public void testNamespaceQuota(Vertx vertx, VertxTestContext testContext) {
+    get("/uidapi/v1/uids/limited?count=10")
+        .compose(response -> {
+          testContext.verify(() -> assertEquals(200, response.statusCode()));
+          // the bucket takes a second to hold 10 ids again
+          return get("/uidapi/v1/uids/limited?count=10");
+        })
+        .compose(response -> {
+          testContext.verify(() -> {
+            assertEquals(429, response.statusCode());
+            assertEquals("1", response.getHeader("Retry-After"));
+            assertEquals(429, response.bodyAsJsonObject().getInteger("code"));
+          });
+          return get("/uidapi/v1/uids/free?count=1000");
+        })
+        .compose(response -> {
+          // namespaces without a quota are not limited
+          testContext.verify(() -> assertEquals(200, response.statusCode()));
+          return get("/uidapi/v1/uid/other");
+        })
+        .setHandler(testContext.succeeding(response -> testContext.verify(() -> {
+          assertEquals(200, response.statusCode());
+          testContext.completeNow();
+        })));
+  }
+
+  @Test
+  public void testConcurrencyLimit(Vertx vertx, VertxTestContext testContext) throws IOException {
+    // a single request in flight, held by a response streamed until its connection closes
+    final UidMetrics metrics = new UidMetrics();
+    final ConcurrencyLimitHandler limit = new ConcurrencyLimitHandler(1, metrics);
+    final Router router = Router.router(vertx);
+    router.route().handler(limit);
+    router.get("/held").handler(context -> context.response().setChunked(true).write("["));
+    router.get("/ended").handler(context -> context.response().end());
+
+    final int limitedPort = freePort();
+    final HttpClient holder = vertx.createHttpClient();
+    final Promise<Void> held = Promise.promise();
+    vertx.createHttpServer()
+        .requestHandler(router)
+        .listen(limitedPort, testContext.succeeding(server -> holder
+            .getNow(limitedPort, "localhost", "/held", response -> held.complete())));
+
+    held.future()
+        .compose(v -> {
+          testContext.verify(() -> assertEquals(1, limit.getInFlight()));
+          return get(limitedPort, "/ended");
+        })
+        .compose(response -> {
+          testContext.verify(() -> {
+            assertEquals(503, response.statusCode());
+            assertEquals("1", response.getHeader("Retry-After"));
+            assertEquals(1, metrics.getOverloaded().getCount());
+            assertEquals(1, limit.getInFlight());
+          });
+          // leaves once its connection closes
+          holder.close();
+          return waitForInFlight(vertx, limit, 0);
+        })
+        .compose(v -> get(limitedPort, "/ended"))
+        .compose(response -> {
+          // and once its response ends
+          testContext.verify(() -> assertEquals(200, response.statusCode()));
+          return waitForInFlight(vertx, limit, 0);
+        })
+        .setHandler(testContext.succeeding(v -> testContext.completeNow()));
+  }
+
+  private static Future<Void> waitForInFlight(
+      Vertx vertx,
+      ConcurrencyLimitHandler limit,
+      int expected) {
+    final Promise<Void> promise = Promise.promise();
+    vertx.setPeriodic(10, id -> {
+      if(limit.getInFlight() == expected) {
+        vertx.cancelTimer(id);
+        promise.complete();
+      }
+    });
+    return promise.future();
+  }
+
+  private static Future<HttpResponse<Buffer>> get(String uri) {
+    return get(port, uri);
+  }
+
+  private static Future<HttpResponse<Buffer>> get(int serverPort, String uri) {
+    final Promise<HttpResponse<Buffer>> promise = Promise.promise();
+    client.get(serverPort, "localhost", uri).send(promise);
+    return promise.future();
+  }
+
+  private static int freePort() throws IOException {
+    try(ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
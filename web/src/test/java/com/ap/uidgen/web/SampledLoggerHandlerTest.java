@@ -0,0 +1,89 @@
+package com.ap.uidgen.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.LoggerHandler;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.ap.uidgen.web.handlers.SampledLoggerHandler;
+
+/**
+ * Sampling of the access log
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class SampledLoggerHandlerTest
+{
+  private static final int REQUESTS = 100;
+
+  private final AtomicInteger logged = new AtomicInteger();
+  private final AtomicInteger passed = new AtomicInteger();
+
+  @Test
+  public void oneRequestInSampleRateShouldBeLogged() {
+    assertEquals(REQUESTS / 10, handle(10));
+  }
+
+  @Test
+  public void sampleRateOfOneShouldLogEveryRequest() {
+    assertEquals(REQUESTS, handle(1));
+  }
+
+  @Test
+  public void sampleRateOfZeroShouldLogNoRequest() {
+    assertEquals(0, handle(0));
+  }
+
+  @Test
+  public void negativeSampleRateShouldBeRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new SampledLoggerHandler(logger(), -1));
+  }
+
+  /**
+   * Route requests through a sampled logger, every one of them must be passed on once.
+   *
+   * @return number of requests logged
+   */
+  private int handle(int sampleRate) {
+    final SampledLoggerHandler handler = new SampledLoggerHandler(logger(), sampleRate);
+    for(int i = 0; i < REQUESTS; i++) {
+      handler.handle(context());
+    }
+    assertEquals(REQUESTS, passed.get());
+    return logged.get();
+  }
+
+  /**
+   * @return a logger counting the requests logged, passing them on like vertx's own
+   */
+  private LoggerHandler logger() {
+    return (LoggerHandler)Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] { LoggerHandler.class }, (proxy, method, args) -> {
+          if(method.getName().equals("handle")) {
+            logged.incrementAndGet();
+            ((RoutingContext)args[0]).next();
+          }
+          return null;
+        });
+  }
+
+  /**
+   * @return a context counting the calls to {@link RoutingContext#next()}
+   */
+  private RoutingContext context() {
+    final AtomicInteger nexts = new AtomicInteger();
+    return (RoutingContext)Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] { RoutingContext.class }, (proxy, method, args) -> {
+          if(method.getName().equals("next")) {
+            assertEquals(1, nexts.incrementAndGet(), "request passed on more than once");
+            passed.incrementAndGet();
+          }
+          return null;
+        });
+  }
+}
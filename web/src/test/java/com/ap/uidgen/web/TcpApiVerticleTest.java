@@ -0,0 +1,118 @@
+package com.ap.uidgen.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.ap.uidgen.web.ApiConfiguration.ConfigurationKeys;
+import com.ap.uidgen.web.handlers.BinaryIdHandler;
+
+/**
+ * Test binary protocol over tcp
+ * @author aparadis
+ * @since 1.0.0
+ */
+@ExtendWith(VertxExtension.class)
+public class TcpApiVerticleTest
+{
+  private static int tcpPort;
+
+  @BeforeAll
+  public static void setup(Vertx vertx, VertxTestContext testContext) throws IOException {
+    final JsonObject config = new JsonObject()
+        .put(ConfigurationKeys.SERVER_PORT.toString(), freePort())
+        .put(ConfigurationKeys.TCP_SERVER_PORT.toString(), tcpPort = freePort())
+        .put(ConfigurationKeys.UID_GENERATOR.toString(), "snowflake")
+        .put(ConfigurationKeys.CORS_ORIGIN_REGEX.toString(), "*")
+        .put(ConfigurationKeys.BASE_WORKER_ID.toString(), 0)
+        .put(ConfigurationKeys.MAX_BATCH_SIZE.toString(), 1000);
+
+    ApiMain.deployVerticle(vertx, config, 2, testContext.completing());
+  }
+
+  @Test
+  public void testPipelinedRequests(Vertx vertx, VertxTestContext testContext) {
+    // all requests in a single write, responses must come back in order
+    final Buffer requests = Buffer.buffer();
+    for(int i = 0; i < 100; i++) {
+      appendRequest(requests, "testns", 10);
+    }
+    appendRequest(requests, "test--ns", 1);
+    appendRequest(requests, "testns", 1001);
+    appendRequest(requests, "testns", 1000);
+
+    final int expectedLength = 100 * (BinaryIdHandler.RESPONSE_HEADER_SIZE + 10 * 8)
+        + 2 * BinaryIdHandler.RESPONSE_HEADER_SIZE
+        + BinaryIdHandler.RESPONSE_HEADER_SIZE + 1000 * 8;
+
+    vertx.createNetClient().connect(tcpPort, "localhost", ar -> {
+      if(ar.failed()) {
+        testContext.failNow(ar.cause());
+        return;
+      }
+
+      final Buffer received = Buffer.buffer();
+      ar.result().handler(data -> {
+        received.appendBuffer(data);
+        if(received.length() < expectedLength) {
+          return;
+        }
+
+        testContext.verify(() -> {
+          assertEquals(expectedLength, received.length());
+          final Set<Long> ids = new HashSet<>();
+          int position = 0;
+          for(int i = 0; i < 100; i++) {
+            assertEquals(BinaryIdHandler.STATUS_OK, received.getByte(position));
+            assertEquals(10, received.getInt(position + 1));
+            position += BinaryIdHandler.RESPONSE_HEADER_SIZE;
+            for(int j = 0; j < 10; j++, position += 8) {
+              ids.add(received.getLong(position));
+            }
+          }
+
+          assertEquals(BinaryIdHandler.STATUS_INVALID_NAMESPACE, received.getByte(position));
+          assertEquals(0, received.getInt(position + 1));
+          position += BinaryIdHandler.RESPONSE_HEADER_SIZE;
+          assertEquals(BinaryIdHandler.STATUS_INVALID_COUNT, received.getByte(position));
+          position += BinaryIdHandler.RESPONSE_HEADER_SIZE;
+
+          assertEquals(BinaryIdHandler.STATUS_OK, received.getByte(position));
+          assertEquals(1000, received.getInt(position + 1));
+          position += BinaryIdHandler.RESPONSE_HEADER_SIZE;
+          for(int j = 0; j < 1000; j++, position += 8) {
+            ids.add(received.getLong(position));
+          }
+          assertEquals(2000, ids.size());
+        });
+        testContext.completeNow();
+      });
+      ar.result().write(requests);
+    });
+  }
+
+  private static void appendRequest(Buffer buffer, String namespace, int count) {
+    final byte[] bytes = namespace.getBytes(StandardCharsets.US_ASCII);
+    buffer.appendByte((byte)bytes.length).appendBytes(bytes).appendInt(count);
+  }
+
+  private static int freePort() throws IOException {
+    try(ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.ap.uidgen.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vertx.core.json.Json;
+
+import org.junit.jupiter.api.Test;
+
+import com.ap.uidgen.core.services.encoding.IdFormat;
+import com.ap.uidgen.web.handlers.NamespaceValidator;
+import com.ap.uidgen.web.handlers.UidResponseWriter;
+import com.ap.uidgen.web.models.GetIdResponse;
+
+/**
+ * Fast response path must keep the wire format of the jackson serialization.
+ * @author aparadis
+ * @since 1.0.0
+ */
+public class UidResponseWriterTest
+{
+  @Test
+  public void responsesShouldMatchJacksonSerialization() {
+    final UidResponseWriter writer = new UidResponseWriter(2);
+    for(String namespace : new String[] { "foo", "bar", "foo", "baz_42", "foo" }) {
+      for(long id : new long[] { 0L, 2572784626593792L, -1L }) {
+        for(IdFormat format : IdFormat.values()) {
+          final String uid = namespace + "-" + format.getEncoder().encode(id);
+          final String expected = Json.encodePrettily(GetIdResponse.builder().uid(uid).build());
+
+          assertEquals(expected, writer.write(namespace, id, format.getEncoder()).toString());
+          assertEquals(expected, writer.write(uid).toString());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void namespaceValidationShouldMatchWordCharacters() {
+    for(char c = 0; c < 512; c++) {
+      final String namespace = "ns" + c;
+      assertEquals(namespace.matches("^\\w+$"), NamespaceValidator.isValidNamespace(namespace),
+          "character " + (int)c);
+      assertEquals(NamespaceValidator.isValidNamespace(namespace),
+          new NamespaceValidator(namespace).isValid());
+    }
+    assertFalse(NamespaceValidator.isValidNamespace(null));
+    assertFalse(NamespaceValidator.isValidNamespace(""));
+    assertTrue(NamespaceValidator.isValidNamespace("a".repeat(50)));
+    assertFalse(NamespaceValidator.isValidNamespace("a".repeat(51)));
+  }
+}
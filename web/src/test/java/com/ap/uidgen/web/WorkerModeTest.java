@@ -0,0 +1,136 @@
+package com.ap.uidgen.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.Checkpoint;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.ap.uidgen.web.ApiConfiguration.ConfigurationKeys;
+
+/**
+ * Test id handlers running on worker threads
+ * @author aparadis
+ * @since 1.0.0
+ */
+@ExtendWith(VertxExtension.class)
+public class WorkerModeTest
+{
+  private static final int REQUESTS = 50;
+  private static final int BATCH_SIZE = 1000;
+  private static final int WORKER_POOL_SIZE = 4;
+  // large enough to fill the write queue of a response, which then resumes once it drained
+  private static final int LARGE_BATCH_SIZE = 200000;
+
+  private static int port;
+  private static WebClient client;
+
+  @BeforeAll
+  public static void setup(Vertx vertx, VertxTestContext testContext) throws IOException {
+    final JsonObject config = new JsonObject()
+        .put(ConfigurationKeys.SERVER_PORT.toString(), port = freePort())
+        .put(ConfigurationKeys.METRICS_SERVER_PORT.toString(), 0)
+        .put(ConfigurationKeys.EXECUTION_MODE.toString(), "worker")
+        .put(ConfigurationKeys.WORKER_POOL_SIZE.toString(), WORKER_POOL_SIZE)
+        .put(ConfigurationKeys.UID_GENERATOR.toString(), "snowflake")
+        .put(ConfigurationKeys.CORS_ORIGIN_REGEX.toString(), "*")
+        .put(ConfigurationKeys.BASE_WORKER_ID.toString(), 0)
+        .put(ConfigurationKeys.MAX_BATCH_SIZE.toString(), LARGE_BATCH_SIZE);
+
+    client = WebClient.create(vertx);
+    ApiMain.deployVerticle(vertx, config, 2, testContext.completing());
+  }
+
+  @Test
+  public void testConcurrentBatchesAreUnique(Vertx vertx, VertxTestContext testContext) {
+    final Set<String> uids = ConcurrentHashMap.newKeySet();
+    final Checkpoint responses = testContext.checkpoint(REQUESTS);
+    for(int i = 0; i < REQUESTS; i++) {
+      client.get(port, "localhost", "/uidapi/v1/uids/testns?count=" + BATCH_SIZE)
+          .send(ar -> testContext.verify(() -> {
+            assertTrue(ar.succeeded());
+            assertEquals(200, ar.result().statusCode());
+            final JsonArray batch = ar.result().bodyAsJsonObject().getJsonArray("uids");
+            assertEquals(BATCH_SIZE, batch.size());
+            batch.forEach(uid -> assertTrue(uids.add((String)uid), "duplicate uid " + uid));
+            responses.flag();
+          }));
+    }
+  }
+
+  @Test
+  public void testLargeBatchToSlowReader(Vertx vertx, VertxTestContext testContext) {
+    // warm all worker threads up so that each holds a stripe of the shared snowflake, none is left
+    // for continuations running elsewhere
+    final List<Future> warmup = new ArrayList<>();
+    for(int i = 0; i < REQUESTS; i++) {
+      final Promise<Void> response = Promise.promise();
+      client.get(port, "localhost", "/uidapi/v1/uids/testns?count=" + BATCH_SIZE)
+          .send(ar -> response.complete());
+      warmup.add(response.future());
+    }
+
+    CompositeFuture.all(warmup).setHandler(testContext.succeeding(v -> vertx.createHttpClient()
+        .getNow(port, "localhost", "/uidapi/v1/uids/testns?count=" + LARGE_BATCH_SIZE,
+            response -> readSlowly(vertx, response, testContext.succeeding(body ->
+                testContext.verify(() -> {
+                  assertEquals(200, response.statusCode());
+                  final JsonArray batch = body.toJsonObject().getJsonArray("uids");
+                  assertEquals(LARGE_BATCH_SIZE, batch.size());
+                  testContext.completeNow();
+                }))))));
+  }
+
+  @Test
+  public void testGetUid(Vertx vertx, VertxTestContext testContext) {
+    client.get(port, "localhost", "/uidapi/v1/uid/testns")
+        .send(testContext.succeeding(response -> testContext.verify(() -> {
+          assertEquals(200, response.statusCode());
+          assertTrue(response.bodyAsJsonObject().getString("uid").startsWith("testns-"));
+          testContext.completeNow();
+        })));
+  }
+
+  /**
+   * Read the body of a response after a pause, for its write queue to fill up
+   */
+  private static void readSlowly(
+      Vertx vertx,
+      HttpClientResponse response,
+      Handler<AsyncResult<Buffer>> handler) {
+    final Buffer body = Buffer.buffer();
+    response.handler(body::appendBuffer);
+    response.exceptionHandler(e -> handler.handle(Future.failedFuture(e)));
+    response.endHandler(v -> handler.handle(Future.succeededFuture(body)));
+    response.pause();
+    vertx.setTimer(1000, id -> response.resume());
+  }
+
+  private static int freePort() throws IOException {
+    try(ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}